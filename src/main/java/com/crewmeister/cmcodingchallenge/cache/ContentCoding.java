@@ -0,0 +1,23 @@
+package com.crewmeister.cmcodingchallenge.cache;
+
+/**
+ * HTTP content codings response bodies can be stored in, in order of preference.
+ */
+public enum ContentCoding {
+
+    BROTLI("br"),
+    GZIP("gzip");
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Returns the token used in Accept-Encoding and Content-Encoding headers.
+     */
+    public String getToken() {
+        return token;
+    }
+}
@@ -0,0 +1,34 @@
+package com.crewmeister.cmcodingchallenge.cache;
+
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The rates added between two data versions.
+ */
+public final class DataChanges {
+
+    private final long sinceVersion;
+    private final long version;
+    private final List<ExchangeRateRow> addedRates;
+
+    public DataChanges(long sinceVersion, long version, List<ExchangeRateRow> addedRates) {
+        this.sinceVersion = sinceVersion;
+        this.version = version;
+        this.addedRates = Collections.unmodifiableList(addedRates);
+    }
+
+    public long getSinceVersion() {
+        return sinceVersion;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<ExchangeRateRow> getAddedRates() {
+        return addedRates;
+    }
+}
@@ -0,0 +1,107 @@
+package com.crewmeister.cmcodingchallenge.cache;
+
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.event.ExchangeRatesRefreshedEvent;
+import com.crewmeister.cmcodingchallenge.exception.ChangeHistoryUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the version of the exchange rate data set.
+ * The version advances once the transaction of a refresh that stored new rates
+ * has committed, so anything derived from an older version can be discarded.
+ *
+ * Each version also records the rates its refresh added, so clients holding the
+ * data set of an older version can catch up with just the difference. The oldest
+ * versions are forgotten once the recorded rates exceed the configured budget.
+ */
+@Component
+public class DataVersionTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataVersionTracker.class);
+
+    /**
+     * Response header carrying the data version a response was produced from.
+     */
+    public static final String VERSION_HEADER = "X-Fx-Data-Version";
+
+    private static final long INITIAL_VERSION = 1;
+
+    private final AtomicLong version = new AtomicLong(INITIAL_VERSION);
+    private final long maxRetainedRates;
+
+    // Guarded by this; rates added by each version after oldestComparableVersion
+    private final NavigableMap<Long, List<ExchangeRateRow>> changes = new TreeMap<>();
+    private long retainedRates;
+    private long oldestComparableVersion = INITIAL_VERSION;
+
+    public DataVersionTracker(@Value("${fx.changes.max-retained-rates:100000}") long maxRetainedRates) {
+        this.maxRetainedRates = maxRetainedRates;
+    }
+
+    /**
+     * Returns the current data version.
+     */
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Advances the data version, invalidating everything derived from the previous one.
+     * 
+     * @return The new data version
+     */
+    public long advance() {
+        return record(List.of());
+    }
+
+    /**
+     * Returns the rates added after the given version, up to the current one.
+     * 
+     * @param since Data version the caller's copy of the data set corresponds to
+     * @return Rates added since that version, in the order they were added
+     * @throws ChangeHistoryUnavailableException if the changes since that version are no longer
+     *         recorded, or the version is unknown, e.g. because it stems from before a restart
+     */
+    public synchronized DataChanges changesSince(long since) {
+        long current = version.get();
+        if (since < oldestComparableVersion || since > current) {
+            throw new ChangeHistoryUnavailableException(since, oldestComparableVersion, current);
+        }
+        List<ExchangeRateRow> rates = new ArrayList<>();
+        changes.tailMap(since, false).values().forEach(rates::addAll);
+        return new DataChanges(since, current, rates);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(ExchangeRatesRefreshedEvent.VERSION_ORDER)
+    public void onExchangeRatesRefreshed(ExchangeRatesRefreshedEvent event) {
+        long newVersion = record(event.getAddedRates());
+        logger.info("Data version advanced to {} after {} new rates", newVersion, event.getRatesAdded());
+    }
+
+    private synchronized long record(List<ExchangeRateRow> addedRates) {
+        long newVersion = version.get() + 1;
+        changes.put(newVersion, addedRates);
+        retainedRates += addedRates.size();
+        while (retainedRates > maxRetainedRates && !changes.isEmpty()) {
+            Map.Entry<Long, List<ExchangeRateRow>> oldest = changes.pollFirstEntry();
+            retainedRates -= oldest.getValue().size();
+            oldestComparableVersion = oldest.getKey();
+        }
+        // Published only once its changes are recorded
+        version.set(newVersion);
+        return newVersion;
+    }
+}
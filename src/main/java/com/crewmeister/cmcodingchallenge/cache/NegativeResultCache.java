@@ -0,0 +1,101 @@
+package com.crewmeister.cmcodingchallenge.cache;
+
+import com.crewmeister.cmcodingchallenge.event.ExchangeRatesRefreshedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers currency and date combinations the database holds no rate for, such as
+ * days not published yet, so repeated lookups of them need no query.
+ *
+ * Dates between a currency's first and last rate are recognized as misses by the
+ * {@link com.crewmeister.cmcodingchallenge.store.RateStore} already; this cache covers
+ * the dates outside that window. An entry only counts while the data version it was
+ * recorded for is current, and all entries are dropped after a refresh. Once the
+ * configured number of entries is reached the cache starts over empty, which is
+ * cheaper than tracking recency for entries that are this cheap to recreate.
+ */
+@Component
+public class NegativeResultCache implements MeterBinder {
+
+    private final DataVersionTracker dataVersionTracker;
+    private final int maxEntries;
+
+    private final Map<List<Object>, Long> misses = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    public NegativeResultCache(DataVersionTracker dataVersionTracker,
+                               @Value("${fx.negative-cache.max-entries:10000}") int maxEntries) {
+        this.dataVersionTracker = dataVersionTracker;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns whether a lookup of the given rate is known to find nothing.
+     *
+     * @param currencyCode Normalized ISO currency code
+     * @param date Date of the rate
+     */
+    public boolean isKnownMiss(String currencyCode, LocalDate date) {
+        Long version = misses.get(key(currencyCode, date));
+        if (version == null || version != dataVersionTracker.current()) {
+            return false;
+        }
+        hits.increment();
+        return true;
+    }
+
+    /**
+     * Records that a lookup of the given rate found nothing.
+     *
+     * @param currencyCode Normalized ISO currency code
+     * @param date Date of the rate
+     * @param version Data version read before the lookup ran
+     */
+    public void recordMiss(String currencyCode, LocalDate date, long version) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        if (misses.size() >= maxEntries) {
+            misses.clear();
+        }
+        misses.put(key(currencyCode, date), version);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(ExchangeRatesRefreshedEvent.INVALIDATION_ORDER)
+    public void onExchangeRatesRefreshed(ExchangeRatesRefreshedEvent event) {
+        misses.clear();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("fx.negative.cache.hits", hits, LongAdder::sum)
+                .description("Lookups answered as not found without a query")
+                .register(registry);
+        Gauge.builder("fx.negative.cache.size", misses, Map::size)
+                .description("Lookups known to find no rate")
+                .register(registry);
+    }
+
+    private static List<Object> key(String currencyCode, LocalDate date) {
+        return List.of(currencyCode, date);
+    }
+}
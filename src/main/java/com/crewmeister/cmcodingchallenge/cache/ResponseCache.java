@@ -0,0 +1,238 @@
+package com.crewmeister.cmcodingchallenge.cache;
+
+import com.crewmeister.cmcodingchallenge.event.ExchangeRatesRefreshedEvent;
+import com.crewmeister.cmcodingchallenge.timing.ServerTiming;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache of pre-serialized JSON response bodies for responses that cannot change
+ * within a data version, such as exchange rates of past dates.
+ *
+ * Entries keep the encoded UTF-8 bytes and their compressed encodings, produced once
+ * by {@link ResponseCompressor} when the entry is created. They are evicted
+ * least-recently-used once the configured byte budget is exceeded, and are only
+ * served while their data version is current.
+ */
+@Component
+public class ResponseCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    private final ObjectMapper objectMapper;
+    private final DataVersionTracker dataVersionTracker;
+    private final ResponseCompressor responseCompressor;
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, CachedBody> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ResponseCache(
+            ObjectMapper objectMapper,
+            DataVersionTracker dataVersionTracker,
+            ResponseCompressor responseCompressor,
+            @Value("${fx.response-cache.max-bytes:16777216}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.dataVersionTracker = dataVersionTracker;
+        this.responseCompressor = responseCompressor;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the JSON response for the given key, serializing the loaded value only on a miss.
+     * Non-cacheable requests are serialized the same way but never stored or compressed.
+     * The response carries the data version read before the body was produced; the body
+     * may already include rates of a later version.
+     *
+     * @param key Endpoint and arguments identifying the response
+     * @param cacheable Whether the response may be stored for the current data version
+     * @param loader Supplies the value to serialize on a miss
+     * @param acceptEncoding The request's Accept-Encoding header, may be null
+     * @return Response carrying the encoded body
+     */
+    public ResponseEntity<byte[]> respond(String key, boolean cacheable, Supplier<?> loader, String acceptEncoding) {
+        return respondSerialized(key, cacheable, () -> serialize(loader.get()), acceptEncoding);
+    }
+
+    /**
+     * Like {@link #respond}, for bodies the caller already writes as UTF-8 JSON,
+     * e.g. with a streaming generator instead of through DTOs.
+     *
+     * @param key Endpoint and arguments identifying the response
+     * @param cacheable Whether the response may be stored for the current data version
+     * @param serializer Supplies the encoded JSON body on a miss
+     * @param acceptEncoding The request's Accept-Encoding header, may be null
+     * @return Response carrying the encoded body
+     */
+    public ResponseEntity<byte[]> respondSerialized(String key, boolean cacheable, Supplier<byte[]> serializer,
+                                                    String acceptEncoding) {
+        long version = dataVersionTracker.current();
+        if (!cacheable) {
+            return toResponse(serializer.get(), null, version);
+        }
+
+        CachedBody body = get(key, version);
+        if (body == null) {
+            misses.increment();
+            byte[] json = serializer.get();
+            body = new CachedBody(version, json, responseCompressor.compress(json));
+            put(key, body);
+        } else {
+            hits.increment();
+        }
+
+        ContentCoding coding = responseCompressor.negotiate(acceptEncoding, body.encodings);
+        if (coding != null) {
+            return toResponse(body.encodings.get(coding), coding, version);
+        }
+        return toResponse(body.json, null, version);
+    }
+
+    /**
+     * Drops all entries, e.g. once a refresh has made them outdated.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(ExchangeRatesRefreshedEvent.INVALIDATION_ORDER)
+    public void onExchangeRatesRefreshed(ExchangeRatesRefreshedEvent event) {
+        logger.debug("Clearing response cache after refresh");
+        clear();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("fx.response.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Cached responses served")
+                .register(registry);
+        FunctionCounter.builder("fx.response.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Responses serialized because they were not cached")
+                .register(registry);
+        FunctionCounter.builder("fx.response.cache.evictions", evictions, LongAdder::sum)
+                .description("Entries evicted to stay within the byte budget")
+                .register(registry);
+        Gauge.builder("fx.response.cache.size", this, cache -> cache.sizeInBytes())
+                .baseUnit("bytes")
+                .description("Bytes held by cached responses")
+                .register(registry);
+    }
+
+    private synchronized CachedBody get(String key, long version) {
+        CachedBody body = entries.get(key);
+        if (body != null && body.version != version) {
+            remove(key);
+            return null;
+        }
+        return body;
+    }
+
+    private synchronized void put(String key, CachedBody body) {
+        if (body.size() > maxBytes) {
+            return;
+        }
+        CachedBody previous = entries.put(key, body);
+        if (previous != null) {
+            totalBytes -= previous.size();
+        }
+        totalBytes += body.size();
+        evictIfNecessary();
+    }
+
+    private synchronized void remove(String key) {
+        CachedBody removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.size();
+        }
+    }
+
+    private synchronized long sizeInBytes() {
+        return totalBytes;
+    }
+
+    private void evictIfNecessary() {
+        Iterator<Map.Entry<String, CachedBody>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            totalBytes -= iterator.next().getValue().size();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private byte[] serialize(Object value) {
+        try (ServerTiming.Phase ignored = ServerTiming.enter(ServerTiming.Layer.SERIALIZATION)) {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response", e);
+        }
+    }
+
+    private static ResponseEntity<byte[]> toResponse(byte[] body, ContentCoding coding, long version) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(DataVersionTracker.VERSION_HEADER, Long.toString(version));
+        if (coding != null) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, coding.getToken());
+        }
+        return builder.body(body);
+    }
+
+    /**
+     * A serialized body together with the data version it was produced from.
+     */
+    private static final class CachedBody {
+
+        private final long version;
+        private final byte[] json;
+        private final Map<ContentCoding, byte[]> encodings;
+        private final long size;
+
+        private CachedBody(long version, byte[] json, Map<ContentCoding, byte[]> encodings) {
+            this.version = version;
+            this.json = json;
+            this.encodings = Collections.unmodifiableMap(encodings);
+            this.size = json.length + encodings.values().stream().mapToLong(encoded -> encoded.length).sum();
+        }
+
+        private long size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.crewmeister.cmcodingchallenge.cache;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses response bodies and negotiates the content coding to serve.
+ *
+ * Bodies are compressed once when they are cached, never per request. Brotli is
+ * used when its native encoder can be loaded on this platform, gzip otherwise.
+ */
+@Component
+public class ResponseCompressor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCompressor.class);
+
+    private final boolean enabled;
+    private final int minSize;
+    private final int brotliQuality;
+    private final boolean brotliAvailable;
+
+    public ResponseCompressor(
+            @Value("${fx.compression.enabled:true}") boolean enabled,
+            @Value("${fx.compression.min-response-size:1024}") int minSize,
+            @Value("${fx.compression.brotli.enabled:true}") boolean brotliEnabled,
+            @Value("${fx.compression.brotli.quality:9}") int brotliQuality) {
+        this.enabled = enabled;
+        this.minSize = minSize;
+        this.brotliQuality = brotliQuality;
+        this.brotliAvailable = enabled && brotliEnabled && loadBrotli();
+    }
+
+    /**
+     * Compresses a body with every available coding, keeping only encodings smaller than the body.
+     * 
+     * @param body Uncompressed body
+     * @return Encodings by coding; empty when compression is disabled or the body is below the threshold
+     */
+    public Map<ContentCoding, byte[]> compress(byte[] body) {
+        if (!enabled || body.length < minSize) {
+            return Collections.emptyMap();
+        }
+        Map<ContentCoding, byte[]> encodings = new EnumMap<>(ContentCoding.class);
+        if (brotliAvailable) {
+            keepIfSmaller(encodings, ContentCoding.BROTLI, brotli(body), body);
+        }
+        keepIfSmaller(encodings, ContentCoding.GZIP, gzip(body), body);
+        return encodings;
+    }
+
+    /**
+     * Chooses the coding to serve from the available encodings.
+     * The highest q-value accepted by the client wins; ties go to the preferred coding.
+     * 
+     * @param acceptEncoding The request's Accept-Encoding header, may be null
+     * @param available Codings the body is stored in
+     * @return The coding to serve, or null for the uncompressed body
+     */
+    public ContentCoding negotiate(String acceptEncoding, Map<ContentCoding, byte[]> available) {
+        if (acceptEncoding == null || available.isEmpty()) {
+            return null;
+        }
+        ContentCoding best = null;
+        double bestQuality = 0;
+        for (ContentCoding coding : available.keySet()) {
+            double quality = quality(acceptEncoding, coding.getToken());
+            if (quality > bestQuality) {
+                best = coding;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the q-value the Accept-Encoding header assigns to a coding,
+     * 0 when it is neither listed nor covered by a wildcard.
+     */
+    static double quality(String acceptEncoding, String token) {
+        double wildcard = 0;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.trim().split(";");
+            String name = parts[0].trim();
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase(token)) {
+                return quality;
+            }
+            if (name.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        return wildcard;
+    }
+
+    private static void keepIfSmaller(Map<ContentCoding, byte[]> encodings, ContentCoding coding,
+                                      byte[] encoded, byte[] body) {
+        if (encoded != null && encoded.length < body.length) {
+            encodings.put(coding, encoded);
+        }
+    }
+
+    private byte[] brotli(byte[] body) {
+        try {
+            return Encoder.compress(body, new Encoder.Parameters().setQuality(brotliQuality));
+        } catch (IOException e) {
+            logger.warn("Brotli compression failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean loadBrotli() {
+        try {
+            if (Brotli4jLoader.isAvailable()) {
+                return true;
+            }
+            logger.warn("Brotli encoder unavailable, serving gzip only: {}",
+                    Brotli4jLoader.getUnavailabilityCause().getMessage());
+        } catch (LinkageError e) {
+            logger.warn("Brotli encoder unavailable, serving gzip only: {}", e.getMessage());
+        }
+        return false;
+    }
+}
@@ -0,0 +1,108 @@
+package com.crewmeister.cmcodingchallenge.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key into a single execution.
+ *
+ * The first caller for a key runs the loader on its own thread; callers arriving
+ * while it is in flight wait for and share its outcome, including any exception.
+ * Nothing is kept once the call completes, so the next call executes again.
+ * A waiting caller that is interrupted stops waiting with a
+ * {@link CancellationException} without affecting the execution or other waiters.
+ */
+@Component
+public class SingleFlight implements MeterBinder {
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Runs the loader, or joins the execution already in flight for the key.
+     *
+     * @param key Identifies calls that produce the same result; must implement equals and hashCode
+     * @param loader Computes the result
+     * @return The result of the shared execution
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> loader) {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return (T) await(existing);
+        }
+
+        executions.increment();
+        try {
+            T result = loader.get();
+            inFlight.remove(key, call);
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("fx.lookups", executions, LongAdder::sum)
+                .tag("result", "executed")
+                .description("Lookups that ran a query")
+                .register(registry);
+        FunctionCounter.builder("fx.lookups", coalesced, LongAdder::sum)
+                .tag("result", "coalesced")
+                .description("Lookups that joined an identical lookup already in flight")
+                .register(registry);
+        Gauge.builder("fx.lookups.in-flight", inFlight, ConcurrentMap::size)
+                .description("Lookups currently executing")
+                .register(registry);
+    }
+
+    private static Object await(CompletableFuture<Object> call) {
+        try {
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for an in-flight call");
+        } catch (ExecutionException e) {
+            // Waiters see the same exception the executing caller got
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.crewmeister.cmcodingchallenge.client;
 
 import com.crewmeister.cmcodingchallenge.exception.ExternalApiException;
+import com.crewmeister.cmcodingchallenge.profiling.CurrencyFetchEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClientException;
@@ -21,7 +23,8 @@ import java.util.*;
  * Client for fetching exchange rate data from the Bundesbank API.
  * 
  * The Bundesbank provides daily exchange rates through their SDMX REST API.
- * Data is requested in CSV format for easier parsing.
+ * Data is requested in CSV format for easier parsing. Raw responses go through
+ * the {@link RawResponseCache}.
  */
 @Component
 public class BundesbankApiClient {
@@ -30,6 +33,7 @@ public class BundesbankApiClient {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
     private final RestTemplate restTemplate;
+    private final RawResponseCache responseCache;
     private final String baseUrl;
 
     // Currency codes available from Bundesbank with their full names
@@ -68,8 +72,10 @@ public class BundesbankApiClient {
 
     public BundesbankApiClient(
             RestTemplate restTemplate,
+            RawResponseCache responseCache,
             @Value("${bundesbank.api.base-url:https://api.statistiken.bundesbank.de/rest/data}") String baseUrl) {
         this.restTemplate = restTemplate;
+        this.responseCache = responseCache;
         this.baseUrl = baseUrl;
     }
 
@@ -81,41 +87,144 @@ public class BundesbankApiClient {
     }
 
     /**
-     * Fetches exchange rates for a specific currency from the Bundesbank API.
-     * Returns a map of dates to exchange rates.
+     * Fetches exchange rates for a specific currency from the Bundesbank API, unless
+     * the series has not changed since the response the given validators stem from.
      * 
      * @param currencyCode ISO currency code (e.g., USD, GBP)
-     * @return Map of LocalDate to BigDecimal exchange rates
+     * @param etag {@code ETag} of the previous response of this series, may be null
+     * @param lastModified {@code Last-Modified} of the previous response of this series, may be null
+     * @return The rates with the validators of the response, or whether the series was
+     *         unchanged or could not be fetched
      */
-    public Map<LocalDate, BigDecimal> fetchExchangeRates(String currencyCode) {
+    public SeriesFetchResult fetchExchangeRatesIfModified(String currencyCode, String etag, String lastModified) {
+        CurrencyFetchEvent event = CurrencyFetchEvent.start(currencyCode);
+        SeriesFetchResult result = requestSeries(currencyCode, etag, lastModified);
+        event.finish(result.getStatus().name().toLowerCase(), result.getRates().size());
+        return result;
+    }
+
+    private SeriesFetchResult requestSeries(String currencyCode, String etag, String lastModified) {
         if (!SUPPORTED_CURRENCIES.containsKey(currencyCode.toUpperCase())) {
             logger.warn("Unsupported currency code requested: {}", currencyCode);
-            return Collections.emptyMap();
+            return SeriesFetchResult.downloaded(Collections.emptyMap(), null, null);
         }
 
         String url = buildApiUrl(currencyCode.toUpperCase());
         logger.info("Fetching exchange rates for {} from Bundesbank API", currencyCode);
 
         try {
-            // Set Accept header for CSV format
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Accept", "text/csv");
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
-            String csvResponse = response.getBody();
-            
-            if (logger.isDebugEnabled() && csvResponse != null) {
-                String preview = csvResponse.length() > 500 ? csvResponse.substring(0, 500) : csvResponse;
-                logger.debug("API Response preview: {}", preview);
+            ResponseEntity<String> response = requestCsv(url, etag, lastModified);
+            if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                logger.info("Exchange rates for {} not modified since the last fetch", currencyCode);
+                return SeriesFetchResult.notModified();
             }
-            
-            return parseExchangeRateResponse(csvResponse);
+            return SeriesFetchResult.downloaded(parseExchangeRateResponse(response.getBody()),
+                    response.getHeaders().getETag(), response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED));
         } catch (RestClientException e) {
             logger.error("Failed to fetch exchange rates for {}: {}", currencyCode, e.getMessage());
-            // Return empty map instead of throwing, so other currencies can still be fetched
+            // Reported instead of thrown, so other currencies can still be fetched
+            return SeriesFetchResult.failed();
+        }
+    }
+
+    /**
+     * Fetches the exchange rates of a currency within a date range from the Bundesbank API.
+     * Unlike {@link #fetchExchangeRatesIfModified(String, String, String)}, a failed request is thrown,
+     * and the range is always downloaded.
+     * 
+     * @param currencyCode ISO currency code (e.g., USD, GBP)
+     * @param startPeriod First date of the range (inclusive)
+     * @param endPeriod Last date of the range (inclusive)
+     * @return Map of LocalDate to BigDecimal exchange rates, empty if the range has no data
+     * @throws ExternalApiException if the API could not be reached
+     */
+    public Map<LocalDate, BigDecimal> fetchExchangeRates(String currencyCode, LocalDate startPeriod, LocalDate endPeriod) {
+        if (!SUPPORTED_CURRENCIES.containsKey(currencyCode.toUpperCase())) {
+            logger.warn("Unsupported currency code requested: {}", currencyCode);
             return Collections.emptyMap();
         }
+
+        String url = buildApiUrl(currencyCode.toUpperCase(), startPeriod, endPeriod);
+        logger.info("Fetching exchange rates for {} from {} to {} from Bundesbank API", currencyCode, startPeriod, endPeriod);
+
+        try {
+            return parseExchangeRateResponse(requestCsv(url, null, null).getBody());
+        } catch (RestClientException e) {
+            logger.error("Failed to fetch exchange rates for {} from {} to {}: {}",
+                    currencyCode, startPeriod, endPeriod, e.getMessage());
+            throw new ExternalApiException("Failed to fetch exchange rates for " + currencyCode + " from Bundesbank API", e);
+        }
+    }
+
+    /**
+     * Requests CSV data, through the raw response cache. A fresh cached response is served
+     * without contacting Bundesbank, and a stale one if Bundesbank cannot be reached.
+     * 
+     * @param etag {@code ETag} the caller already has, may be null
+     * @param lastModified {@code Last-Modified} the caller already has, may be null
+     * @return The response, with status 304 if the caller already has it
+     */
+    private ResponseEntity<String> requestCsv(String url, String etag, String lastModified) {
+        RawResponseCache.CachedResponse cached = responseCache.get(url).orElse(null);
+        if (cached != null && responseCache.isFresh(cached)) {
+            logger.debug("Serving {} from the response cache", url);
+            return toResponse(cached, etag, lastModified);
+        }
+        if (responseCache.isOffline()) {
+            throw new RestClientException("No cached response for " + url + " in offline mode");
+        }
+
+        // Set Accept header for CSV format
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Accept", "text/csv");
+        if (etag != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        if (lastModified != null) {
+            // Sent back verbatim, as the API formatted it
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        }
+        HttpEntity<String> entity = new HttpEntity<>(headers);
+
+        ResponseEntity<String> response;
+        try {
+            response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
+        } catch (RestClientException e) {
+            if (cached == null) {
+                throw e;
+            }
+            logger.warn("Serving stale cached response for {}: {}", url, e.getMessage());
+            return toResponse(cached, etag, lastModified);
+        }
+        String csvResponse = response.getBody();
+        
+        if (response.getStatusCode() == HttpStatus.OK && csvResponse != null) {
+            responseCache.put(url, csvResponse, response.getHeaders().getETag(),
+                    response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED));
+        } else if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && cached != null && cached.matches(etag, lastModified)) {
+            // Confirmed current, so it is fresh again
+            responseCache.put(url, cached.getBody(), cached.getEtag(), cached.getLastModified());
+        }
+        
+        if (logger.isDebugEnabled() && csvResponse != null) {
+            String preview = csvResponse.length() > 500 ? csvResponse.substring(0, 500) : csvResponse;
+            logger.debug("API Response preview: {}", preview);
+        }
+        return response;
+    }
+
+    private static ResponseEntity<String> toResponse(RawResponseCache.CachedResponse cached, String etag, String lastModified) {
+        if (cached.matches(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (cached.getEtag() != null) {
+            headers.setETag(cached.getEtag());
+        }
+        if (cached.getLastModified() != null) {
+            headers.set(HttpHeaders.LAST_MODIFIED, cached.getLastModified());
+        }
+        return new ResponseEntity<>(cached.getBody(), headers, HttpStatus.OK);
     }
 
     /**
@@ -131,6 +240,14 @@ public class BundesbankApiClient {
         return String.format("%s/BBEX3/D.%s.EUR.BB.AC.000?lastNObservations=365", baseUrl, currencyCode);
     }
 
+    /**
+     * Builds the API URL for fetching the exchange rates of a date range.
+     */
+    private String buildApiUrl(String currencyCode, LocalDate startPeriod, LocalDate endPeriod) {
+        return String.format("%s/BBEX3/D.%s.EUR.BB.AC.000?startPeriod=%s&endPeriod=%s",
+                baseUrl, currencyCode, startPeriod.format(DATE_FORMATTER), endPeriod.format(DATE_FORMATTER));
+    }
+
     /**
      * Parses the CSV response from Bundesbank API.
      * The SDMX-CSV format has headers and data with semicolon or comma separators.
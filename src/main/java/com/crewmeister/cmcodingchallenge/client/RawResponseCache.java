@@ -0,0 +1,211 @@
+package com.crewmeister.cmcodingchallenge.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Local cache of raw Bundesbank responses, so restarts do not download every series again.
+ *
+ * Response bodies are stored content-addressed under {@code objects/}, named by their
+ * SHA-256, so identical responses are stored once and a damaged file is detected on
+ * read. Each request URL has an entry under {@code urls/}, named by the SHA-256 of the
+ * URL, pointing to its body along with the response validators and the time it was
+ * fetched. Entries younger than the TTL are served without contacting Bundesbank.
+ *
+ * In offline mode only cached responses are served, regardless of their age, so a
+ * recorded cache directory can be replayed, e.g. for benchmarks. Disabled unless
+ * {@code fx.upstream-cache.directory} is set.
+ */
+@Component
+public class RawResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RawResponseCache.class);
+
+    private final Path objects;
+    private final Path urls;
+    private final Duration ttl;
+    private final boolean offline;
+
+    public RawResponseCache(
+            @Value("${fx.upstream-cache.directory:}") String directory,
+            @Value("${fx.upstream-cache.ttl-seconds:3600}") long ttlSeconds,
+            @Value("${fx.upstream-cache.offline:false}") boolean offline) {
+        if (offline && directory.isEmpty()) {
+            throw new IllegalStateException("fx.upstream-cache.offline requires fx.upstream-cache.directory");
+        }
+        this.objects = directory.isEmpty() ? null : Paths.get(directory, "objects");
+        this.urls = directory.isEmpty() ? null : Paths.get(directory, "urls");
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.offline = offline;
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Returns the cached response of a URL, if there is an intact one.
+     */
+    public Optional<CachedResponse> get(String url) {
+        if (urls == null) {
+            return Optional.empty();
+        }
+        Path entry = urls.resolve(sha256(url));
+        if (!Files.isRegularFile(entry)) {
+            return Optional.empty();
+        }
+        try {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(entry)) {
+                properties.load(in);
+            }
+            String object = properties.getProperty("object");
+            byte[] body = Files.readAllBytes(objects.resolve(object));
+            if (!object.equals(sha256(body))) {
+                logger.warn("Ignoring damaged cached response for {}", url);
+                return Optional.empty();
+            }
+            return Optional.of(new CachedResponse(new String(body, StandardCharsets.UTF_8),
+                    properties.getProperty("etag"), properties.getProperty("lastModified"),
+                    Instant.ofEpochMilli(Long.parseLong(properties.getProperty("fetchedAt")))));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable cached response for {}: {}", url, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns whether a cached response is young enough to be served without asking Bundesbank.
+     */
+    public boolean isFresh(CachedResponse response) {
+        return offline || response.getFetchedAt().plus(ttl).isAfter(Instant.now());
+    }
+
+    /**
+     * Stores the response of a URL, fetched just now.
+     */
+    public void put(String url, String body, String etag, String lastModified) {
+        if (urls == null) {
+            return;
+        }
+        try {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            String object = sha256(bytes);
+            Path objectFile = objects.resolve(object);
+            if (!Files.exists(objectFile)) {
+                writeAtomically(objectFile, bytes);
+            }
+
+            Properties properties = new Properties();
+            properties.setProperty("url", url);
+            properties.setProperty("object", object);
+            properties.setProperty("fetchedAt", Long.toString(Instant.now().toEpochMilli()));
+            if (etag != null) {
+                properties.setProperty("etag", etag);
+            }
+            if (lastModified != null) {
+                properties.setProperty("lastModified", lastModified);
+            }
+            try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                properties.store(out, null);
+                writeAtomically(urls.resolve(sha256(url)), out.toByteArray());
+            }
+        } catch (IOException e) {
+            // The response was fetched fine; it just is not cached
+            logger.warn("Failed to cache response for {}: {}", url, e.getMessage());
+        }
+    }
+
+    private static void writeAtomically(Path file, byte[] content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                out.write(content);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static String sha256(String value) {
+        return sha256(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * A cached response with its validators.
+     */
+    public static final class CachedResponse {
+
+        private final String body;
+        private final String etag;
+        private final String lastModified;
+        private final Instant fetchedAt;
+
+        CachedResponse(String body, String etag, String lastModified, Instant fetchedAt) {
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.fetchedAt = fetchedAt;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public Instant getFetchedAt() {
+            return fetchedAt;
+        }
+
+        /**
+         * Returns whether a client holding these validators already has this response.
+         */
+        public boolean matches(String etag, String lastModified) {
+            if (etag != null) {
+                return etag.equals(this.etag);
+            }
+            return lastModified != null && Objects.equals(lastModified, this.lastModified);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.crewmeister.cmcodingchallenge.client;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Outcome of a conditional fetch of a currency's exchange rate series.
+ *
+ * A downloaded series carries its rates and the validators of the response
+ * ({@code ETag} and {@code Last-Modified}, as sent by the API), to be passed to
+ * the next fetch so an unchanged series is not downloaded again.
+ */
+public final class SeriesFetchResult {
+
+    public enum Status {
+        DOWNLOADED,
+        NOT_MODIFIED,
+        FAILED
+    }
+
+    private static final SeriesFetchResult NOT_MODIFIED = new SeriesFetchResult(Status.NOT_MODIFIED, Map.of(), null, null);
+    private static final SeriesFetchResult FAILED = new SeriesFetchResult(Status.FAILED, Map.of(), null, null);
+
+    private final Status status;
+    private final Map<LocalDate, BigDecimal> rates;
+    private final String etag;
+    private final String lastModified;
+
+    private SeriesFetchResult(Status status, Map<LocalDate, BigDecimal> rates, String etag, String lastModified) {
+        this.status = status;
+        this.rates = rates;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public static SeriesFetchResult downloaded(Map<LocalDate, BigDecimal> rates, String etag, String lastModified) {
+        return new SeriesFetchResult(Status.DOWNLOADED, Collections.unmodifiableMap(rates), etag, lastModified);
+    }
+
+    public static SeriesFetchResult notModified() {
+        return NOT_MODIFIED;
+    }
+
+    public static SeriesFetchResult failed() {
+        return FAILED;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Map<LocalDate, BigDecimal> getRates() {
+        return rates;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+}
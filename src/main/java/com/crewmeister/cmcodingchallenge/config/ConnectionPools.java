@@ -0,0 +1,43 @@
+package com.crewmeister.cmcodingchallenge.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * The read and the write connection pool behind the application's data source.
+ *
+ * They are not data source beans themselves, so auto-configuration only sees the
+ * routing data source. Each pool reports its {@code hikaricp.connections.*} metrics,
+ * e.g. the acquire (wait) and usage times, tagged with its pool name.
+ */
+public class ConnectionPools implements MeterBinder, AutoCloseable {
+
+    private final HikariDataSource read;
+    private final HikariDataSource write;
+
+    public ConnectionPools(HikariDataSource read, HikariDataSource write) {
+        this.read = read;
+        this.write = write;
+    }
+
+    public HikariDataSource getRead() {
+        return read;
+    }
+
+    public HikariDataSource getWrite() {
+        return write;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        read.setMetricRegistry(registry);
+        write.setMetricRegistry(registry);
+    }
+
+    @Override
+    public void close() {
+        read.close();
+        write.close();
+    }
+}
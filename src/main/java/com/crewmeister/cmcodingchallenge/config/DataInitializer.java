@@ -1,16 +1,20 @@
 package com.crewmeister.cmcodingchallenge.config;
 
-import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import com.crewmeister.cmcodingchallenge.replication.SnapshotReplicator;
 import com.crewmeister.cmcodingchallenge.service.impl.CurrencyServiceImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 /**
  * Initializes the application data on startup.
- * Loads currency definitions and fetches exchange rates from Bundesbank API.
+ * Loads currency definitions and exchange rates, either from Bundesbank API
+ * or, in replication mode, from a peer instance.
+ * With {@code fx.startup.async-initialization} the data is loaded in the background,
+ * so startup completes while lookups are served from the local snapshot, if any.
  */
 @Component
 @Profile("!test") // Don't run during tests
@@ -19,16 +23,29 @@ public class DataInitializer implements CommandLineRunner {
     private static final Logger logger = LoggerFactory.getLogger(DataInitializer.class);
 
     private final CurrencyServiceImpl currencyService;
-    private final ExchangeRateService exchangeRateService;
+    private final SnapshotReplicator snapshotReplicator;
+    private final boolean asyncInitialization;
 
     public DataInitializer(CurrencyServiceImpl currencyService, 
-                           ExchangeRateService exchangeRateService) {
+                           SnapshotReplicator snapshotReplicator,
+                           @Value("${fx.startup.async-initialization:false}") boolean asyncInitialization) {
         this.currencyService = currencyService;
-        this.exchangeRateService = exchangeRateService;
+        this.snapshotReplicator = snapshotReplicator;
+        this.asyncInitialization = asyncInitialization;
     }
 
     @Override
     public void run(String... args) {
+        if (asyncInitialization) {
+            Thread initializer = new Thread(this::initialize, "fx-data-initializer");
+            initializer.setDaemon(true);
+            initializer.start();
+        } else {
+            initialize();
+        }
+    }
+
+    private void initialize() {
         logger.info("=== Starting data initialization ===");
         
         try {
@@ -36,9 +53,9 @@ public class DataInitializer implements CommandLineRunner {
             logger.info("Step 1: Initializing currencies...");
             currencyService.initializeCurrencies();
             
-            // Then fetch exchange rates from Bundesbank
-            logger.info("Step 2: Fetching exchange rates from Bundesbank API...");
-            exchangeRateService.refreshExchangeRates();
+            // Then load exchange rates from a peer or from Bundesbank
+            logger.info("Step 2: Loading exchange rates...");
+            snapshotReplicator.synchronize();
             
             logger.info("=== Data initialization completed successfully ===");
             
@@ -0,0 +1,69 @@
+package com.crewmeister.cmcodingchallenge.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Separate connection pools for reads and writes, so a long refresh holding a
+ * connection cannot starve request threads.
+ *
+ * Both pools connect to {@code spring.datasource.*} and are sized and tuned with the
+ * Hikari properties under {@code fx.datasource.read.*} and {@code fx.datasource.write.*}.
+ * Read-only transactions ({@code @Transactional(readOnly = true)}) get connections from
+ * the read pool, everything else from the write pool. Connections are only fetched at
+ * the first statement, once the transaction's read-only flag is known.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    public static final String READ_POOL = "fx-read";
+    public static final String WRITE_POOL = "fx-write";
+
+    @Bean
+    public ConnectionPools connectionPools(DataSourceProperties properties, Environment environment) {
+        HikariDataSource read = pool(properties, environment, READ_POOL, "fx.datasource.read");
+        read.setReadOnly(true);
+        HikariDataSource write = pool(properties, environment, WRITE_POOL, "fx.datasource.write");
+        return new ConnectionPools(read, write);
+    }
+
+    @Bean
+    public DataSource dataSource(ConnectionPools connectionPools) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(READ_POOL, connectionPools.getRead(), WRITE_POOL, connectionPools.getWrite()));
+        routing.setDefaultTargetDataSource(connectionPools.getWrite());
+        routing.afterPropertiesSet();
+        // The transaction manager prepares a connection before it marks the transaction read-only
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment,
+                                         String name, String prefix) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName(name);
+        Binder.get(environment).bind(prefix, Bindable.ofInstance(pool));
+        return pool;
+    }
+
+    /**
+     * Routes to the read pool within read-only transactions.
+     */
+    static class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? READ_POOL : WRITE_POOL;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.crewmeister.cmcodingchallenge.config;
+
+import com.crewmeister.cmcodingchallenge.controller.ExchangeRateController;
+import com.crewmeister.cmcodingchallenge.store.LocalSnapshotFile;
+import com.crewmeister.cmcodingchallenge.store.RateStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Configuration of the {@code fast-start} profile, which starts the application with
+ * lazy bean initialization and a background JPA bootstrap and serves conversions from
+ * the local snapshot until the data set has been loaded in the background.
+ */
+@Configuration
+@Profile("fast-start")
+public class FastStartConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(FastStartConfig.class);
+
+    /**
+     * Beans on the conversion path, or that seed the rate store, are still created during
+     * startup, so the first request does not pay for them.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                ExchangeRateController.class, RateStore.class, LocalSnapshotFile.class);
+    }
+
+    /**
+     * Exits once started, for training runs that record the classes to archive.
+     */
+    @Bean
+    @ConditionalOnProperty("fx.startup.exit-when-ready")
+    public ApplicationListener<ApplicationReadyEvent> exitWhenReady() {
+        return event -> {
+            logger.info("Startup completed, exiting as requested by fx.startup.exit-when-ready");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.crewmeister.cmcodingchallenge.config;
+
+import com.crewmeister.cmcodingchallenge.profiling.StatementBudgetFilter;
+import com.crewmeister.cmcodingchallenge.profiling.StatementCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Counts the SQL statements of each API request and reports requests over the
+ * statement budget or the slow-request threshold. On by default; the counting itself is a thread-local lookup per
+ * statement.
+ */
+@Configuration
+@ConditionalOnProperty(name = "fx.statements.enabled", havingValue = "true", matchIfMissing = true)
+public class StatementCountingConfig {
+
+    @Bean
+    public StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer(StatementCounter statementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<StatementBudgetFilter> statementBudgetFilter(
+            StatementCounter statementCounter, MeterRegistry meterRegistry,
+            @Value("${fx.statements.budget:20}") int budget,
+            @Value("${fx.statements.slow-request-ms:1000}") long slowRequestMillis) {
+        FilterRegistrationBean<StatementBudgetFilter> registration = new FilterRegistrationBean<>(
+                new StatementBudgetFilter(statementCounter, meterRegistry, budget, slowRequestMillis));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
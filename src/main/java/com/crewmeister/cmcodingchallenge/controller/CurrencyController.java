@@ -1,14 +1,19 @@
 package com.crewmeister.cmcodingchallenge.controller;
 
+import com.crewmeister.cmcodingchallenge.dto.AvailabilityDto;
 import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
 import com.crewmeister.cmcodingchallenge.service.CurrencyService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -41,6 +46,26 @@ public class CurrencyController {
         logger.info("Returning {} currencies", currencies.size());
         return ResponseEntity.ok(currencies);
     }
-}
-
 
+    /**
+     * Get the days a currency has exchange rates for, so clients need not probe for them.
+     * Answered from in-memory bitsets without querying the rates.
+     * 
+     * @param currencyCode ISO currency code (e.g., USD, GBP, JPY)
+     * @param from First date of the range (ISO format: yyyy-MM-dd), defaults to the earliest rate
+     * @param to Last date of the range (ISO format: yyyy-MM-dd), defaults to the latest rate
+     * @param encoding dates (default), runs of consecutive days, or a Base64 bitmap
+     * @return Days with a rate within the range
+     */
+    @GetMapping("/{currencyCode}/availability")
+    public ResponseEntity<AvailabilityDto> getAvailability(
+            @PathVariable String currencyCode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "dates") String encoding) {
+        
+        logger.info("GET /api/currencies/{}/availability - Listing days from {} to {} as {}", currencyCode, from, to, encoding);
+        
+        return ResponseEntity.ok(currencyService.getAvailability(currencyCode, from, to, encoding));
+    }
+}
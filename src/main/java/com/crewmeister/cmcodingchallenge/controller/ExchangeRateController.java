@@ -1,17 +1,44 @@
 package com.crewmeister.cmcodingchallenge.controller;
 
+import com.crewmeister.cmcodingchallenge.cache.ResponseCache;
+import com.crewmeister.cmcodingchallenge.domain.entity.RollupPeriod;
 import com.crewmeister.cmcodingchallenge.dto.ConversionResultDto;
+import com.crewmeister.cmcodingchallenge.dto.DataChangesDto;
 import com.crewmeister.cmcodingchallenge.dto.ExchangeRateDto;
+import com.crewmeister.cmcodingchallenge.dto.InverseRateDto;
+import com.crewmeister.cmcodingchallenge.dto.RateMatrixDto;
+import com.crewmeister.cmcodingchallenge.dto.RateRollupDto;
+import com.crewmeister.cmcodingchallenge.dto.RateStatisticsDto;
+import com.crewmeister.cmcodingchallenge.feed.ExchangeRateFeed;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateBinaryWriter;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateCsvWriter;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateGroupedJsonWriter;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateMediaTypes;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateRowWriter;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateSparseJsonWriter;
+import com.crewmeister.cmcodingchallenge.ratelimit.RateLimitCost;
 import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import com.crewmeister.cmcodingchallenge.service.RollupService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * REST controller for exchange rate operations.
@@ -23,45 +50,252 @@ public class ExchangeRateController {
 
     private static final Logger logger = LoggerFactory.getLogger(ExchangeRateController.class);
 
+    private static final String SHAPE_GROUPED = "grouped";
+
     private final ExchangeRateService exchangeRateService;
+    private final ResponseCache responseCache;
+    private final RollupService rollupService;
+    private final JsonFactory jsonFactory;
+    private final ExchangeRateFeed exchangeRateFeed;
 
-    public ExchangeRateController(ExchangeRateService exchangeRateService) {
+    public ExchangeRateController(ExchangeRateService exchangeRateService,
+                                  ResponseCache responseCache,
+                                  RollupService rollupService,
+                                  ObjectMapper objectMapper,
+                                  ExchangeRateFeed exchangeRateFeed) {
         this.exchangeRateService = exchangeRateService;
+        this.responseCache = responseCache;
+        this.rollupService = rollupService;
+        this.jsonFactory = objectMapper.getFactory();
+        this.exchangeRateFeed = exchangeRateFeed;
     }
 
     /**
      * Get all available EUR-FX exchange rates.
      * Returns exchange rates for all currencies at all available dates.
+     * The body is serialized and compressed once per data version.
      * 
-     * @return List of all exchange rates sorted by date (most recent first)
+     * @param shape Optional alternative shape, {@code grouped} for rates keyed by date and currency
+     * @param fields Optional comma-separated subset of the fields to return per rate
+     * @param acceptEncoding Content codings accepted by the client
+     * @return JSON list of all exchange rates sorted by date (most recent first)
+     * @see ExchangeRateGroupedJsonWriter for the grouped shape
+     * @see ExchangeRateSparseJsonWriter for the supported fields
      */
     @GetMapping
-    public ResponseEntity<List<ExchangeRateDto>> getAllExchangeRates() {
+    @RateLimitCost(100)
+    public ResponseEntity<byte[]> getAllExchangeRates(
+            @RequestParam(required = false) String shape,
+            @RequestParam(required = false) List<String> fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         logger.info("GET /api/exchange-rates - Fetching all exchange rates");
         
-        List<ExchangeRateDto> rates = exchangeRateService.getAllExchangeRates();
+        if (shape != null || fields != null) {
+            return respondShaped("all", true, null, shape, fields, acceptEncoding);
+        }
         
-        logger.info("Returning {} exchange rate records", rates.size());
-        return ResponseEntity.ok(rates);
+        // All rates only change through a refresh, which advances the data version
+        return responseCache.respond("all", true, () -> {
+            List<ExchangeRateDto> rates = exchangeRateService.getAllExchangeRates();
+            logger.info("Returning {} exchange rate records", rates.size());
+            return rates;
+        }, acceptEncoding);
+    }
+
+    /**
+     * Stream all available EUR-FX exchange rates as CSV.
+     * Selected when the client sends {@code Accept: text/csv}.
+     * 
+     * @param response Response the rows are written to
+     * @see ExchangeRateCsvWriter for the schema
+     */
+    @GetMapping(produces = ExchangeRateMediaTypes.TEXT_CSV)
+    @RateLimitCost(100)
+    public void exportAllExchangeRatesAsCsv(HttpServletResponse response) throws IOException {
+        logger.info("GET /api/exchange-rates - Streaming all exchange rates as CSV");
+        
+        response.setContentType(ExchangeRateMediaTypes.TEXT_CSV + ";charset=UTF-8");
+        exchangeRateService.exportExchangeRates(null, new ExchangeRateCsvWriter(response.getOutputStream()));
+    }
+
+    /**
+     * Stream all available EUR-FX exchange rates in the compact binary format.
+     * Selected when the client sends {@code Accept: application/vnd.crewmeister.fx-rates.v1}.
+     * 
+     * @param response Response the rows are written to
+     * @see ExchangeRateBinaryWriter for the schema
+     */
+    @GetMapping(produces = ExchangeRateMediaTypes.BINARY)
+    @RateLimitCost(100)
+    public void exportAllExchangeRatesAsBinary(HttpServletResponse response) throws IOException {
+        logger.info("GET /api/exchange-rates - Streaming all exchange rates as binary");
+        
+        response.setContentType(ExchangeRateMediaTypes.BINARY);
+        exchangeRateService.exportExchangeRates(null, new ExchangeRateBinaryWriter(response.getOutputStream()));
     }
 
     /**
      * Get EUR-FX exchange rates for a specific date.
      * Returns exchange rates for all currencies on the given date.
+     * Responses for past dates are served from the pre-serialized response cache.
      * 
      * @param date The date to get exchange rates for (ISO format: yyyy-MM-dd)
-     * @return List of exchange rates for the specified date
+     * @param shape Optional alternative shape, {@code grouped} for rates keyed by date and currency
+     * @param fields Optional comma-separated subset of the fields to return per rate
+     * @param acceptEncoding Content codings accepted by the client
+     * @return JSON list of exchange rates for the specified date
      */
     @GetMapping("/date/{date}")
-    public ResponseEntity<List<ExchangeRateDto>> getExchangeRatesByDate(
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+    @RateLimitCost(5)
+    public ResponseEntity<byte[]> getExchangeRatesByDate(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String shape,
+            @RequestParam(required = false) List<String> fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         
         logger.info("GET /api/exchange-rates/date/{} - Fetching rates for date", date);
         
-        List<ExchangeRateDto> rates = exchangeRateService.getExchangeRatesByDate(date);
+        if (shape != null || fields != null) {
+            return respondShaped("date:" + date, isImmutable(date), date, shape, fields, acceptEncoding);
+        }
+        
+        return responseCache.respond("date:" + date, isImmutable(date), () -> {
+            List<ExchangeRateDto> rates = exchangeRateService.getExchangeRatesByDate(date);
+            logger.info("Returning {} exchange rates for date {}", rates.size(), date);
+            return rates;
+        }, acceptEncoding);
+    }
+
+    /**
+     * Stream the EUR-FX exchange rates of a specific date as CSV.
+     * 
+     * @param date The date to get exchange rates for (ISO format: yyyy-MM-dd)
+     * @param response Response the rows are written to
+     */
+    @GetMapping(value = "/date/{date}", produces = ExchangeRateMediaTypes.TEXT_CSV)
+    @RateLimitCost(5)
+    public void exportExchangeRatesByDateAsCsv(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            HttpServletResponse response) throws IOException {
+        
+        logger.info("GET /api/exchange-rates/date/{} - Streaming rates for date as CSV", date);
+        
+        response.setContentType(ExchangeRateMediaTypes.TEXT_CSV + ";charset=UTF-8");
+        exchangeRateService.exportExchangeRates(date, new ExchangeRateCsvWriter(response.getOutputStream()));
+    }
+
+    /**
+     * Stream the EUR-FX exchange rates of a specific date in the compact binary format.
+     * 
+     * @param date The date to get exchange rates for (ISO format: yyyy-MM-dd)
+     * @param response Response the rows are written to
+     */
+    @GetMapping(value = "/date/{date}", produces = ExchangeRateMediaTypes.BINARY)
+    @RateLimitCost(5)
+    public void exportExchangeRatesByDateAsBinary(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            HttpServletResponse response) throws IOException {
+        
+        logger.info("GET /api/exchange-rates/date/{} - Streaming rates for date as binary", date);
+        
+        response.setContentType(ExchangeRateMediaTypes.BINARY);
+        exchangeRateService.exportExchangeRates(date, new ExchangeRateBinaryWriter(response.getOutputStream()));
+    }
+
+    /**
+     * Subscribe to newly published EUR-FX exchange rates as Server-Sent Events.
+     * Each refresh that stores rates is sent as one {@code rates} event whose ID is
+     * the refresh sequence number, or as a {@code resync} event if it stored too many
+     * rates to push; reconnecting clients receive what they missed.
+     * 
+     * @param lastEventId ID of the last event the client received, sent on reconnect
+     * @return Event stream of JSON lists of the added rates
+     * @see ExchangeRateFeed for the events
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamExchangeRates(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        
+        logger.info("GET /api/exchange-rates/stream - Subscribing to rate feed (Last-Event-ID: {})", lastEventId);
+        
+        return exchangeRateFeed.subscribe(lastEventId);
+    }
+
+    /**
+     * Get the EUR-FX exchange rates added after a data version.
+     * Clients keep a copy of all rates current by passing the version of their copy,
+     * taken from the {@code X-Fx-Data-Version} header of the full download or the
+     * {@code version} of the previous changes. Rates may be delivered more than once.
+     * 
+     * @param since Data version of the client's copy
+     * @return JSON list of the added rates together with the current data version,
+     *         or 410 Gone if the client has to reload all rates
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<DataChangesDto> getChangesSince(@RequestParam long since) {
+        
+        logger.info("GET /api/exchange-rates/changes - Fetching changes since data version {}", since);
+        
+        DataChangesDto changes = exchangeRateService.getChangesSince(since);
+        
+        logger.info("Returning {} rates added up to data version {}", changes.getRates().size(), changes.getVersion());
+        
+        return ResponseEntity.ok(changes);
+    }
+
+    /**
+     * Get the exchange rates of several currencies on several dates as a compact grid.
+     * 
+     * @param currencies Comma-separated ISO currency codes, the columns of the grid
+     * @param dates Comma-separated dates (ISO format: yyyy-MM-dd), the rows of the grid
+     * @return Grid of rates with null where a currency has no rate on a date
+     */
+    @GetMapping("/matrix")
+    @RateLimitCost(5)
+    public ResponseEntity<RateMatrixDto> getRateMatrix(
+            @RequestParam List<String> currencies,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) List<LocalDate> dates) {
+        
+        logger.info("GET /api/exchange-rates/matrix - Fetching {} currencies on {} dates", currencies.size(), dates.size());
+        
+        RateMatrixDto matrix = exchangeRateService.getRateMatrix(currencies, dates);
+        
+        return ResponseEntity.ok(matrix);
+    }
+
+    /**
+     * Get the most recent EUR-FX exchange rate of every currency, so clients need not
+     * know the last published business day. Answered from precomputed latest rates.
+     * 
+     * @param acceptEncoding Content codings accepted by the client
+     * @return JSON list of the latest rate per currency, ordered by currency code
+     */
+    @GetMapping("/latest")
+    public ResponseEntity<byte[]> getLatestExchangeRates(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        
+        logger.info("GET /api/exchange-rates/latest - Fetching latest rates");
+        
+        // Latest rates only change through a refresh, which advances the data version
+        return responseCache.respond("latest", true, exchangeRateService::getLatestExchangeRates, acceptEncoding);
+    }
+
+    /**
+     * Get the most recent EUR-FX exchange rate of a specific currency.
+     * 
+     * @param currencyCode ISO currency code (e.g., USD, GBP, JPY)
+     * @param acceptEncoding Content codings accepted by the client
+     * @return JSON exchange rate of the last date the currency has a rate for
+     */
+    @GetMapping("/{currencyCode}/latest")
+    public ResponseEntity<byte[]> getLatestExchangeRate(
+            @PathVariable String currencyCode,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        
+        logger.info("GET /api/exchange-rates/{}/latest - Fetching latest rate", currencyCode);
         
-        logger.info("Returning {} exchange rates for date {}", rates.size(), date);
-        return ResponseEntity.ok(rates);
+        return responseCache.respond("latest:" + currencyCode.toUpperCase(), true,
+                () -> exchangeRateService.getLatestExchangeRate(currencyCode), acceptEncoding);
     }
 
     /**
@@ -69,16 +303,100 @@ public class ExchangeRateController {
      * 
      * @param currencyCode ISO currency code (e.g., USD, GBP, JPY)
      * @param date The date to get the exchange rate for (ISO format: yyyy-MM-dd)
-     * @return Exchange rate information for the specified currency and date
+     * @param acceptEncoding Content codings accepted by the client
+     * @return JSON exchange rate information for the specified currency and date
      */
     @GetMapping("/{currencyCode}/{date}")
-    public ResponseEntity<ExchangeRateDto> getExchangeRate(
+    public ResponseEntity<byte[]> getExchangeRate(
             @PathVariable String currencyCode,
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         
         logger.info("GET /api/exchange-rates/{}/{} - Fetching specific rate", currencyCode, date);
         
-        ExchangeRateDto rate = exchangeRateService.getExchangeRate(currencyCode, date);
+        return responseCache.respond("rate:" + currencyCode.toUpperCase() + ":" + date, isImmutable(date),
+                () -> exchangeRateService.getExchangeRate(currencyCode, date), acceptEncoding);
+    }
+
+    /**
+     * Get statistics of a currency's EUR-FX exchange rates over a date range.
+     * Answered in constant time from precomputed prefix sums and sparse tables.
+     * 
+     * @param currencyCode ISO currency code (e.g., USD, GBP, JPY)
+     * @param from First date of the range (ISO format: yyyy-MM-dd), defaults to the earliest rate
+     * @param to Last date of the range (ISO format: yyyy-MM-dd), defaults to the latest rate
+     * @return Count, min, max, mean, standard deviation, first and last rate of the range
+     */
+    @GetMapping("/{currencyCode}/stats")
+    @RateLimitCost(2)
+    public ResponseEntity<RateStatisticsDto> getRateStatistics(
+            @PathVariable String currencyCode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        
+        logger.info("GET /api/exchange-rates/{}/stats - Computing statistics from {} to {}", currencyCode, from, to);
+        
+        RateStatisticsDto statistics = exchangeRateService.getRateStatistics(currencyCode, from, to);
+        
+        return ResponseEntity.ok(statistics);
+    }
+
+    /**
+     * Get monthly aggregates (average, high, low, close) of a currency's exchange rates.
+     * 
+     * @param currencyCode ISO currency code (e.g., USD, GBP, JPY)
+     * @param from Date within the first month to include (ISO format: yyyy-MM-dd), optional
+     * @param to Date within the last month to include (ISO format: yyyy-MM-dd), optional
+     * @return One aggregate per month with rates, oldest first
+     */
+    @GetMapping("/{currencyCode}/monthly")
+    @RateLimitCost(2)
+    public ResponseEntity<List<RateRollupDto>> getMonthlyRollups(
+            @PathVariable String currencyCode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        
+        logger.info("GET /api/exchange-rates/{}/monthly - Fetching monthly rollups from {} to {}", currencyCode, from, to);
+        
+        return ResponseEntity.ok(rollupService.getRollups(currencyCode, RollupPeriod.MONTH, from, to));
+    }
+
+    /**
+     * Get yearly aggregates (average, high, low, close) of a currency's exchange rates.
+     * 
+     * @param currencyCode ISO currency code (e.g., USD, GBP, JPY)
+     * @param from Date within the first year to include (ISO format: yyyy-MM-dd), optional
+     * @param to Date within the last year to include (ISO format: yyyy-MM-dd), optional
+     * @return One aggregate per year with rates, oldest first
+     */
+    @GetMapping("/{currencyCode}/yearly")
+    @RateLimitCost(2)
+    public ResponseEntity<List<RateRollupDto>> getYearlyRollups(
+            @PathVariable String currencyCode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        
+        logger.info("GET /api/exchange-rates/{}/yearly - Fetching yearly rollups from {} to {}", currencyCode, from, to);
+        
+        return ResponseEntity.ok(rollupService.getRollups(currencyCode, RollupPeriod.YEAR, from, to));
+    }
+
+    /**
+     * Get the inverse EUR-FX exchange rate for a specific currency on a specific date,
+     * i.e. the EUR value of one unit of the foreign currency.
+     * 
+     * @param currencyCode ISO currency code (e.g., USD, GBP, JPY)
+     * @param date The date to get the inverse rate for (ISO format: yyyy-MM-dd)
+     * @return Inverse exchange rate information for the specified currency and date
+     */
+    @GetMapping("/{currencyCode}/{date}/inverse")
+    public ResponseEntity<InverseRateDto> getInverseExchangeRate(
+            @PathVariable String currencyCode,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        
+        logger.info("GET /api/exchange-rates/{}/{}/inverse - Fetching inverse rate", currencyCode, date);
+        
+        InverseRateDto rate = exchangeRateService.getInverseExchangeRate(currencyCode, date);
         
         return ResponseEntity.ok(rate);
     }
@@ -108,6 +426,66 @@ public class ExchangeRateController {
         
         return ResponseEntity.ok(result);
     }
-}
 
+    /**
+     * Convert an EUR amount to a foreign currency.
+     * Uses the exchange rate for the specified date.
+     * 
+     * @param currencyCode Target currency code (ISO format)
+     * @param amount Amount in EUR to convert
+     * @param date Date for the exchange rate to use (ISO format: yyyy-MM-dd)
+     * @return Conversion result including the foreign amount and rate used
+     */
+    @GetMapping("/convert/from-eur")
+    public ResponseEntity<ConversionResultDto> convertFromEur(
+            @RequestParam String currencyCode,
+            @RequestParam BigDecimal amount,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        
+        logger.info("GET /api/exchange-rates/convert/from-eur - Converting {} EUR to {} for date {}", 
+                amount, currencyCode, date);
+        
+        ConversionResultDto result = exchangeRateService.convertFromEur(currencyCode, amount, date);
+        
+        logger.info("Conversion result: {} EUR = {} {}", 
+                result.getSourceAmount(), result.getConvertedAmount(), result.getTargetCurrency());
+        
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Writes the rates of a date, or all rates, in the requested shape straight from
+     * the exported rows, without building DTOs.
+     */
+    private ResponseEntity<byte[]> respondShaped(String key, boolean cacheable, LocalDate date,
+                                                 String shape, List<String> fields, String acceptEncoding) {
+        if (shape != null && fields != null) {
+            throw new IllegalArgumentException("shape and fields cannot be combined");
+        }
+        if (shape != null && !SHAPE_GROUPED.equals(shape)) {
+            throw new IllegalArgumentException("Unsupported shape '" + shape + "', supported shapes are [" + SHAPE_GROUPED + "]");
+        }
+        Set<String> selectedFields = fields == null ? null : ExchangeRateSparseJsonWriter.canonical(new HashSet<>(fields));
+        String variant = shape != null ? "shape=" + shape : "fields=" + String.join(",", selectedFields);
+
+        return responseCache.respondSerialized(key + ":" + variant, cacheable, () -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                ExchangeRateRowWriter writer = shape != null
+                        ? new ExchangeRateGroupedJsonWriter(out, jsonFactory)
+                        : new ExchangeRateSparseJsonWriter(out, jsonFactory, selectedFields);
+                exchangeRateService.exportExchangeRates(date, writer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }, acceptEncoding);
+    }
 
+    /**
+     * Rates of past dates never change within a data version; today's may still be published.
+     */
+    private static boolean isImmutable(LocalDate date) {
+        return date.isBefore(LocalDate.now());
+    }
+}
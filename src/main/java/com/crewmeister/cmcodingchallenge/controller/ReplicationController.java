@@ -0,0 +1,78 @@
+package com.crewmeister.cmcodingchallenge.controller;
+
+import com.crewmeister.cmcodingchallenge.cache.DataVersionTracker;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateBinaryWriter;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateMediaTypes;
+import com.crewmeister.cmcodingchallenge.ratelimit.RateLimitCost;
+import com.crewmeister.cmcodingchallenge.replication.SnapshotReplicator;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * REST controller serving the exchange rate data set to peer instances.
+ * Only registered when {@code fx.replication.peers} is set, and only answers
+ * requests from the configured peers' hosts.
+ * 
+ * @see SnapshotReplicator
+ */
+@RestController
+@ConditionalOnExpression("!'${fx.replication.peers:}'.trim().isEmpty()")
+public class ReplicationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationController.class);
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private final ExchangeRateService exchangeRateService;
+    private final SnapshotReplicator snapshotReplicator;
+    private final DataVersionTracker dataVersionTracker;
+
+    public ReplicationController(ExchangeRateService exchangeRateService,
+                                 SnapshotReplicator snapshotReplicator,
+                                 DataVersionTracker dataVersionTracker) {
+        this.exchangeRateService = exchangeRateService;
+        this.snapshotReplicator = snapshotReplicator;
+        this.dataVersionTracker = dataVersionTracker;
+    }
+
+    /**
+     * Stream a snapshot of all exchange rates in the binary format, tagged with the data version.
+     * Responds with 403 to clients that are not a configured peer and with 503
+     * while this instance is still loading its own data set or holds no rates.
+     * 
+     * @param request Request of the peer
+     * @param response Response the snapshot is written to
+     */
+    @GetMapping(value = SnapshotReplicator.SNAPSHOT_PATH, produces = ExchangeRateMediaTypes.BINARY)
+    @RateLimitCost(100)
+    public void getSnapshot(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!snapshotReplicator.isPeerAddress(request.getRemoteAddr())) {
+            logger.warn("GET {} - Rejecting snapshot request from {}", SnapshotReplicator.SNAPSHOT_PATH,
+                    request.getRemoteAddr());
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            return;
+        }
+        if (!snapshotReplicator.isSnapshotAvailable()) {
+            logger.info("GET {} - Snapshot not available yet", SnapshotReplicator.SNAPSHOT_PATH);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            return;
+        }
+        
+        long version = dataVersionTracker.current();
+        logger.info("GET {} - Streaming snapshot version {}", SnapshotReplicator.SNAPSHOT_PATH, version);
+        
+        response.setContentType(ExchangeRateMediaTypes.BINARY);
+        response.setHeader(SnapshotReplicator.DATA_VERSION_HEADER, Long.toString(version));
+        exchangeRateService.exportExchangeRates(null, new ExchangeRateBinaryWriter(response.getOutputStream()));
+    }
+}
@@ -21,6 +21,13 @@ public class Currency {
     @Column(name = "currency_name", nullable = false)
     private String currencyName;
 
+    // Validators of the last downloaded Bundesbank series, stored with the rates it delivered
+    @Column(name = "series_etag")
+    private String seriesEtag;
+
+    @Column(name = "series_last_modified")
+    private String seriesLastModified;
+
     protected Currency() {
         // JPA requires a no-arg constructor
     }
@@ -42,6 +49,22 @@ public class Currency {
         this.currencyName = currencyName;
     }
 
+    public String getSeriesEtag() {
+        return seriesEtag;
+    }
+
+    public String getSeriesLastModified() {
+        return seriesLastModified;
+    }
+
+    /**
+     * Records the validators of a downloaded series, sent with the next fetch of it.
+     */
+    public void setSeriesValidators(String etag, String lastModified) {
+        this.seriesEtag = etag;
+        this.seriesLastModified = lastModified;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -2,18 +2,28 @@ package com.crewmeister.cmcodingchallenge.domain.entity;
 
 import javax.persistence.*;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.Objects;
 
 /**
  * Entity representing an exchange rate for a specific currency against EUR.
  * All rates are stored as EUR to foreign currency conversion rates.
+ * The inverse (foreign currency to EUR per unit) is computed once when the rate
+ * is stored, so conversions in either direction only need a multiplication.
  */
 @Entity
 @Table(name = "exchange_rates", 
        uniqueConstraints = @UniqueConstraint(columnNames = {"currency_code", "rate_date"}))
 public class ExchangeRate {
 
+    /**
+     * Scale of the stored inverse rate. Multiplying an amount by it usually rounds to
+     * the same 4 decimal places as a direct division, but may differ by one unit in
+     * the last place where the exact quotient ends in a 5 (e.g. 0.01254 / 1.2).
+     */
+    public static final int INVERSE_RATE_SCALE = 20;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -28,6 +38,9 @@ public class ExchangeRate {
     @Column(name = "rate", nullable = false, precision = 18, scale = 6)
     private BigDecimal rate;
 
+    @Column(name = "inverse_rate", nullable = false, precision = 38, scale = INVERSE_RATE_SCALE)
+    private BigDecimal inverseRate;
+
     protected ExchangeRate() {
         // JPA requires a no-arg constructor
     }
@@ -36,6 +49,7 @@ public class ExchangeRate {
         this.currency = currency;
         this.rateDate = rateDate;
         this.rate = rate;
+        this.inverseRate = invert(rate);
     }
 
     public Long getId() {
@@ -56,6 +70,22 @@ public class ExchangeRate {
 
     public void setRate(BigDecimal rate) {
         this.rate = rate;
+        this.inverseRate = invert(rate);
+    }
+
+    /**
+     * Returns the amount of EUR one unit of the foreign currency is worth.
+     */
+    public BigDecimal getInverseRate() {
+        return inverseRate;
+    }
+
+    /**
+     * Computes the inverse of a rate at {@link #INVERSE_RATE_SCALE}, as stored with each rate.
+     * Meant for code that stores or loads rates; conversions use the stored inverse.
+     */
+    public static BigDecimal invert(BigDecimal rate) {
+        return rate != null ? BigDecimal.ONE.divide(rate, INVERSE_RATE_SCALE, RoundingMode.HALF_UP) : null;
     }
 
     @Override
@@ -0,0 +1,146 @@
+package com.crewmeister.cmcodingchallenge.domain.entity;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Entity holding the running aggregate of a currency's daily rates over a month or a year.
+ * Updated incrementally as new daily rates are stored, so reports never scan daily rows.
+ */
+@Entity
+@Table(name = "exchange_rate_rollups",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"currency_code", "period", "period_start"}))
+public class ExchangeRateRollup {
+
+    private static final int AVERAGE_SCALE = 6;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "currency_code", nullable = false)
+    private Currency currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period", nullable = false, length = 5)
+    private RollupPeriod period;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "observation_count", nullable = false)
+    private int observationCount;
+
+    @Column(name = "rate_sum", nullable = false, precision = 24, scale = 6)
+    private BigDecimal rateSum = BigDecimal.ZERO;
+
+    @Column(name = "high_rate", nullable = false, precision = 18, scale = 6)
+    private BigDecimal high;
+
+    @Column(name = "low_rate", nullable = false, precision = 18, scale = 6)
+    private BigDecimal low;
+
+    @Column(name = "close_rate", nullable = false, precision = 18, scale = 6)
+    private BigDecimal close;
+
+    @Column(name = "close_date", nullable = false)
+    private LocalDate closeDate;
+
+    protected ExchangeRateRollup() {
+        // JPA requires a no-arg constructor
+    }
+
+    public ExchangeRateRollup(Currency currency, RollupPeriod period, LocalDate periodStart) {
+        this.currency = currency;
+        this.period = period;
+        this.periodStart = periodStart;
+    }
+
+    /**
+     * Adds a daily rate of this period to the aggregate.
+     * The close is the rate of the latest date seen so far.
+     */
+    public void add(LocalDate date, BigDecimal rate) {
+        observationCount++;
+        rateSum = rateSum.add(rate);
+        if (high == null || rate.compareTo(high) > 0) {
+            high = rate;
+        }
+        if (low == null || rate.compareTo(low) < 0) {
+            low = rate;
+        }
+        if (closeDate == null || !date.isBefore(closeDate)) {
+            close = rate;
+            closeDate = date;
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public RollupPeriod getPeriod() {
+        return period;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public int getObservationCount() {
+        return observationCount;
+    }
+
+    public BigDecimal getAverage() {
+        return rateSum.divide(BigDecimal.valueOf(observationCount), AVERAGE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    public BigDecimal getHigh() {
+        return high;
+    }
+
+    public BigDecimal getLow() {
+        return low;
+    }
+
+    public BigDecimal getClose() {
+        return close;
+    }
+
+    public LocalDate getCloseDate() {
+        return closeDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ExchangeRateRollup that = (ExchangeRateRollup) o;
+        return Objects.equals(currency, that.currency) &&
+               period == that.period &&
+               Objects.equals(periodStart, that.periodStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(currency, period, periodStart);
+    }
+
+    @Override
+    public String toString() {
+        return "ExchangeRateRollup{" +
+                "currency=" + (currency != null ? currency.getCurrencyCode() : null) +
+                ", period=" + period +
+                ", periodStart=" + periodStart +
+                ", observationCount=" + observationCount +
+                '}';
+    }
+}
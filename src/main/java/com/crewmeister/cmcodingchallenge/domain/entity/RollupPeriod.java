@@ -0,0 +1,34 @@
+package com.crewmeister.cmcodingchallenge.domain.entity;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Aggregation periods of exchange rate rollups.
+ * Labels use the same yyyy-MM and yyyy formats as Bundesbank's monthly and yearly series.
+ */
+public enum RollupPeriod {
+
+    MONTH(DateTimeFormatter.ofPattern("yyyy-MM")),
+    YEAR(DateTimeFormatter.ofPattern("yyyy"));
+
+    private final DateTimeFormatter labelFormat;
+
+    RollupPeriod(DateTimeFormatter labelFormat) {
+        this.labelFormat = labelFormat;
+    }
+
+    /**
+     * Returns the first day of the period containing the given date.
+     */
+    public LocalDate startOf(LocalDate date) {
+        return this == MONTH ? date.withDayOfMonth(1) : date.withDayOfYear(1);
+    }
+
+    /**
+     * Returns the label of the period starting at the given date, e.g. 2024-01 or 2024.
+     */
+    public String label(LocalDate periodStart) {
+        return labelFormat.format(periodStart);
+    }
+}
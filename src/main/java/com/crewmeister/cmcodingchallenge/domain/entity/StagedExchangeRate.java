@@ -0,0 +1,64 @@
+package com.crewmeister.cmcodingchallenge.domain.entity;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entity of an exchange rate loaded into the staging table by a staged refresh.
+ * Rows of a load are validated and then merged into {@code exchange_rates} in one
+ * transaction, so readers never see a partially refreshed data set. The inverse
+ * rate is computed when staging, so publishing is a plain copy.
+ */
+@Entity
+@Table(name = "exchange_rate_staging",
+       indexes = @Index(name = "idx_exchange_rate_staging_load", columnList = "load_id"))
+public class StagedExchangeRate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "load_id", nullable = false, length = 36)
+    private String loadId;
+
+    @Column(name = "currency_code", nullable = false, length = 3)
+    private String currencyCode;
+
+    @Column(name = "rate_date", nullable = false)
+    private LocalDate rateDate;
+
+    @Column(name = "rate", nullable = false, precision = 18, scale = 6)
+    private BigDecimal rate;
+
+    @Column(name = "inverse_rate", nullable = false, precision = 38, scale = ExchangeRate.INVERSE_RATE_SCALE)
+    private BigDecimal inverseRate;
+
+    protected StagedExchangeRate() {
+        // JPA requires a no-arg constructor
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getLoadId() {
+        return loadId;
+    }
+
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+
+    public LocalDate getRateDate() {
+        return rateDate;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public BigDecimal getInverseRate() {
+        return inverseRate;
+    }
+}
@@ -0,0 +1,11 @@
+package com.crewmeister.cmcodingchallenge.domain.projection;
+
+/**
+ * Number of rows a currency has in a query result.
+ */
+public interface CurrencyRowCount {
+
+    String getCurrencyCode();
+
+    long getRowCount();
+}
@@ -0,0 +1,47 @@
+package com.crewmeister.cmcodingchallenge.domain.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of an exchange rate row.
+ * Unlike the entity it is not tracked by the persistence context,
+ * so large result sets can be streamed without accumulating in memory.
+ */
+public class ExchangeRateRow {
+
+    private final String currencyCode;
+    private final LocalDate rateDate;
+    private final BigDecimal rate;
+    private final BigDecimal inverseRate;
+
+    public ExchangeRateRow(String currencyCode, LocalDate rateDate, BigDecimal rate) {
+        this(currencyCode, rateDate, rate, null);
+    }
+
+    public ExchangeRateRow(String currencyCode, LocalDate rateDate, BigDecimal rate, BigDecimal inverseRate) {
+        this.currencyCode = currencyCode;
+        this.rateDate = rateDate;
+        this.rate = rate;
+        this.inverseRate = inverseRate;
+    }
+
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+
+    public LocalDate getRateDate() {
+        return rateDate;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    /**
+     * Returns the stored inverse of the rate, or null if the row was read without it.
+     */
+    public BigDecimal getInverseRate() {
+        return inverseRate;
+    }
+}
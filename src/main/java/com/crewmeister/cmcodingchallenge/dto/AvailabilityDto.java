@@ -0,0 +1,166 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Data Transfer Object for the days with exchange rates of a currency within a date range.
+ * Only the field of the requested encoding is present:
+ * <ul>
+ *   <li>{@code dates}: every day with a rate,</li>
+ *   <li>{@code runs}: ranges of consecutive days with a rate,</li>
+ *   <li>{@code bitmap}: Base64 of a bitmap where bit i (least significant bit first within
+ *       each byte) stands for {@code from} plus i days; missing trailing bytes are zero.</li>
+ * </ul>
+ * {@code from} and {@code to} are null when neither was requested and no rates are stored.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvailabilityDto {
+
+    private String currencyCode;
+    private LocalDate from;
+    private LocalDate to;
+    private Encoding encoding;
+    private int count;
+    private List<LocalDate> dates;
+    private List<DateRun> runs;
+    private String bitmap;
+
+    public AvailabilityDto() {
+    }
+
+    public AvailabilityDto(String currencyCode, LocalDate from, LocalDate to, Encoding encoding, int count) {
+        this.currencyCode = currencyCode;
+        this.from = from;
+        this.to = to;
+        this.encoding = encoding;
+        this.count = count;
+    }
+
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+
+    public void setCurrencyCode(String currencyCode) {
+        this.currencyCode = currencyCode;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(Encoding encoding) {
+        this.encoding = encoding;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public List<LocalDate> getDates() {
+        return dates;
+    }
+
+    public void setDates(List<LocalDate> dates) {
+        this.dates = dates;
+    }
+
+    public List<DateRun> getRuns() {
+        return runs;
+    }
+
+    public void setRuns(List<DateRun> runs) {
+        this.runs = runs;
+    }
+
+    public String getBitmap() {
+        return bitmap;
+    }
+
+    public void setBitmap(String bitmap) {
+        this.bitmap = bitmap;
+    }
+
+    /**
+     * How the days with a rate are listed.
+     */
+    public enum Encoding {
+        DATES, RUNS, BITMAP;
+
+        /**
+         * Parses an encoding name, ignoring case.
+         *
+         * @throws IllegalArgumentException if the name is unknown
+         */
+        public static Encoding parse(String name) {
+            for (Encoding encoding : values()) {
+                if (encoding.name().equalsIgnoreCase(name)) {
+                    return encoding;
+                }
+            }
+            throw new IllegalArgumentException("Unknown encoding " + name + ", expected dates, runs or bitmap");
+        }
+
+        @JsonValue
+        public String toJson() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Consecutive days with a rate, both ends inclusive.
+     */
+    public static class DateRun {
+
+        private LocalDate from;
+        private LocalDate to;
+
+        public DateRun() {
+        }
+
+        public DateRun(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        public LocalDate getFrom() {
+            return from;
+        }
+
+        public void setFrom(LocalDate from) {
+            this.from = from;
+        }
+
+        public LocalDate getTo() {
+            return to;
+        }
+
+        public void setTo(LocalDate to) {
+            this.to = to;
+        }
+    }
+}
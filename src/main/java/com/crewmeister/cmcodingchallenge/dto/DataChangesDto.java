@@ -0,0 +1,48 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the exchange rates added between two data versions.
+ * A client holding the data set of {@code sinceVersion} is up to date with
+ * {@code version} once it has applied {@code rates}.
+ */
+public class DataChangesDto {
+
+    private long sinceVersion;
+    private long version;
+    private List<ExchangeRateDto> rates;
+
+    public DataChangesDto() {
+    }
+
+    public DataChangesDto(long sinceVersion, long version, List<ExchangeRateDto> rates) {
+        this.sinceVersion = sinceVersion;
+        this.version = version;
+        this.rates = rates;
+    }
+
+    public long getSinceVersion() {
+        return sinceVersion;
+    }
+
+    public void setSinceVersion(long sinceVersion) {
+        this.sinceVersion = sinceVersion;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public List<ExchangeRateDto> getRates() {
+        return rates;
+    }
+
+    public void setRates(List<ExchangeRateDto> rates) {
+        this.rates = rates;
+    }
+}
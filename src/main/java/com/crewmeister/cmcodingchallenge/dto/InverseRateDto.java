@@ -0,0 +1,58 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object for the inverse view of an exchange rate,
+ * i.e. how many EUR one unit of the foreign currency is worth.
+ */
+public class InverseRateDto {
+
+    private String currencyCode;
+    private String currencyName;
+    private LocalDate date;
+    private BigDecimal eurPerUnit;
+
+    public InverseRateDto() {
+    }
+
+    public InverseRateDto(String currencyCode, String currencyName, LocalDate date, BigDecimal eurPerUnit) {
+        this.currencyCode = currencyCode;
+        this.currencyName = currencyName;
+        this.date = date;
+        this.eurPerUnit = eurPerUnit;
+    }
+
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+
+    public void setCurrencyCode(String currencyCode) {
+        this.currencyCode = currencyCode;
+    }
+
+    public String getCurrencyName() {
+        return currencyName;
+    }
+
+    public void setCurrencyName(String currencyName) {
+        this.currencyName = currencyName;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public BigDecimal getEurPerUnit() {
+        return eurPerUnit;
+    }
+
+    public void setEurPerUnit(BigDecimal eurPerUnit) {
+        this.eurPerUnit = eurPerUnit;
+    }
+}
@@ -0,0 +1,50 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object for a date × currency grid of exchange rates.
+ * {@code rates.get(i).get(j)} is the rate of {@code currencies.get(j)} on
+ * {@code dates.get(i)}, or null if there is no rate for that day.
+ */
+public class RateMatrixDto {
+
+    private List<String> currencies;
+    private List<LocalDate> dates;
+    private List<List<BigDecimal>> rates;
+
+    public RateMatrixDto() {
+    }
+
+    public RateMatrixDto(List<String> currencies, List<LocalDate> dates, List<List<BigDecimal>> rates) {
+        this.currencies = currencies;
+        this.dates = dates;
+        this.rates = rates;
+    }
+
+    public List<String> getCurrencies() {
+        return currencies;
+    }
+
+    public void setCurrencies(List<String> currencies) {
+        this.currencies = currencies;
+    }
+
+    public List<LocalDate> getDates() {
+        return dates;
+    }
+
+    public void setDates(List<LocalDate> dates) {
+        this.dates = dates;
+    }
+
+    public List<List<BigDecimal>> getRates() {
+        return rates;
+    }
+
+    public void setRates(List<List<BigDecimal>> rates) {
+        this.rates = rates;
+    }
+}
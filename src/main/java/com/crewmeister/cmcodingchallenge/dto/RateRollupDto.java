@@ -0,0 +1,156 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object for the monthly or yearly aggregate of a currency's exchange rates.
+ */
+public class RateRollupDto {
+
+    private String currencyCode;
+    private String period;
+    private int observationCount;
+    private BigDecimal average;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private LocalDate closeDate;
+
+    public RateRollupDto() {
+    }
+
+    private RateRollupDto(Builder builder) {
+        this.currencyCode = builder.currencyCode;
+        this.period = builder.period;
+        this.observationCount = builder.observationCount;
+        this.average = builder.average;
+        this.high = builder.high;
+        this.low = builder.low;
+        this.close = builder.close;
+        this.closeDate = builder.closeDate;
+    }
+
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+
+    public void setCurrencyCode(String currencyCode) {
+        this.currencyCode = currencyCode;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+
+    public int getObservationCount() {
+        return observationCount;
+    }
+
+    public void setObservationCount(int observationCount) {
+        this.observationCount = observationCount;
+    }
+
+    public BigDecimal getAverage() {
+        return average;
+    }
+
+    public void setAverage(BigDecimal average) {
+        this.average = average;
+    }
+
+    public BigDecimal getHigh() {
+        return high;
+    }
+
+    public void setHigh(BigDecimal high) {
+        this.high = high;
+    }
+
+    public BigDecimal getLow() {
+        return low;
+    }
+
+    public void setLow(BigDecimal low) {
+        this.low = low;
+    }
+
+    public BigDecimal getClose() {
+        return close;
+    }
+
+    public void setClose(BigDecimal close) {
+        this.close = close;
+    }
+
+    public LocalDate getCloseDate() {
+        return closeDate;
+    }
+
+    public void setCloseDate(LocalDate closeDate) {
+        this.closeDate = closeDate;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private String currencyCode;
+        private String period;
+        private int observationCount;
+        private BigDecimal average;
+        private BigDecimal high;
+        private BigDecimal low;
+        private BigDecimal close;
+        private LocalDate closeDate;
+
+        public Builder currencyCode(String currencyCode) {
+            this.currencyCode = currencyCode;
+            return this;
+        }
+
+        public Builder period(String period) {
+            this.period = period;
+            return this;
+        }
+
+        public Builder observationCount(int observationCount) {
+            this.observationCount = observationCount;
+            return this;
+        }
+
+        public Builder average(BigDecimal average) {
+            this.average = average;
+            return this;
+        }
+
+        public Builder high(BigDecimal high) {
+            this.high = high;
+            return this;
+        }
+
+        public Builder low(BigDecimal low) {
+            this.low = low;
+            return this;
+        }
+
+        public Builder close(BigDecimal close) {
+            this.close = close;
+            return this;
+        }
+
+        public Builder closeDate(LocalDate closeDate) {
+            this.closeDate = closeDate;
+            return this;
+        }
+
+        public RateRollupDto build() {
+            return new RateRollupDto(this);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object for statistics of a currency's exchange rates over a date range.
+ * Rate fields are null when the range contains no observations.
+ */
+public class RateStatisticsDto {
+
+    private String currencyCode;
+    private LocalDate from;
+    private LocalDate to;
+    private int count;
+    private BigDecimal min;
+    private BigDecimal max;
+    private BigDecimal mean;
+    private BigDecimal standardDeviation;
+    private LocalDate firstDate;
+    private BigDecimal firstRate;
+    private LocalDate lastDate;
+    private BigDecimal lastRate;
+
+    public RateStatisticsDto() {
+    }
+
+    private RateStatisticsDto(Builder builder) {
+        this.currencyCode = builder.currencyCode;
+        this.from = builder.from;
+        this.to = builder.to;
+        this.count = builder.count;
+        this.min = builder.min;
+        this.max = builder.max;
+        this.mean = builder.mean;
+        this.standardDeviation = builder.standardDeviation;
+        this.firstDate = builder.firstDate;
+        this.firstRate = builder.firstRate;
+        this.lastDate = builder.lastDate;
+        this.lastRate = builder.lastRate;
+    }
+
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+
+    public void setCurrencyCode(String currencyCode) {
+        this.currencyCode = currencyCode;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public BigDecimal getMin() {
+        return min;
+    }
+
+    public void setMin(BigDecimal min) {
+        this.min = min;
+    }
+
+    public BigDecimal getMax() {
+        return max;
+    }
+
+    public void setMax(BigDecimal max) {
+        this.max = max;
+    }
+
+    public BigDecimal getMean() {
+        return mean;
+    }
+
+    public void setMean(BigDecimal mean) {
+        this.mean = mean;
+    }
+
+    public BigDecimal getStandardDeviation() {
+        return standardDeviation;
+    }
+
+    public void setStandardDeviation(BigDecimal standardDeviation) {
+        this.standardDeviation = standardDeviation;
+    }
+
+    public LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    public void setFirstDate(LocalDate firstDate) {
+        this.firstDate = firstDate;
+    }
+
+    public BigDecimal getFirstRate() {
+        return firstRate;
+    }
+
+    public void setFirstRate(BigDecimal firstRate) {
+        this.firstRate = firstRate;
+    }
+
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    public void setLastDate(LocalDate lastDate) {
+        this.lastDate = lastDate;
+    }
+
+    public BigDecimal getLastRate() {
+        return lastRate;
+    }
+
+    public void setLastRate(BigDecimal lastRate) {
+        this.lastRate = lastRate;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private String currencyCode;
+        private LocalDate from;
+        private LocalDate to;
+        private int count;
+        private BigDecimal min;
+        private BigDecimal max;
+        private BigDecimal mean;
+        private BigDecimal standardDeviation;
+        private LocalDate firstDate;
+        private BigDecimal firstRate;
+        private LocalDate lastDate;
+        private BigDecimal lastRate;
+
+        public Builder currencyCode(String currencyCode) {
+            this.currencyCode = currencyCode;
+            return this;
+        }
+
+        public Builder from(LocalDate from) {
+            this.from = from;
+            return this;
+        }
+
+        public Builder to(LocalDate to) {
+            this.to = to;
+            return this;
+        }
+
+        public Builder count(int count) {
+            this.count = count;
+            return this;
+        }
+
+        public Builder min(BigDecimal min) {
+            this.min = min;
+            return this;
+        }
+
+        public Builder max(BigDecimal max) {
+            this.max = max;
+            return this;
+        }
+
+        public Builder mean(BigDecimal mean) {
+            this.mean = mean;
+            return this;
+        }
+
+        public Builder standardDeviation(BigDecimal standardDeviation) {
+            this.standardDeviation = standardDeviation;
+            return this;
+        }
+
+        public Builder firstDate(LocalDate firstDate) {
+            this.firstDate = firstDate;
+            return this;
+        }
+
+        public Builder firstRate(BigDecimal firstRate) {
+            this.firstRate = firstRate;
+            return this;
+        }
+
+        public Builder lastDate(LocalDate lastDate) {
+            this.lastDate = lastDate;
+            return this;
+        }
+
+        public Builder lastRate(BigDecimal lastRate) {
+            this.lastRate = lastRate;
+            return this;
+        }
+
+        public RateStatisticsDto build() {
+            return new RateStatisticsDto(this);
+        }
+    }
+}
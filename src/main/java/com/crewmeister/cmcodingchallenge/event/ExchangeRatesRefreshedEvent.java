@@ -0,0 +1,50 @@
+package com.crewmeister.cmcodingchallenge.event;
+
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Published when a refresh has stored new exchange rates.
+ * Listeners registered for the after-commit phase see the new data.
+ *
+ * Listeners keeping derived state run in a fixed order: the rate store is rebuilt
+ * before the data version advances, and caches are cleared after that. Anything
+ * produced for the new version is therefore produced from the rebuilt store.
+ * Listeners without an order run last.
+ */
+public class ExchangeRatesRefreshedEvent {
+
+    /**
+     * Listener order of the rate store rebuild.
+     */
+    public static final int REBUILD_ORDER = 0;
+
+    /**
+     * Listener order of the data version advance.
+     */
+    public static final int VERSION_ORDER = 100;
+
+    /**
+     * Listener order of cache invalidation.
+     */
+    public static final int INVALIDATION_ORDER = 200;
+
+    private final List<ExchangeRateRow> addedRates;
+
+    public ExchangeRatesRefreshedEvent(List<ExchangeRateRow> addedRates) {
+        this.addedRates = Collections.unmodifiableList(addedRates);
+    }
+
+    /**
+     * Returns the rates the refresh inserted, in no particular order.
+     */
+    public List<ExchangeRateRow> getAddedRates() {
+        return addedRates;
+    }
+
+    public int getRatesAdded() {
+        return addedRates.size();
+    }
+}
@@ -0,0 +1,26 @@
+package com.crewmeister.cmcodingchallenge.exception;
+
+/**
+ * Exception thrown when the changes since a data version can no longer be determined,
+ * so the client has to reload the whole data set.
+ */
+public class ChangeHistoryUnavailableException extends RuntimeException {
+
+    private final long sinceVersion;
+    private final long currentVersion;
+
+    public ChangeHistoryUnavailableException(long sinceVersion, long oldestVersion, long currentVersion) {
+        super(String.format("Changes since data version %d are not available, only since versions %d to %d; "
+                + "reload all exchange rates", sinceVersion, oldestVersion, currentVersion));
+        this.sinceVersion = sinceVersion;
+        this.currentVersion = currentVersion;
+    }
+
+    public long getSinceVersion() {
+        return sinceVersion;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -8,7 +8,8 @@ public class CurrencyNotFoundException extends RuntimeException {
     private final String currencyCode;
 
     public CurrencyNotFoundException(String currencyCode) {
-        super(String.format("Currency not found: %s", currencyCode));
+        // Signals an expected outcome, so no stack trace is captured
+        super(String.format("Currency not found: %s", currencyCode), null, false, false);
         this.currencyCode = currencyCode;
     }
 
@@ -11,11 +11,21 @@ public class ExchangeRateNotFoundException extends RuntimeException {
     private final LocalDate date;
 
     public ExchangeRateNotFoundException(String currencyCode, LocalDate date) {
-        super(String.format("Exchange rate not found for currency %s on date %s", currencyCode, date));
+        // Signals an expected outcome, so no stack trace is captured
+        super(String.format("Exchange rate not found for currency %s on date %s", currencyCode, date), null, false, false);
         this.currencyCode = currencyCode;
         this.date = date;
     }
 
+    /**
+     * For a currency that has no exchange rates at all.
+     */
+    public ExchangeRateNotFoundException(String currencyCode) {
+        super(String.format("No exchange rates available for currency %s", currencyCode), null, false, false);
+        this.currencyCode = currencyCode;
+        this.date = null;
+    }
+
     public String getCurrencyCode() {
         return currencyCode;
     }
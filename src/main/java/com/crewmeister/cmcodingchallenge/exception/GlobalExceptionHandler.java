@@ -3,7 +3,9 @@ package com.crewmeister.cmcodingchallenge.exception;
 import com.crewmeister.cmcodingchallenge.dto.ApiErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -36,14 +38,15 @@ public class GlobalExceptionHandler {
                 ex.getMessage(),
                 getPath(request)
         );
-        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+        return respond(error, HttpStatus.NOT_FOUND);
     }
 
     @ExceptionHandler(ExchangeRateNotFoundException.class)
     public ResponseEntity<ApiErrorResponse> handleExchangeRateNotFound(
             ExchangeRateNotFoundException ex, WebRequest request) {
         
-        logger.warn("Exchange rate not found for {} on {}", ex.getCurrencyCode(), ex.getDate());
+        // Routine for weekends, holidays and days not published yet
+        logger.debug("Exchange rate not found for {} on {}", ex.getCurrencyCode(), ex.getDate());
         
         ApiErrorResponse error = new ApiErrorResponse(
                 HttpStatus.NOT_FOUND.value(),
@@ -51,7 +54,7 @@ public class GlobalExceptionHandler {
                 ex.getMessage(),
                 getPath(request)
         );
-        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+        return respond(error, HttpStatus.NOT_FOUND);
     }
 
     @ExceptionHandler(ExternalApiException.class)
@@ -66,7 +69,38 @@ public class GlobalExceptionHandler {
                 "Unable to fetch exchange rate data from external source. Please try again later.",
                 getPath(request)
         );
-        return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE);
+        return respond(error, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ApiErrorResponse> handleRateLimitExceeded(
+            RateLimitExceededException ex, WebRequest request) {
+        
+        ApiErrorResponse error = new ApiErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too Many Requests",
+                ex.getMessage(),
+                getPath(request)
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    @ExceptionHandler(ChangeHistoryUnavailableException.class)
+    public ResponseEntity<ApiErrorResponse> handleChangeHistoryUnavailable(
+            ChangeHistoryUnavailableException ex, WebRequest request) {
+        
+        logger.info("Changes since data version {} unavailable at version {}", ex.getSinceVersion(), ex.getCurrentVersion());
+        
+        ApiErrorResponse error = new ApiErrorResponse(
+                HttpStatus.GONE.value(),
+                "Gone",
+                ex.getMessage(),
+                getPath(request)
+        );
+        return respond(error, HttpStatus.GONE);
     }
 
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
@@ -83,7 +117,7 @@ public class GlobalExceptionHandler {
                 message,
                 getPath(request)
         );
-        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        return respond(error, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(MissingServletRequestParameterException.class)
@@ -99,7 +133,7 @@ public class GlobalExceptionHandler {
                 message,
                 getPath(request)
         );
-        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        return respond(error, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -117,7 +151,7 @@ public class GlobalExceptionHandler {
                 message,
                 getPath(request)
         );
-        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        return respond(error, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
@@ -135,7 +169,7 @@ public class GlobalExceptionHandler {
                 message,
                 getPath(request)
         );
-        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        return respond(error, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
@@ -148,7 +182,7 @@ public class GlobalExceptionHandler {
                 ex.getMessage(),
                 getPath(request)
         );
-        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        return respond(error, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(Exception.class)
@@ -163,7 +197,18 @@ public class GlobalExceptionHandler {
                 "An unexpected error occurred. Please try again later.",
                 getPath(request)
         );
-        return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+        return respond(error, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    /**
+     * Errors are always JSON, also for endpoints that only produce CSV or binary and
+     * for clients that only accept those. Without the explicit content type the
+     * response would be negotiated against them and fail to render.
+     */
+    private static ResponseEntity<ApiErrorResponse> respond(ApiErrorResponse error, HttpStatus status) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(error);
     }
 
     private String getPath(WebRequest request) {
@@ -0,0 +1,18 @@
+package com.crewmeister.cmcodingchallenge.exception;
+
+/**
+ * Exception thrown when a client has used up its request allowance.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long retryAfterSeconds) {
+        super(String.format("Rate limit exceeded, retry after %d seconds", retryAfterSeconds));
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
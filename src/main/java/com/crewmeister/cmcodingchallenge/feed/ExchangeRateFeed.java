@@ -0,0 +1,260 @@
+package com.crewmeister.cmcodingchallenge.feed;
+
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.event.ExchangeRatesRefreshedEvent;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateSparseJsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-Sent Events feed of newly stored exchange rates.
+ *
+ * Every refresh that stored rates becomes one {@code rates} event carrying them,
+ * identified by a refresh sequence number. Its payload is serialized once and written
+ * to all subscribers by a single fan-out thread, so idle subscribers cost no thread.
+ * Refreshes that stored more than {@code fx.stream.max-event-rates} rates, such as the
+ * initial load, imports and backfills, are announced with a {@code resync} event
+ * instead, since reloading is cheaper for clients than receiving the history.
+ * The most recent events are retained, bounded by count and by their total size, so
+ * a client reconnecting with {@code Last-Event-ID} receives the refreshes it missed.
+ * If they are no longer retained, or the ID stems from before a restart, the client
+ * gets a {@code resync} event and should reload the data set.
+ */
+@Component
+public class ExchangeRateFeed implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeRateFeed.class);
+
+    public static final String RATES_EVENT = "rates";
+    public static final String RESYNC_EVENT = "resync";
+
+    private static final Set<String> FIELDS = Set.of("currencyCode", "date", "rate");
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+    private final int retainedEvents;
+    private final long retainedBytes;
+    private final int maxEventRates;
+
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService fanOut;
+
+    // Guarded by this; the retained events and the sequence change together
+    private final Deque<FeedEvent> recentEvents = new ArrayDeque<>();
+    private long recentEventsBytes;
+    private long sequence;
+
+    public ExchangeRateFeed(
+            ObjectMapper objectMapper,
+            @Value("${fx.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${fx.stream.heartbeat-ms:30000}") long heartbeatMs,
+            @Value("${fx.stream.retained-events:32}") int retainedEvents,
+            @Value("${fx.stream.retained-bytes:1048576}") long retainedBytes,
+            @Value("${fx.stream.max-event-rates:1000}") int maxEventRates) {
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeoutMs;
+        this.retainedEvents = Math.max(1, retainedEvents);
+        this.retainedBytes = retainedBytes;
+        this.maxEventRates = maxEventRates;
+        this.fanOut = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fx-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Comments keep idle connections open through proxies and detect gone clients
+        fanOut.scheduleWithFixedDelay(this::sendHeartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Subscribes a client to the feed.
+     *
+     * @param lastEventId The {@code Last-Event-ID} the client reconnects with, may be null
+     * @return Emitter the events are sent through
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(error -> subscribers.remove(emitter));
+
+        synchronized (this) {
+            // Replayed under the same lock that publishes, so no event is missed or sent twice
+            if (lastEventId == null || replay(emitter, lastEventId)) {
+                subscribers.add(emitter);
+            }
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExchangeRatesRefreshed(ExchangeRatesRefreshedEvent event) {
+        if (event.getAddedRates().isEmpty()) {
+            // Nothing new to tell subscribers
+            return;
+        }
+        List<ExchangeRateRow> rates = new ArrayList<>(event.getAddedRates());
+        // Leaves the committing thread before anything is serialized or written
+        fanOut.execute(() -> publish(rates));
+    }
+
+    /**
+     * Returns the sequence number of the most recent event.
+     */
+    public synchronized long currentSequence() {
+        return sequence;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fx.stream.subscribers", subscribers, List::size)
+                .description("Clients subscribed to the rate feed")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdownNow();
+        subscribers.forEach(SseEmitter::complete);
+        subscribers.clear();
+    }
+
+    void publish(List<ExchangeRateRow> rates) {
+        boolean resync = rates.size() > maxEventRates;
+        String data = null;
+        if (!resync) {
+            rates.sort(Comparator.comparing(ExchangeRateRow::getRateDate).reversed()
+                    .thenComparing(ExchangeRateRow::getCurrencyCode));
+            data = serialize(rates);
+        }
+
+        FeedEvent event;
+        List<SseEmitter> recipients;
+        synchronized (this) {
+            ++sequence;
+            event = resync ? resyncEvent(sequence) : new FeedEvent(RATES_EVENT, sequence, data);
+            retain(event);
+            recipients = new ArrayList<>(subscribers);
+        }
+
+        logger.debug("Publishing feed event {} ({}, {} rates) to {} subscribers",
+                event.id, event.name, rates.size(), recipients.size());
+        for (SseEmitter emitter : recipients) {
+            send(emitter, event.toSse());
+        }
+    }
+
+    private boolean replay(SseEmitter emitter, long lastEventId) {
+        FeedEvent oldest = recentEvents.peekFirst();
+        long oldestRetained = oldest == null ? sequence + 1 : oldest.id;
+        if (lastEventId > sequence || lastEventId < oldestRetained - 1) {
+            // The missed events are no longer retained, or the ID stems from before a restart
+            return send(emitter, resyncEvent(sequence).toSse());
+        }
+        for (FeedEvent event : recentEvents) {
+            if (event.id > lastEventId && !send(emitter, event.toSse())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void retain(FeedEvent event) {
+        recentEvents.addLast(event);
+        recentEventsBytes += event.data.length();
+        // The newest event is always kept, so replays can tell what the client missed
+        while (recentEvents.size() > 1
+                && (recentEvents.size() > retainedEvents || recentEventsBytes > retainedBytes)) {
+            recentEventsBytes -= recentEvents.removeFirst().data.length();
+        }
+    }
+
+    private static FeedEvent resyncEvent(long sequence) {
+        return new FeedEvent(RESYNC_EVENT, sequence, "{\"sequence\":" + sequence + "}");
+    }
+
+    private void sendHeartbeat() {
+        for (SseEmitter emitter : subscribers) {
+            send(emitter, SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    private boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter already completed
+            subscribers.remove(emitter);
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private String serialize(List<ExchangeRateRow> rates) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ExchangeRateSparseJsonWriter writer = new ExchangeRateSparseJsonWriter(out, objectMapper.getFactory(), FIELDS);
+            writer.begin(List.of());
+            for (ExchangeRateRow rate : rates) {
+                writer.write(rate);
+            }
+            writer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A published event, kept for replay to reconnecting clients.
+     * Its data is JSON of ASCII characters, so its length is its size in bytes.
+     */
+    private static final class FeedEvent {
+
+        private final String name;
+        private final long id;
+        private final String data;
+
+        private FeedEvent(String name, long id, String data) {
+            this.name = name;
+            this.id = id;
+            this.data = data;
+        }
+
+        private SseEmitter.SseEventBuilder toSse() {
+            return SseEmitter.event()
+                    .name(name)
+                    .id(Long.toString(id))
+                    .data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+}
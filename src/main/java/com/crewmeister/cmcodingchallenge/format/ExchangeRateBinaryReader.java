@@ -0,0 +1,121 @@
+package com.crewmeister.cmcodingchallenge.format;
+
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads exchange rates written by {@link ExchangeRateBinaryWriter}.
+ *
+ * The header is read with {@link #readCurrencies()}, after which {@link #read()}
+ * returns the rows block by block until the trailer is reached. Malformed or
+ * truncated input is reported as an {@link IOException}.
+ */
+public class ExchangeRateBinaryReader {
+
+    private final DataInputStream in;
+    private List<CurrencyDto> currencies;
+    private int rateScale;
+
+    private final byte[] currencyColumn = new byte[ExchangeRateBinaryWriter.BLOCK_SIZE];
+    private final int[] dateColumn = new int[ExchangeRateBinaryWriter.BLOCK_SIZE];
+    private final long[] rateColumn = new long[ExchangeRateBinaryWriter.BLOCK_SIZE];
+    private int rowCount;
+    private int position;
+    private boolean finished;
+
+    public ExchangeRateBinaryReader(InputStream in) {
+        this.in = new DataInputStream(new BufferedInputStream(in, 16384));
+    }
+
+    /**
+     * Reads the header; must be called once before the first row.
+     *
+     * @return All currencies rows may refer to, in header order
+     */
+    public List<CurrencyDto> readCurrencies() throws IOException {
+        byte[] magic = new byte[ExchangeRateBinaryWriter.MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, ExchangeRateBinaryWriter.MAGIC)) {
+            throw new IOException("Not an exchange rate stream: unexpected magic");
+        }
+        rateScale = in.readUnsignedByte();
+        int currencyCount = in.readUnsignedShort();
+
+        List<CurrencyDto> result = new ArrayList<>(currencyCount);
+        byte[] code = new byte[3];
+        for (int i = 0; i < currencyCount; i++) {
+            in.readFully(code);
+            byte[] name = new byte[in.readUnsignedShort()];
+            in.readFully(name);
+            result.add(new CurrencyDto(
+                    new String(code, StandardCharsets.US_ASCII),
+                    new String(name, StandardCharsets.UTF_8)));
+        }
+        currencies = Collections.unmodifiableList(result);
+        return currencies;
+    }
+
+    /**
+     * Reads the next row.
+     *
+     * @return The next row, or null once the trailer has been read
+     */
+    public ExchangeRateRow read() throws IOException {
+        if (currencies == null) {
+            throw new IllegalStateException("Header has not been read");
+        }
+        if (position == rowCount && !readBlock()) {
+            return null;
+        }
+        int index = currencyColumn[position] & 0xFF;
+        if (index >= currencies.size()) {
+            throw new IOException("Currency index out of range: " + index);
+        }
+        ExchangeRateRow row = new ExchangeRateRow(
+                currencies.get(index).getCode(),
+                LocalDate.ofEpochDay(dateColumn[position]),
+                BigDecimal.valueOf(rateColumn[position], rateScale));
+        position++;
+        return row;
+    }
+
+    private boolean readBlock() throws IOException {
+        if (finished) {
+            return false;
+        }
+        int count = in.readUnsignedShort();
+        if (count == 0) {
+            finished = true;
+            return false;
+        }
+        if (count > ExchangeRateBinaryWriter.BLOCK_SIZE) {
+            throw new IOException("Block exceeds " + ExchangeRateBinaryWriter.BLOCK_SIZE + " rows: " + count);
+        }
+        long byteLength = in.readInt() & 0xFFFFFFFFL;
+        if (byteLength != (long) count * ExchangeRateBinaryWriter.ROW_BYTES) {
+            throw new IOException("Block length " + byteLength + " does not match " + count + " rows");
+        }
+        in.readFully(currencyColumn, 0, count);
+        for (int i = 0; i < count; i++) {
+            dateColumn[i] = in.readInt();
+        }
+        for (int i = 0; i < count; i++) {
+            rateColumn[i] = in.readLong();
+        }
+        rowCount = count;
+        position = 0;
+        return true;
+    }
+}
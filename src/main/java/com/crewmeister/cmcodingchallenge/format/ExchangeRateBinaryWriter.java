@@ -0,0 +1,112 @@
+package com.crewmeister.cmcodingchallenge.format;
+
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes exchange rates in a compact, length-prefixed columnar binary layout
+ * ({@value ExchangeRateMediaTypes#BINARY}).
+ *
+ * All multi-byte integers are big-endian. Rows are grouped into blocks of at most
+ * {@value #BLOCK_SIZE} rows; within a block each field is stored as its own column,
+ * so a block can be skipped using its byte length without decoding it.
+ * <pre>
+ * stream   := header block* trailer
+ * header   := magic          4 bytes  ASCII "FXR1"
+ *             rateScale      u8       decimal scale of the rate column
+ *             currencyCount  u16
+ *             currency[currencyCount]
+ * currency := code           3 bytes  ASCII ISO 4217 code
+ *             nameLength     u16
+ *             name           nameLength bytes UTF-8
+ * block    := rowCount       u16      1..4096
+ *             byteLength     u32      size of the three columns below (rowCount * 13)
+ *             currency[rowCount]  u8   index into the currency table
+ *             date[rowCount]      i32  epoch day (days since 1970-01-01)
+ *             rate[rowCount]      i64  unscaled rate, rate = value / 10^rateScale
+ * trailer  := u16 0
+ * </pre>
+ * A row costs 13 bytes, compared to roughly 90 bytes for its JSON representation.
+ */
+public class ExchangeRateBinaryWriter implements ExchangeRateRowWriter {
+
+    static final byte[] MAGIC = {'F', 'X', 'R', '1'};
+    static final int RATE_SCALE = 6;
+    static final int BLOCK_SIZE = 4096;
+    static final int ROW_BYTES = 1 + 4 + 8;
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> currencyIndexes = new HashMap<>();
+
+    private final byte[] currencyColumn = new byte[BLOCK_SIZE];
+    private final int[] dateColumn = new int[BLOCK_SIZE];
+    private final long[] rateColumn = new long[BLOCK_SIZE];
+    private int rowCount;
+
+    public ExchangeRateBinaryWriter(OutputStream out) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 16384));
+    }
+
+    @Override
+    public void begin(List<CurrencyDto> currencies) throws IOException {
+        if (currencies.size() > 256) {
+            throw new IllegalArgumentException("At most 256 currencies can be encoded");
+        }
+        out.write(MAGIC);
+        out.writeByte(RATE_SCALE);
+        out.writeShort(currencies.size());
+        for (CurrencyDto currency : currencies) {
+            currencyIndexes.put(currency.getCode(), currencyIndexes.size());
+            out.write(currency.getCode().getBytes(StandardCharsets.US_ASCII), 0, 3);
+            byte[] name = currency.getName().getBytes(StandardCharsets.UTF_8);
+            out.writeShort(name.length);
+            out.write(name);
+        }
+    }
+
+    @Override
+    public void write(ExchangeRateRow row) throws IOException {
+        Integer index = currencyIndexes.get(row.getCurrencyCode());
+        if (index == null) {
+            throw new IllegalStateException("Currency not in header: " + row.getCurrencyCode());
+        }
+        currencyColumn[rowCount] = index.byteValue();
+        dateColumn[rowCount] = Math.toIntExact(row.getRateDate().toEpochDay());
+        rateColumn[rowCount] = row.getRate().setScale(RATE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        if (++rowCount == BLOCK_SIZE) {
+            writeBlock();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (rowCount > 0) {
+            writeBlock();
+        }
+        out.writeShort(0);
+        out.flush();
+    }
+
+    private void writeBlock() throws IOException {
+        out.writeShort(rowCount);
+        out.writeInt(rowCount * ROW_BYTES);
+        out.write(currencyColumn, 0, rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            out.writeInt(dateColumn[i]);
+        }
+        for (int i = 0; i < rowCount; i++) {
+            out.writeLong(rateColumn[i]);
+        }
+        rowCount = 0;
+    }
+}
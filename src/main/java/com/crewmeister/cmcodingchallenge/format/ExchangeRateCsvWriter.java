@@ -0,0 +1,60 @@
+package com.crewmeister.cmcodingchallenge.format;
+
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes exchange rates as UTF-8 CSV (RFC 4180, comma separated, CRLF line endings).
+ *
+ * Schema:
+ * <pre>
+ * currency_code,date,rate
+ * USD,2024-01-15,1.085000
+ * </pre>
+ * <ul>
+ *   <li>{@code currency_code} - ISO 4217 code of the foreign currency</li>
+ *   <li>{@code date} - ISO date (yyyy-MM-dd) of the rate</li>
+ *   <li>{@code rate} - units of the foreign currency per 1 EUR, plain decimal notation</li>
+ * </ul>
+ * Currency names are available from {@code /api/currencies} and are not repeated per row.
+ */
+public class ExchangeRateCsvWriter implements ExchangeRateRowWriter {
+
+    static final String HEADER = "currency_code,date,rate";
+    private static final String LINE_END = "\r\n";
+
+    private final Writer writer;
+
+    public ExchangeRateCsvWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+    }
+
+    @Override
+    public void begin(List<CurrencyDto> currencies) throws IOException {
+        writer.write(HEADER);
+        writer.write(LINE_END);
+    }
+
+    @Override
+    public void write(ExchangeRateRow row) throws IOException {
+        writer.write(row.getCurrencyCode());
+        writer.write(',');
+        writer.write(row.getRateDate().toString());
+        writer.write(',');
+        writer.write(row.getRate().toPlainString());
+        writer.write(LINE_END);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+}
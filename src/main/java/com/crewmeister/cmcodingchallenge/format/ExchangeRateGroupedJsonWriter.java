@@ -0,0 +1,71 @@
+package com.crewmeister.cmcodingchallenge.format;
+
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Writes exchange rates as JSON grouped by date, with currency names sent once.
+ *
+ * Schema:
+ * <pre>
+ * {
+ *   "currencies": {"USD": "US Dollar", "GBP": "British Pound Sterling"},
+ *   "rates": {
+ *     "2024-01-16": {"GBP": 0.856, "USD": 1.09},
+ *     "2024-01-15": {"GBP": 0.855, "USD": 1.085}
+ *   }
+ * }
+ * </pre>
+ * Rows must arrive grouped by date, as the exporting queries deliver them.
+ */
+public class ExchangeRateGroupedJsonWriter implements ExchangeRateRowWriter {
+
+    private final JsonGenerator generator;
+    private LocalDate currentDate;
+
+    public ExchangeRateGroupedJsonWriter(OutputStream out, JsonFactory jsonFactory) throws IOException {
+        this.generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+    }
+
+    @Override
+    public void begin(List<CurrencyDto> currencies) throws IOException {
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("currencies");
+        for (CurrencyDto currency : currencies) {
+            generator.writeStringField(currency.getCode(), currency.getName());
+        }
+        generator.writeEndObject();
+        generator.writeObjectFieldStart("rates");
+    }
+
+    @Override
+    public void write(ExchangeRateRow row) throws IOException {
+        if (!row.getRateDate().equals(currentDate)) {
+            if (currentDate != null) {
+                generator.writeEndObject();
+            }
+            currentDate = row.getRateDate();
+            generator.writeObjectFieldStart(currentDate.toString());
+        }
+        generator.writeFieldName(row.getCurrencyCode());
+        generator.writeNumber(row.getRate());
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (currentDate != null) {
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.flush();
+    }
+}
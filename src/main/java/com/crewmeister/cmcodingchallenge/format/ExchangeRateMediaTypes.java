@@ -0,0 +1,20 @@
+package com.crewmeister.cmcodingchallenge.format;
+
+/**
+ * Media types of the bulk exchange rate representations besides JSON.
+ */
+public final class ExchangeRateMediaTypes {
+
+    /**
+     * CSV, see {@link ExchangeRateCsvWriter}.
+     */
+    public static final String TEXT_CSV = "text/csv";
+
+    /**
+     * Length-prefixed columnar binary layout, see {@link ExchangeRateBinaryWriter}.
+     */
+    public static final String BINARY = "application/vnd.crewmeister.fx-rates.v1";
+
+    private ExchangeRateMediaTypes() {
+    }
+}
@@ -0,0 +1,32 @@
+package com.crewmeister.cmcodingchallenge.format;
+
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes a stream of exchange rate rows in a compact bulk format.
+ * Rows are written as they are read from the data source, so implementations
+ * must not require the full result set up front.
+ */
+public interface ExchangeRateRowWriter {
+
+    /**
+     * Called once before the first row.
+     * 
+     * @param currencies All currencies rows may refer to
+     */
+    void begin(List<CurrencyDto> currencies) throws IOException;
+
+    /**
+     * Writes a single exchange rate row.
+     */
+    void write(ExchangeRateRow row) throws IOException;
+
+    /**
+     * Called once after the last row; flushes any buffered output.
+     */
+    void finish() throws IOException;
+}
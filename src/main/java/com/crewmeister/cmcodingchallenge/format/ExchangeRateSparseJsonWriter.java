@@ -0,0 +1,99 @@
+package com.crewmeister.cmcodingchallenge.format;
+
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes exchange rates as a JSON array in the shape of {@code ExchangeRateDto},
+ * restricted to a subset of its fields.
+ *
+ * With {@code fields = [currencyCode, rate]}:
+ * <pre>
+ * [{"currencyCode": "USD", "rate": 1.085}, {"currencyCode": "GBP", "rate": 0.856}]
+ * </pre>
+ * Fields are always written in the order of {@link #FIELDS}.
+ */
+public class ExchangeRateSparseJsonWriter implements ExchangeRateRowWriter {
+
+    public static final List<String> FIELDS = List.of("currencyCode", "currencyName", "date", "rate");
+
+    private final JsonGenerator generator;
+    private final boolean currencyCode;
+    private final boolean currencyName;
+    private final boolean date;
+    private final boolean rate;
+    private final Map<String, String> currencyNames = new HashMap<>();
+
+    /**
+     * @param fields Names of the fields to write, each one of {@link #FIELDS}
+     * @throws IllegalArgumentException if no or an unknown field is requested
+     */
+    public ExchangeRateSparseJsonWriter(OutputStream out, JsonFactory jsonFactory, Set<String> fields) throws IOException {
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("At least one field must be requested");
+        }
+        for (String field : fields) {
+            if (!FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown field '" + field + "', supported fields are " + FIELDS);
+            }
+        }
+        this.currencyCode = fields.contains("currencyCode");
+        this.currencyName = fields.contains("currencyName");
+        this.date = fields.contains("date");
+        this.rate = fields.contains("rate");
+        this.generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+    }
+
+    /**
+     * Returns the requested fields in canonical order, e.g. to key cached responses.
+     */
+    public static Set<String> canonical(Set<String> fields) {
+        Set<String> ordered = new LinkedHashSet<>();
+        FIELDS.stream().filter(fields::contains).forEach(ordered::add);
+        fields.stream().filter(field -> !FIELDS.contains(field)).forEach(ordered::add);
+        return ordered;
+    }
+
+    @Override
+    public void begin(List<CurrencyDto> currencies) throws IOException {
+        for (CurrencyDto currency : currencies) {
+            currencyNames.put(currency.getCode(), currency.getName());
+        }
+        generator.writeStartArray();
+    }
+
+    @Override
+    public void write(ExchangeRateRow row) throws IOException {
+        generator.writeStartObject();
+        if (currencyCode) {
+            generator.writeStringField("currencyCode", row.getCurrencyCode());
+        }
+        if (currencyName) {
+            generator.writeStringField("currencyName", currencyNames.get(row.getCurrencyCode()));
+        }
+        if (date) {
+            generator.writeStringField("date", row.getRateDate().toString());
+        }
+        if (rate) {
+            generator.writeNumberField("rate", row.getRate());
+        }
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        generator.writeEndArray();
+        generator.flush();
+    }
+}
@@ -0,0 +1,66 @@
+package com.crewmeister.cmcodingchallenge.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.time.LocalDate;
+
+/**
+ * Flight recorder event for a currency conversion.
+ */
+@Name("com.crewmeister.fx.Conversion")
+@Label("Conversion")
+@Category({"FX", "API"})
+@Description("Conversion of an amount to or from EUR")
+public class ConversionEvent extends Event {
+
+    public static final String TO_EUR = "to-eur";
+    public static final String FROM_EUR = "from-eur";
+
+    @Label("Direction")
+    private String direction;
+
+    @Label("Currency")
+    private String currencyCode;
+
+    @Label("Date")
+    @Description("Date of the rate used, ISO format")
+    private String date;
+
+    @Label("Successful")
+    private boolean successful;
+
+    /**
+     * Starts timing a conversion.
+     *
+     * @param direction {@link #TO_EUR} or {@link #FROM_EUR}
+     * @param currencyCode Requested currency code, may be null
+     * @param date Requested date, may be null
+     */
+    public static ConversionEvent start(String direction, String currencyCode, LocalDate date) {
+        ConversionEvent event = new ConversionEvent();
+        event.direction = direction;
+        event.currencyCode = currencyCode;
+        event.begin();
+        if (date != null && event.isEnabled()) {
+            event.date = date.toString();
+        }
+        return event;
+    }
+
+    /**
+     * Ends the conversion and records it, if a recording asks for it.
+     *
+     * @param successful Whether a result was returned
+     */
+    public void finish(boolean successful) {
+        end();
+        if (shouldCommit()) {
+            this.successful = successful;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.crewmeister.cmcodingchallenge.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for fetching the exchange rate series of one currency.
+ */
+@Name("com.crewmeister.fx.CurrencyFetch")
+@Label("Currency Fetch")
+@Category({"FX", "Bundesbank"})
+@Description("Fetch of a currency's exchange rate series from Bundesbank")
+public class CurrencyFetchEvent extends Event {
+
+    @Label("Currency")
+    private String currencyCode;
+
+    @Label("Result")
+    @Description("downloaded, not_modified or failed")
+    private String result;
+
+    @Label("Rates")
+    @Description("Rates in the downloaded series")
+    private int rates;
+
+    /**
+     * Starts timing a fetch.
+     */
+    public static CurrencyFetchEvent start(String currencyCode) {
+        CurrencyFetchEvent event = new CurrencyFetchEvent();
+        event.currencyCode = currencyCode;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the fetch and records it, if a recording asks for it.
+     *
+     * @param result Outcome, as the lower-case name of the fetch status
+     * @param rates Rates in the downloaded series
+     */
+    public void finish(String result, int rates) {
+        end();
+        if (shouldCommit()) {
+            this.result = result;
+            this.rates = rates;
+            commit();
+        }
+    }
+}
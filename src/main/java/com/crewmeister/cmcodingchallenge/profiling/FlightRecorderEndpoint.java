@@ -0,0 +1,77 @@
+package com.crewmeister.cmcodingchallenge.profiling;
+
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Actuator endpoint for on-demand flight recordings.
+ *
+ * {@code POST /actuator/jfr} starts a recording, {@code GET /actuator/jfr} lists the
+ * recordings and {@code GET /actuator/jfr/{id}} downloads the {@code .jfr} file of a
+ * finished one. Like other admin endpoints it is only reachable once added to
+ * {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+public class FlightRecorderEndpoint {
+
+    private final FlightRecordings flightRecordings;
+
+    public FlightRecorderEndpoint(FlightRecordings flightRecordings) {
+        this.flightRecordings = flightRecordings;
+    }
+
+    @ReadOperation
+    public List<FlightRecordings.RecordingInfo> recordings() {
+        return flightRecordings.list();
+    }
+
+    /**
+     * Starts a recording.
+     *
+     * @param durationSeconds Length of the recording, defaults to fx.jfr.default-duration-seconds
+     * @param profile JFR configuration such as "default" or "profile", defaults to fx.jfr.default-profile
+     * @return The recording, 400 for invalid arguments or 409 if one is running already
+     */
+    @WriteOperation
+    public WebEndpointResponse<FlightRecordings.RecordingInfo> start(@Nullable Long durationSeconds,
+                                                                     @Nullable String profile) {
+        try {
+            return new WebEndpointResponse<>(flightRecordings.start(durationSeconds, profile));
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(409);
+        }
+    }
+
+    /**
+     * Downloads the file of a finished recording.
+     *
+     * @return The file, 404 for unknown recordings or 409 while the recording is running
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector long id) {
+        Optional<FlightRecordings.RecordingInfo> recording = flightRecordings.find(id);
+        if (recording.isEmpty()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.get().isRunning()) {
+            return new WebEndpointResponse<>(409);
+        }
+        Optional<Path> file = flightRecordings.file(id);
+        return file.<WebEndpointResponse<Resource>>map(path -> new WebEndpointResponse<>(new FileSystemResource(path)))
+                .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+}
@@ -0,0 +1,237 @@
+package com.crewmeister.cmcodingchallenge.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Starts time-limited Java Flight Recorder sessions on demand and keeps the files
+ * they produce for download.
+ *
+ * Only one recording runs at a time. Each one uses a JFR configuration such as the
+ * JDK's "default" (low overhead, suitable for production) or "profile" (more detail,
+ * including allocation and lock profiling) and always includes the application's own
+ * events. The files of the most recent finished recordings are kept; older ones are
+ * deleted when a new recording starts.
+ */
+@Component
+public class FlightRecordings {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecordings.class);
+
+    private final String directory;
+    private final String defaultProfile;
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
+    private final int retainedRecordings;
+
+    private final Map<Long, Entry> recordings = new LinkedHashMap<>();
+    private Path recordingDirectory;
+
+    public FlightRecordings(@Value("${fx.jfr.directory:}") String directory,
+                            @Value("${fx.jfr.default-profile:default}") String defaultProfile,
+                            @Value("${fx.jfr.default-duration-seconds:60}") long defaultDurationSeconds,
+                            @Value("${fx.jfr.max-duration-seconds:600}") long maxDurationSeconds,
+                            @Value("${fx.jfr.retained-recordings:5}") int retainedRecordings) {
+        this.directory = directory;
+        this.defaultProfile = defaultProfile;
+        this.defaultDuration = Duration.ofSeconds(defaultDurationSeconds);
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.retainedRecordings = Math.max(1, retainedRecordings);
+    }
+
+    /**
+     * Starts a recording that stops by itself after the given duration.
+     *
+     * @param durationSeconds Length of the recording, or null for the configured default
+     * @param profile Name of a JFR configuration, or null for the configured default
+     * @return The started recording
+     * @throws IllegalArgumentException If the duration is out of range or the profile is unknown
+     * @throws IllegalStateException If a recording is running already
+     */
+    public synchronized RecordingInfo start(Long durationSeconds, String profile) {
+        Duration duration = durationSeconds == null ? defaultDuration : Duration.ofSeconds(durationSeconds);
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0) {
+            throw new IllegalArgumentException("Duration must be between 1 and "
+                    + maxDuration.getSeconds() + " seconds");
+        }
+        String profileName = profile == null || profile.isBlank() ? defaultProfile : profile;
+        Configuration configuration = configuration(profileName);
+        if (recordings.values().stream().anyMatch(Entry::isRunning)) {
+            throw new IllegalStateException("A recording is running already");
+        }
+        removeOldRecordings();
+
+        Recording recording = new Recording(configuration);
+        recording.setName("fx-" + profileName);
+        recording.enable(RefreshPhaseEvent.class);
+        recording.enable(CurrencyFetchEvent.class);
+        recording.enable(ConversionEvent.class);
+        recording.setToDisk(true);
+        recording.setDuration(duration);
+        try {
+            recording.setDestination(recordingDirectory().resolve("fx-" + recording.getId() + ".jfr"));
+        } catch (IOException e) {
+            recording.close();
+            throw new UncheckedIOException(e);
+        }
+        recording.start();
+        logger.info("Started flight recording {} with profile '{}' for {} seconds",
+                recording.getId(), profileName, duration.getSeconds());
+
+        Entry entry = new Entry(recording, profileName);
+        recordings.put(recording.getId(), entry);
+        return entry.info();
+    }
+
+    /**
+     * Returns the known recordings, oldest first.
+     */
+    public synchronized List<RecordingInfo> list() {
+        List<RecordingInfo> infos = new ArrayList<>();
+        for (Entry entry : recordings.values()) {
+            infos.add(entry.info());
+        }
+        return infos;
+    }
+
+    /**
+     * Returns the recording with the given id.
+     */
+    public synchronized Optional<RecordingInfo> find(long id) {
+        return Optional.ofNullable(recordings.get(id)).map(Entry::info);
+    }
+
+    /**
+     * Returns the file of the given recording once it has finished.
+     */
+    public synchronized Optional<Path> file(long id) {
+        Entry entry = recordings.get(id);
+        if (entry == null || entry.isRunning() || !Files.isRegularFile(entry.file)) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.file);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (Entry entry : recordings.values()) {
+            entry.recording.close();
+        }
+    }
+
+    private void removeOldRecordings() {
+        Iterator<Entry> iterator = recordings.values().iterator();
+        while (recordings.size() >= retainedRecordings && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            iterator.remove();
+            entry.recording.close();
+            try {
+                Files.deleteIfExists(entry.file);
+            } catch (IOException e) {
+                logger.warn("Could not delete flight recording {}", entry.file, e);
+            }
+        }
+    }
+
+    private Path recordingDirectory() throws IOException {
+        if (recordingDirectory == null) {
+            recordingDirectory = directory.isBlank()
+                    ? Files.createTempDirectory("fx-jfr")
+                    : Files.createDirectories(Paths.get(directory));
+        }
+        return recordingDirectory;
+    }
+
+    private static Configuration configuration(String profile) {
+        try {
+            return Configuration.getConfiguration(profile);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown recording profile: " + profile);
+        }
+    }
+
+    private static final class Entry {
+
+        private final Recording recording;
+        private final String profile;
+        private final Path file;
+
+        private Entry(Recording recording, String profile) {
+            this.recording = recording;
+            this.profile = profile;
+            this.file = recording.getDestination();
+        }
+
+        private boolean isRunning() {
+            RecordingState state = recording.getState();
+            return state == RecordingState.NEW || state == RecordingState.DELAYED
+                    || state == RecordingState.RUNNING;
+        }
+
+        private RecordingInfo info() {
+            return new RecordingInfo(recording.getId(), profile, isRunning(), recording.getStartTime(),
+                    recording.getDuration().getSeconds());
+        }
+    }
+
+    /**
+     * State of a recording as reported to clients.
+     */
+    public static final class RecordingInfo {
+
+        private final long id;
+        private final String profile;
+        private final boolean running;
+        private final Instant startTime;
+        private final long durationSeconds;
+
+        RecordingInfo(long id, String profile, boolean running, Instant startTime, long durationSeconds) {
+            this.id = id;
+            this.profile = profile;
+            this.running = running;
+            this.startTime = startTime;
+            this.durationSeconds = durationSeconds;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getProfile() {
+            return profile;
+        }
+
+        public boolean isRunning() {
+            return running;
+        }
+
+        public Instant getStartTime() {
+            return startTime;
+        }
+
+        public long getDurationSeconds() {
+            return durationSeconds;
+        }
+    }
+}
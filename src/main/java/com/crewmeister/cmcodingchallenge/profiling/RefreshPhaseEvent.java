@@ -0,0 +1,66 @@
+package com.crewmeister.cmcodingchallenge.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a phase of an exchange rate refresh.
+ */
+@Name("com.crewmeister.fx.RefreshPhase")
+@Label("Refresh Phase")
+@Category({"FX", "Refresh"})
+@Description("A phase of an exchange rate refresh")
+public class RefreshPhaseEvent extends Event {
+
+    /** The whole refresh. */
+    public static final String REFRESH = "refresh";
+    /** Storing the downloaded rates of a currency. */
+    public static final String STORE = "store";
+    /** Writing the downloaded rates of a currency to the staging table. */
+    public static final String STAGE = "stage";
+    /** Checking a staged load before it is published. */
+    public static final String VALIDATE = "validate";
+    /** Publishing a staged load. */
+    public static final String PUBLISH = "publish";
+
+    @Label("Phase")
+    private String phase;
+
+    @Label("Currency")
+    @Description("Currency the phase processed, if only one")
+    private String currencyCode;
+
+    @Label("Rates")
+    @Description("Rates the phase added")
+    private int rates;
+
+    /**
+     * Starts timing a phase.
+     *
+     * @param phase One of the phase constants
+     * @param currencyCode Currency the phase processes, or null for all
+     */
+    public static RefreshPhaseEvent start(String phase, String currencyCode) {
+        RefreshPhaseEvent event = new RefreshPhaseEvent();
+        event.phase = phase;
+        event.currencyCode = currencyCode;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the phase and records it, if a recording asks for it.
+     *
+     * @param rates Rates the phase added
+     */
+    public void finish(int rates) {
+        end();
+        if (shouldCommit()) {
+            this.rates = rates;
+            commit();
+        }
+    }
+}
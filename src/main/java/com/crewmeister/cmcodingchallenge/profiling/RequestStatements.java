@@ -0,0 +1,64 @@
+package com.crewmeister.cmcodingchallenge.profiling;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The SQL statements one request ran, grouped by shape.
+ *
+ * A shape is the statement with its literals and the length of {@code IN} lists
+ * replaced, so the same query with different arguments counts as one shape. A shape
+ * run many times within one request usually means entities are loaded one by one.
+ */
+public final class RequestStatements {
+
+    private static final int MAX_SHAPES = 100;
+    private static final int MAX_SHAPE_LENGTH = 300;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Map<String, Integer> countsByShape = new HashMap<>();
+    private int count;
+
+    void record(String sql) {
+        count++;
+        String shape = shape(sql);
+        if (countsByShape.size() < MAX_SHAPES || countsByShape.containsKey(shape)) {
+            countsByShape.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Returns the number of statements run.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of times each shape was run, most frequent first.
+     */
+    public List<Map.Entry<String, Integer>> getShapes() {
+        return countsByShape.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the shape of a statement.
+     */
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?, ...)");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        return shape.length() > MAX_SHAPE_LENGTH ? shape.substring(0, MAX_SHAPE_LENGTH) + "..." : shape;
+    }
+}
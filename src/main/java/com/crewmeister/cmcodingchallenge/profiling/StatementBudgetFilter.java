@@ -0,0 +1,109 @@
+package com.crewmeister.cmcodingchallenge.profiling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the SQL statements of each request and reports requests exceeding a budget
+ * or taking longer than a threshold.
+ *
+ * The number of statements per request is recorded as {@code fx.request.statements},
+ * tagged with the request's URI pattern. A request running more statements than the
+ * budget is counted in {@code fx.request.statements.over.budget}, one taking longer
+ * than the slow-request threshold in {@code fx.request.slow}. Either is logged with its
+ * most frequent statement shapes; a shape run many times is the typical sign of
+ * an N+1 query, a slow request with few statements points at a slow query.
+ */
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementBudgetFilter.class);
+
+    private static final int LOGGED_SHAPES = 5;
+
+    private final StatementCounter statementCounter;
+    private final MeterRegistry meterRegistry;
+    private final int budget;
+    private final long slowRequestMillis;
+    private final Counter overBudget;
+    private final Counter slowRequests;
+
+    /**
+     * @param budget Statements a request may run before it is reported
+     * @param slowRequestMillis Duration after which a request is reported, 0 to report every request
+     */
+    public StatementBudgetFilter(StatementCounter statementCounter, MeterRegistry meterRegistry,
+                                 int budget, long slowRequestMillis) {
+        this.statementCounter = statementCounter;
+        this.meterRegistry = meterRegistry;
+        this.budget = budget;
+        this.slowRequestMillis = slowRequestMillis;
+        this.overBudget = Counter.builder("fx.request.statements.over.budget")
+                .description("Requests running more SQL statements than the budget")
+                .register(meterRegistry);
+        this.slowRequests = Counter.builder("fx.request.slow")
+                .description("Requests taking longer than the slow-request threshold")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        RequestStatements statements = statementCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statementCounter.stop();
+            report(request, statements, System.nanoTime() - start);
+        }
+    }
+
+    private void report(HttpServletRequest request, RequestStatements statements, long elapsedNanos) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("fx.request.statements")
+                .description("SQL statements run per request")
+                .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                .register(meterRegistry)
+                .record(statements.getCount());
+
+        List<String> reasons = new ArrayList<>(2);
+        if (statements.getCount() > budget) {
+            overBudget.increment();
+            reasons.add("over the budget of " + budget + " statements");
+        }
+        if (elapsedNanos > TimeUnit.MILLISECONDS.toNanos(slowRequestMillis)) {
+            slowRequests.increment();
+            reasons.add("over the slow-request threshold of " + slowRequestMillis + " ms");
+        }
+        if (!reasons.isEmpty()) {
+            logger.warn("{} {} ran {} SQL statements in {} ms, {}; possible N+1 queries or slow queries. "
+                            + "Most frequent: {}",
+                    request.getMethod(), request.getRequestURI(), statements.getCount(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), String.join(" and ", reasons),
+                    describe(statements.getShapes()));
+        }
+    }
+
+    private static String describe(List<Map.Entry<String, Integer>> shapes) {
+        return shapes.stream()
+                .limit(LOGGED_SHAPES)
+                .map(shape -> shape.getValue() + "x [" + shape.getKey() + "]")
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,41 @@
+package com.crewmeister.cmcodingchallenge.profiling;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on behalf of the current request.
+ *
+ * Registered as Hibernate's statement inspector, it sees every statement of a
+ * repository or entity load, including lazy loads, but not statements run through
+ * {@code JdbcTemplate}. A batch counts once, as it is prepared once. Statements on
+ * threads without a started count are ignored.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private final ThreadLocal<RequestStatements> current = new ThreadLocal<>();
+
+    /**
+     * Starts counting the statements of the current thread.
+     */
+    public RequestStatements start() {
+        RequestStatements statements = new RequestStatements();
+        current.set(statements);
+        return statements;
+    }
+
+    /**
+     * Stops counting the statements of the current thread.
+     */
+    public void stop() {
+        current.remove();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        RequestStatements statements = current.get();
+        if (statements != null) {
+            statements.record(sql);
+        }
+        return sql;
+    }
+}
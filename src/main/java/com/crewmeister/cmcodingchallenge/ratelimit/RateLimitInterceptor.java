@@ -0,0 +1,73 @@
+package com.crewmeister.cmcodingchallenge.ratelimit;
+
+import com.crewmeister.cmcodingchallenge.exception.RateLimitExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Charges each API call to its client's token bucket before the handler runs.
+ * Clients are identified by their API key header if it holds one of the configured
+ * keys, otherwise by their remote address; unknown keys are ignored, so rotating
+ * them does not yield fresh allowances. Calls over the allowance are rejected with
+ * {@link RateLimitExceededException}.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitInterceptor.class);
+    private static final int DEFAULT_COST = 1;
+
+    private final RateLimiter rateLimiter;
+    private final String apiKeyHeader;
+    private final Set<String> apiKeys;
+
+    public RateLimitInterceptor(
+            RateLimiter rateLimiter,
+            @Value("${fx.rate-limit.api-key-header:X-API-Key}") String apiKeyHeader,
+            @Value("${fx.rate-limit.api-keys:}") List<String> apiKeys) {
+        this.rateLimiter = rateLimiter;
+        this.apiKeyHeader = apiKeyHeader;
+        this.apiKeys = Set.copyOf(apiKeys);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String clientId = clientId(request);
+        int cost = cost(handler);
+        long waitNanos = rateLimiter.tryAcquire(clientId, cost);
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            logger.debug("Rejecting {} {} (cost {}) for {}", request.getMethod(), request.getRequestURI(), cost, clientId);
+            throw new RateLimitExceededException(retryAfterSeconds);
+        }
+        return true;
+    }
+
+    private String clientId(HttpServletRequest request) {
+        String apiKey = request.getHeader(apiKeyHeader);
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static int cost(Object handler) {
+        if (handler instanceof HandlerMethod) {
+            RateLimitCost cost = ((HandlerMethod) handler).getMethodAnnotation(RateLimitCost.class);
+            if (cost != null) {
+                return cost.value();
+            }
+        }
+        return DEFAULT_COST;
+    }
+}
@@ -0,0 +1,128 @@
+package com.crewmeister.cmcodingchallenge.ratelimit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token bucket rate limiter.
+ *
+ * Buckets are created on a client's first request and dropped once idle for the
+ * configured expiry, by which time they would have refilled completely anyway.
+ * When as many clients as configured are tracked, idle buckets are swept, at most
+ * once per second. Tracked clients are never dropped before they are idle: were they,
+ * they would get a full bucket back. Clients arriving while the bound is still
+ * reached share one overflow bucket instead, so a flood of new identities cannot
+ * take more than one client's allowance.
+ */
+@Component
+public class RateLimiter implements MeterBinder {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long capacity;
+    private final double refillPerSecond;
+    private final int maxClients;
+    private final long idleExpiryNanos;
+    private final LongSupplier clock;
+
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final TokenBucket overflow;
+    private final AtomicLong lastSweepNanos;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public RateLimiter(
+            @Value("${fx.rate-limit.capacity:200}") long capacity,
+            @Value("${fx.rate-limit.refill-per-second:20}") double refillPerSecond,
+            @Value("${fx.rate-limit.max-clients:10000}") int maxClients,
+            @Value("${fx.rate-limit.idle-expiry-seconds:600}") long idleExpirySeconds) {
+        this(capacity, refillPerSecond, maxClients, idleExpirySeconds, System::nanoTime);
+    }
+
+    RateLimiter(long capacity, double refillPerSecond, int maxClients, long idleExpirySeconds, LongSupplier clock) {
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.maxClients = maxClients;
+        this.idleExpiryNanos = TimeUnit.SECONDS.toNanos(idleExpirySeconds);
+        this.clock = clock;
+        long now = clock.getAsLong();
+        this.overflow = new TokenBucket(capacity, refillPerSecond, now);
+        this.lastSweepNanos = new AtomicLong(now - SWEEP_INTERVAL_NANOS);
+    }
+
+    /**
+     * Charges a request to the client's bucket.
+     *
+     * @param clientId Identity of the calling client
+     * @param cost Tokens the request costs
+     * @return 0 if the request is allowed, otherwise the nanoseconds until it would be
+     */
+    public long tryAcquire(String clientId, int cost) {
+        long now = clock.getAsLong();
+        TokenBucket bucket = buckets.get(clientId);
+        if (bucket == null) {
+            bucket = newBucket(clientId, now);
+        }
+
+        long waitNanos = bucket.tryConsume(cost, now);
+        if (waitNanos == 0) {
+            allowed.increment();
+        } else {
+            rejected.increment();
+        }
+        return waitNanos;
+    }
+
+    public int getTrackedClientCount() {
+        return buckets.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("fx.rate.limit.requests", allowed, LongAdder::sum)
+                .tag("result", "allowed")
+                .description("Requests within their client's allowance")
+                .register(registry);
+        FunctionCounter.builder("fx.rate.limit.requests", rejected, LongAdder::sum)
+                .tag("result", "rejected")
+                .description("Requests rejected with 429")
+                .register(registry);
+        Gauge.builder("fx.rate.limit.clients", buckets, Map::size)
+                .description("Clients with a tracked token bucket")
+                .register(registry);
+    }
+
+    private TokenBucket newBucket(String clientId, long now) {
+        if (buckets.size() >= maxClients) {
+            sweepIdle(now);
+            if (buckets.size() >= maxClients) {
+                return overflow;
+            }
+        }
+        return buckets.computeIfAbsent(clientId, id -> new TokenBucket(capacity, refillPerSecond, now));
+    }
+
+    private void sweepIdle(long now) {
+        // One sweeper per interval; other callers carry on instead of waiting or sweeping again
+        long lastSweep = lastSweepNanos.get();
+        if (now - lastSweep < SWEEP_INTERVAL_NANOS || !lastSweepNanos.compareAndSet(lastSweep, now)) {
+            return;
+        }
+        buckets.values().removeIf(bucket -> now - bucket.getLastUsedNanos() > idleExpiryNanos);
+    }
+}
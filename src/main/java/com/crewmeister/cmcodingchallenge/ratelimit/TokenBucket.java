@@ -0,0 +1,71 @@
+package com.crewmeister.cmcodingchallenge.ratelimit;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token bucket that refills continuously at a fixed rate up to its capacity.
+ *
+ * The bucket state is an immutable value swapped with compare-and-set, so
+ * concurrent requests of the same client never block each other.
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    public TokenBucket(long capacity, double refillPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / NANOS_PER_SECOND;
+        this.state = new AtomicReference<>(new State(capacity, nowNanos));
+    }
+
+    /**
+     * Takes the given number of tokens if the bucket holds enough of them.
+     *
+     * @param cost Tokens to take; costs above the capacity are capped at the capacity
+     * @param nowNanos Current {@link System#nanoTime()}
+     * @return 0 if the tokens were taken, otherwise the nanoseconds until enough tokens are available
+     */
+    public long tryConsume(long cost, long nowNanos) {
+        double required = Math.min(cost, capacity);
+        while (true) {
+            State current = state.get();
+            double available = current.tokensAt(nowNanos, capacity, tokensPerNano);
+            if (available < required) {
+                return (long) Math.ceil((required - available) / tokensPerNano);
+            }
+            if (state.compareAndSet(current, new State(available - required, Math.max(nowNanos, current.timestamp)))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns when the bucket was last drawn from, in {@link System#nanoTime()} terms.
+     */
+    public long getLastUsedNanos() {
+        return state.get().timestamp;
+    }
+
+    /**
+     * Tokens held at a point in time; refilled lazily when the bucket is next used.
+     */
+    private static final class State {
+
+        private final double tokens;
+        private final long timestamp;
+
+        private State(double tokens, long timestamp) {
+            this.tokens = tokens;
+            this.timestamp = timestamp;
+        }
+
+        private double tokensAt(long nowNanos, double capacity, double tokensPerNano) {
+            long elapsed = Math.max(0, nowNanos - timestamp);
+            return Math.min(capacity, tokens + elapsed * tokensPerNano);
+        }
+    }
+}
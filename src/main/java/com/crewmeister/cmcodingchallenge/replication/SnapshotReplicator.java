@@ -0,0 +1,241 @@
+package com.crewmeister.cmcodingchallenge.replication;
+
+import com.crewmeister.cmcodingchallenge.cache.DataVersionTracker;
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateBinaryReader;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateMediaTypes;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the exchange rate data set either from Bundesbank or from a peer instance.
+ *
+ * Instances are listed in {@code fx.replication.peers} in the same order on every
+ * instance; the first listed instance is the elected leader and is the only one that
+ * fetches from Bundesbank. Every other instance pulls the binary snapshot of the
+ * instances listed before it, in order, and applies it in a single transaction.
+ * If no earlier instance can provide a snapshot, the instance fetches from Bundesbank
+ * itself. Empty snapshots count as failures, so an instance that could not fetch
+ * anything is never replicated. Without configured peers, replication is disabled and every instance
+ * fetches directly.
+ *
+ * Snapshots are only served when replication is enabled, and only to the hosts of
+ * the configured peers.
+ */
+@Component
+public class SnapshotReplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotReplicator.class);
+
+    public static final String SNAPSHOT_PATH = "/internal/replication/snapshot";
+    public static final String DATA_VERSION_HEADER = DataVersionTracker.VERSION_HEADER;
+
+    private final ExchangeRateService exchangeRateService;
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final RestTemplate restTemplate;
+    private final List<String> peers;
+    private final String selfUrl;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+
+    private volatile boolean snapshotAvailable;
+
+    public SnapshotReplicator(
+            ExchangeRateService exchangeRateService,
+            ExchangeRateRepository exchangeRateRepository,
+            RestTemplate restTemplate,
+            @Value("${fx.replication.peers:}") String[] peers,
+            @Value("${fx.replication.self-url:http://localhost:${server.port:8080}}") String selfUrl,
+            @Value("${fx.replication.max-attempts:20}") int maxAttempts,
+            @Value("${fx.replication.retry-delay-ms:3000}") long retryDelayMs) {
+        this.exchangeRateService = exchangeRateService;
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.restTemplate = restTemplate;
+        this.peers = Arrays.stream(peers)
+                .map(String::trim)
+                .filter(peer -> !peer.isEmpty())
+                .map(SnapshotReplicator::normalize)
+                .collect(Collectors.toList());
+        this.selfUrl = normalize(selfUrl);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelayMs = retryDelayMs;
+    }
+
+    /**
+     * Loads the data set from the first upstream peer that provides a snapshot,
+     * falling back to a direct Bundesbank refresh.
+     */
+    public void synchronize() {
+        List<String> upstreamPeers = upstreamPeers();
+        if (upstreamPeers.isEmpty()) {
+            logger.info("No upstream peer configured, refreshing from Bundesbank");
+        }
+
+        for (String peer : upstreamPeers) {
+            if (pullSnapshot(peer)) {
+                snapshotAvailable = true;
+                return;
+            }
+        }
+
+        if (!upstreamPeers.isEmpty()) {
+            logger.warn("No peer provided a snapshot, falling back to Bundesbank");
+        }
+        exchangeRateService.refreshExchangeRates();
+        snapshotAvailable = true;
+    }
+
+    /**
+     * Whether this instance has loaded its data set and may serve snapshots to peers.
+     * Stays false while no rates are stored, e.g. after Bundesbank could not be reached,
+     * so peers fall back instead of replicating an empty data set.
+     */
+    public boolean isSnapshotAvailable() {
+        return snapshotAvailable && exchangeRateRepository.count() > 0;
+    }
+
+    /**
+     * Whether peers are configured, i.e. this instance takes part in replication.
+     */
+    public boolean isEnabled() {
+        return !peers.isEmpty();
+    }
+
+    /**
+     * Whether the given remote address belongs to the host of a configured peer.
+     * Peer host names are resolved on each call, so address changes are picked up
+     * once the JVM's DNS cache expires.
+     *
+     * @param remoteAddress IP address of the client
+     */
+    public boolean isPeerAddress(String remoteAddress) {
+        InetAddress client;
+        try {
+            client = InetAddress.getByName(remoteAddress);
+        } catch (UnknownHostException e) {
+            return false;
+        }
+        for (String peer : peers) {
+            String host = URI.create(peer).getHost();
+            if (host == null) {
+                continue;
+            }
+            try {
+                if (Arrays.asList(InetAddress.getAllByName(host)).contains(client)) {
+                    return true;
+                }
+            } catch (UnknownHostException e) {
+                logger.debug("Cannot resolve peer host {}: {}", host, e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Peers to pull from, in order: those listed before this instance,
+     * or all peers if this instance is not listed.
+     */
+    List<String> upstreamPeers() {
+        int self = peers.indexOf(selfUrl);
+        return self < 0 ? peers : peers.subList(0, self);
+    }
+
+    private boolean pullSnapshot(String peer) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                Snapshot snapshot = restTemplate.execute(peer + SNAPSHOT_PATH, HttpMethod.GET,
+                        request -> request.getHeaders().setAccept(List.of(MediaType.parseMediaType(ExchangeRateMediaTypes.BINARY))),
+                        SnapshotReplicator::readSnapshot);
+                if (snapshot.rows.isEmpty()) {
+                    logger.warn("Peer {} served an empty snapshot", peer);
+                    return false;
+                }
+                int ratesAdded = exchangeRateService.importExchangeRates(snapshot.currencies, snapshot.rows);
+                logger.info("Applied snapshot version {} from {} ({} rates, {} new)",
+                        snapshot.version, peer, snapshot.rows.size(), ratesAdded);
+                return true;
+
+            } catch (HttpStatusCodeException e) {
+                if (e.getStatusCode() != HttpStatus.SERVICE_UNAVAILABLE) {
+                    logger.warn("Peer {} rejected snapshot request: {}", peer, e.getStatusCode());
+                    return false;
+                }
+                // The peer is up but still loading its own data set
+                logger.info("Peer {} has no snapshot yet (attempt {}/{})", peer, attempt, maxAttempts);
+                if (attempt < maxAttempts && !sleep()) {
+                    return false;
+                }
+            } catch (RestClientException e) {
+                logger.warn("Peer {} is unreachable: {}", peer, e.getMessage());
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private boolean sleep() {
+        try {
+            Thread.sleep(retryDelayMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Reads the whole snapshot before anything is stored, so a truncated
+     * transfer never leaves a partially applied data set behind.
+     */
+    private static Snapshot readSnapshot(ClientHttpResponse response) throws IOException {
+        String version = response.getHeaders().getFirst(DATA_VERSION_HEADER);
+        ExchangeRateBinaryReader reader = new ExchangeRateBinaryReader(response.getBody());
+        List<CurrencyDto> currencies = reader.readCurrencies();
+        List<ExchangeRateRow> rows = new ArrayList<>();
+        for (ExchangeRateRow row = reader.read(); row != null; row = reader.read()) {
+            rows.add(row);
+        }
+        return new Snapshot(version, currencies, rows);
+    }
+
+    private static String normalize(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /**
+     * A fully read snapshot together with the data version of the peer that produced it.
+     */
+    private static final class Snapshot {
+
+        private final String version;
+        private final List<CurrencyDto> currencies;
+        private final List<ExchangeRateRow> rows;
+
+        private Snapshot(String version, List<CurrencyDto> currencies, List<ExchangeRateRow> rows) {
+            this.version = version;
+            this.currencies = currencies;
+            this.rows = rows;
+        }
+    }
+}
@@ -2,14 +2,22 @@ package com.crewmeister.cmcodingchallenge.repository;
 
 import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
 import com.crewmeister.cmcodingchallenge.domain.entity.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 /**
  * Repository for ExchangeRate entity operations.
@@ -46,11 +54,54 @@ public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long
     @Query("SELECT e FROM ExchangeRate e ORDER BY e.rateDate DESC, e.currency.currencyCode ASC")
     List<ExchangeRate> findAllOrderByDateDesc();
 
+    /**
+     * Stream all exchange rate rows ordered by date descending.
+     * Must be consumed within a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow("
+            + "e.currency.currencyCode, e.rateDate, e.rate) "
+            + "FROM ExchangeRate e ORDER BY e.rateDate DESC, e.currency.currencyCode ASC")
+    Stream<ExchangeRateRow> streamAllOrderByDateDesc();
+
+    /**
+     * Stream the exchange rate rows of a specific date ordered by currency code.
+     * Must be consumed within a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow("
+            + "e.currency.currencyCode, e.rateDate, e.rate) "
+            + "FROM ExchangeRate e WHERE e.rateDate = :date ORDER BY e.currency.currencyCode ASC")
+    Stream<ExchangeRateRow> streamByRateDate(@Param("date") LocalDate date);
+
+    /**
+     * Stream all exchange rate rows grouped by currency, each in ascending date order,
+     * including their inverse rates.
+     * Must be consumed within a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow("
+            + "e.currency.currencyCode, e.rateDate, e.rate, e.inverseRate) "
+            + "FROM ExchangeRate e ORDER BY e.currency.currencyCode ASC, e.rateDate ASC")
+    Stream<ExchangeRateRow> streamAllOrderByCurrencyAndDate();
+
     /**
      * Check if an exchange rate exists for a currency and date.
      */
     boolean existsByCurrencyAndRateDate(Currency currency, LocalDate rateDate);
 
+    /**
+     * Find the oldest date a currency has a rate for.
+     */
+    @Query("SELECT MIN(e.rateDate) FROM ExchangeRate e WHERE e.currency.currencyCode = :currencyCode")
+    Optional<LocalDate> findOldestRateDate(@Param("currencyCode") String currencyCode);
+
+    /**
+     * Find the dates a currency already has rates for.
+     */
+    @Query("SELECT e.rateDate FROM ExchangeRate e WHERE e.currency = :currency")
+    Set<LocalDate> findRateDatesByCurrency(@Param("currency") Currency currency);
+
     /**
      * Find the most recent exchange rate for a currency.
      */
@@ -0,0 +1,37 @@
+package com.crewmeister.cmcodingchallenge.repository;
+
+import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
+import com.crewmeister.cmcodingchallenge.domain.entity.ExchangeRateRollup;
+import com.crewmeister.cmcodingchallenge.domain.entity.RollupPeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for ExchangeRateRollup entity operations.
+ */
+@Repository
+public interface ExchangeRateRollupRepository extends JpaRepository<ExchangeRateRollup, Long> {
+
+    /**
+     * Find the rollup of a currency for a specific period.
+     */
+    Optional<ExchangeRateRollup> findByCurrencyAndPeriodAndPeriodStart(
+            Currency currency, RollupPeriod period, LocalDate periodStart);
+
+    /**
+     * Find the rollups of a currency whose period starts within a range, oldest first.
+     */
+    @Query("SELECT r FROM ExchangeRateRollup r WHERE r.currency.currencyCode = :currencyCode "
+            + "AND r.period = :period AND r.periodStart BETWEEN :from AND :to ORDER BY r.periodStart ASC")
+    List<ExchangeRateRollup> findByCurrencyCodeAndPeriodBetween(
+            @Param("currencyCode") String currencyCode,
+            @Param("period") RollupPeriod period,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+}
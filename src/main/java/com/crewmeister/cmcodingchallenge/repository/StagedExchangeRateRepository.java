@@ -0,0 +1,57 @@
+package com.crewmeister.cmcodingchallenge.repository;
+
+import com.crewmeister.cmcodingchallenge.domain.entity.StagedExchangeRate;
+import com.crewmeister.cmcodingchallenge.domain.projection.CurrencyRowCount;
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for the staging table of staged refreshes.
+ * Rows are inserted in bulk by {@code StagedRefresher}, not through this repository.
+ */
+@Repository
+public interface StagedExchangeRateRepository extends JpaRepository<StagedExchangeRate, Long> {
+
+    /**
+     * Count the staged rows of a load per currency.
+     */
+    @Query("SELECT s.currencyCode AS currencyCode, COUNT(s) AS rowCount FROM StagedExchangeRate s "
+            + "WHERE s.loadId = :loadId GROUP BY s.currencyCode")
+    List<CurrencyRowCount> countByCurrency(@Param("loadId") String loadId);
+
+    /**
+     * Find the staged rows of a load that are not published yet, grouped by currency in ascending date order.
+     */
+    @Query("SELECT new com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow("
+            + "s.currencyCode, s.rateDate, s.rate) FROM StagedExchangeRate s WHERE s.loadId = :loadId "
+            + "AND NOT EXISTS (SELECT e.id FROM ExchangeRate e "
+            + "WHERE e.currency.currencyCode = s.currencyCode AND e.rateDate = s.rateDate) "
+            + "ORDER BY s.currencyCode ASC, s.rateDate ASC")
+    List<ExchangeRateRow> findUnpublished(@Param("loadId") String loadId);
+
+    /**
+     * Merge the unpublished rows of a load into the exchange rates in one statement.
+     *
+     * @return Number of rows published
+     */
+    @Modifying
+    @Query(value = "INSERT INTO exchange_rates (currency_code, rate_date, rate, inverse_rate) "
+            + "SELECT s.currency_code, s.rate_date, s.rate, s.inverse_rate FROM exchange_rate_staging s "
+            + "WHERE s.load_id = :loadId AND NOT EXISTS (SELECT 1 FROM exchange_rates e "
+            + "WHERE e.currency_code = s.currency_code AND e.rate_date = s.rate_date)",
+            nativeQuery = true)
+    int publish(@Param("loadId") String loadId);
+
+    /**
+     * Delete the staged rows of a load.
+     */
+    @Modifying
+    @Query("DELETE FROM StagedExchangeRate s WHERE s.loadId = :loadId")
+    int deleteByLoad(@Param("loadId") String loadId);
+}
@@ -1,7 +1,9 @@
 package com.crewmeister.cmcodingchallenge.service;
 
+import com.crewmeister.cmcodingchallenge.dto.AvailabilityDto;
 import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -23,6 +25,15 @@ public interface CurrencyService {
      * @return true if the currency is supported
      */
     boolean isCurrencySupported(String currencyCode);
-}
-
 
+    /**
+     * Lists the days a currency has exchange rates for, without querying the rates.
+     * 
+     * @param currencyCode ISO currency code
+     * @param from First day of the range, defaults to the earliest rate
+     * @param to Last day of the range, defaults to the latest rate
+     * @param encoding Name of an {@link AvailabilityDto.Encoding}, ignoring case
+     * @return Days with a rate in the requested encoding
+     */
+    AvailabilityDto getAvailability(String currencyCode, LocalDate from, LocalDate to, String encoding);
+}
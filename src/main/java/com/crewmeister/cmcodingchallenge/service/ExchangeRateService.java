@@ -1,8 +1,16 @@
 package com.crewmeister.cmcodingchallenge.service;
 
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
 import com.crewmeister.cmcodingchallenge.dto.ConversionResultDto;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+import com.crewmeister.cmcodingchallenge.dto.DataChangesDto;
 import com.crewmeister.cmcodingchallenge.dto.ExchangeRateDto;
+import com.crewmeister.cmcodingchallenge.dto.InverseRateDto;
+import com.crewmeister.cmcodingchallenge.dto.RateMatrixDto;
+import com.crewmeister.cmcodingchallenge.dto.RateStatisticsDto;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateRowWriter;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -27,6 +35,14 @@ public interface ExchangeRateService {
      */
     List<ExchangeRateDto> getExchangeRatesByDate(LocalDate date);
 
+    /**
+     * Streams exchange rates to a bulk format writer without materializing them.
+     * 
+     * @param date Restricts the export to a single date, or null for all dates
+     * @param writer Receives all currencies and then every rate, most recent date first
+     */
+    void exportExchangeRates(LocalDate date, ExchangeRateRowWriter writer) throws IOException;
+
     /**
      * Retrieves the exchange rate for a specific currency on a specific date.
      * 
@@ -36,6 +52,21 @@ public interface ExchangeRateService {
      */
     ExchangeRateDto getExchangeRate(String currencyCode, LocalDate date);
 
+    /**
+     * Retrieves the most recent exchange rate of every currency.
+     * 
+     * @return Latest rate per currency, ordered by currency code
+     */
+    List<ExchangeRateDto> getLatestExchangeRates();
+
+    /**
+     * Retrieves the most recent exchange rate of a currency.
+     * 
+     * @param currencyCode ISO currency code
+     * @return Exchange rate of the last date the currency has a rate for
+     */
+    ExchangeRateDto getLatestExchangeRate(String currencyCode);
+
     /**
      * Converts an amount from a foreign currency to EUR.
      * 
@@ -46,11 +77,80 @@ public interface ExchangeRateService {
      */
     ConversionResultDto convertToEur(String currencyCode, BigDecimal amount, LocalDate date);
 
+    /**
+     * Converts an amount from EUR to a foreign currency.
+     * 
+     * @param currencyCode Target currency code
+     * @param amount Amount in EUR to convert
+     * @param date Date for the exchange rate to use
+     * @return Conversion result with details
+     */
+    ConversionResultDto convertFromEur(String currencyCode, BigDecimal amount, LocalDate date);
+
+    /**
+     * Retrieves the inverse exchange rate (EUR per unit of foreign currency)
+     * for a specific currency on a specific date.
+     * 
+     * @param currencyCode ISO currency code
+     * @param date The date to get the rate for
+     * @return Inverse exchange rate information
+     */
+    InverseRateDto getInverseExchangeRate(String currencyCode, LocalDate date);
+
+    /**
+     * Computes statistics of a currency's exchange rates over a date range
+     * from the in-memory rate snapshot, without querying individual rates.
+     * 
+     * @param currencyCode ISO currency code
+     * @param from First date of the range (inclusive), or null for the earliest rate
+     * @param to Last date of the range (inclusive), or null for the latest rate
+     * @return Count, extremes, mean, standard deviation, first and last rate of the range
+     */
+    RateStatisticsDto getRateStatistics(String currencyCode, LocalDate from, LocalDate to);
+
+    /**
+     * Retrieves the rates of several currencies on several dates as a grid.
+     * 
+     * @param currencyCodes ISO currency codes, in the column order of the grid
+     * @param dates Dates, in the row order of the grid
+     * @return Grid of rates, with null where a currency has no rate on a date
+     */
+    RateMatrixDto getRateMatrix(List<String> currencyCodes, List<LocalDate> dates);
+
+    /**
+     * Retrieves the exchange rates added after a data version.
+     * 
+     * @param sinceVersion Data version the caller's copy of the rates corresponds to
+     * @return Rates added since that version, together with the current version
+     */
+    DataChangesDto getChangesSince(long sinceVersion);
+
     /**
      * Refreshes exchange rate data from the external API.
      * Called during startup and can be triggered manually.
      */
     void refreshExchangeRates();
+
+    /**
+     * Stores the rates of a snapshot taken from another instance in a single transaction.
+     * Missing currencies are created; rates that already exist are left unchanged.
+     * 
+     * @param currencies All currencies the rows refer to
+     * @param rows Exchange rates of the snapshot
+     * @return Number of rates added
+     */
+    int importExchangeRates(List<CurrencyDto> currencies, List<ExchangeRateRow> rows);
+
+    /**
+     * Fetches and stores the rates of a currency within a date range that is older
+     * than the regularly loaded window.
+     * 
+     * @param currencyCode ISO currency code
+     * @param startPeriod First date of the range (inclusive)
+     * @param endPeriod Last date of the range (inclusive)
+     * @return Number of rates added
+     */
+    int backfillExchangeRates(String currencyCode, LocalDate startPeriod, LocalDate endPeriod);
 }
 
 
@@ -0,0 +1,36 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
+import com.crewmeister.cmcodingchallenge.domain.entity.RollupPeriod;
+import com.crewmeister.cmcodingchallenge.dto.RateRollupDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service interface for monthly and yearly exchange rate aggregates.
+ */
+public interface RollupService {
+
+    /**
+     * Retrieves the aggregates of a currency for periods starting within a date range.
+     * 
+     * @param currencyCode ISO currency code
+     * @param period Aggregation period
+     * @param from Date within the first period to include, or null for the earliest
+     * @param to Date within the last period to include, or null for the latest
+     * @return Aggregates ordered by period, oldest first
+     */
+    List<RateRollupDto> getRollups(String currencyCode, RollupPeriod period, LocalDate from, LocalDate to);
+
+    /**
+     * Adds newly stored daily rates to the monthly and yearly aggregates of their currency.
+     * Must be called within the transaction storing the rates, once per new rate.
+     * 
+     * @param currency Currency the rates belong to
+     * @param rates Newly stored rates by date
+     */
+    void recordRates(Currency currency, Map<LocalDate, BigDecimal> rates);
+}
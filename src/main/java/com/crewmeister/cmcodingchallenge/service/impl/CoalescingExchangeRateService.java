@@ -0,0 +1,130 @@
+package com.crewmeister.cmcodingchallenge.service.impl;
+
+import com.crewmeister.cmcodingchallenge.cache.SingleFlight;
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.ConversionResultDto;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+import com.crewmeister.cmcodingchallenge.dto.DataChangesDto;
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRateDto;
+import com.crewmeister.cmcodingchallenge.dto.InverseRateDto;
+import com.crewmeister.cmcodingchallenge.dto.RateMatrixDto;
+import com.crewmeister.cmcodingchallenge.dto.RateStatisticsDto;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateRowWriter;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ExchangeRateService in front of {@link LoadingExchangeRateService} that coalesces
+ * concurrent identical lookups, so a burst of requests for the same date or rate
+ * runs the underlying query, and any backfill it triggers, once. Callers of a
+ * coalesced lookup share the returned DTOs and must not modify them. All other
+ * operations are delegated unchanged.
+ */
+@Service
+@Primary
+public class CoalescingExchangeRateService implements ExchangeRateService {
+
+    private final LoadingExchangeRateService delegate;
+    private final SingleFlight singleFlight;
+
+    public CoalescingExchangeRateService(LoadingExchangeRateService delegate,
+                                         SingleFlight singleFlight) {
+        this.delegate = delegate;
+        this.singleFlight = singleFlight;
+    }
+
+    @Override
+    public List<ExchangeRateDto> getAllExchangeRates() {
+        return singleFlight.execute(key("all"), delegate::getAllExchangeRates);
+    }
+
+    @Override
+    public List<ExchangeRateDto> getExchangeRatesByDate(LocalDate date) {
+        return singleFlight.execute(key("date", date), () -> delegate.getExchangeRatesByDate(date));
+    }
+
+    @Override
+    public void exportExchangeRates(LocalDate date, ExchangeRateRowWriter writer) throws IOException {
+        delegate.exportExchangeRates(date, writer);
+    }
+
+    @Override
+    public ExchangeRateDto getExchangeRate(String currencyCode, LocalDate date) {
+        return singleFlight.execute(key("rate", normalize(currencyCode), date),
+                () -> delegate.getExchangeRate(currencyCode, date));
+    }
+
+    @Override
+    public List<ExchangeRateDto> getLatestExchangeRates() {
+        // Served from the precomputed latest rates, nothing to coalesce
+        return delegate.getLatestExchangeRates();
+    }
+
+    @Override
+    public ExchangeRateDto getLatestExchangeRate(String currencyCode) {
+        return delegate.getLatestExchangeRate(currencyCode);
+    }
+
+    @Override
+    public ConversionResultDto convertToEur(String currencyCode, BigDecimal amount, LocalDate date) {
+        return delegate.convertToEur(currencyCode, amount, date);
+    }
+
+    @Override
+    public ConversionResultDto convertFromEur(String currencyCode, BigDecimal amount, LocalDate date) {
+        return delegate.convertFromEur(currencyCode, amount, date);
+    }
+
+    @Override
+    public InverseRateDto getInverseExchangeRate(String currencyCode, LocalDate date) {
+        return singleFlight.execute(key("inverse", normalize(currencyCode), date),
+                () -> delegate.getInverseExchangeRate(currencyCode, date));
+    }
+
+    @Override
+    public RateStatisticsDto getRateStatistics(String currencyCode, LocalDate from, LocalDate to) {
+        // Served from the in-memory rate store, nothing to coalesce
+        return delegate.getRateStatistics(currencyCode, from, to);
+    }
+
+    @Override
+    public RateMatrixDto getRateMatrix(List<String> currencyCodes, List<LocalDate> dates) {
+        return delegate.getRateMatrix(currencyCodes, dates);
+    }
+
+    @Override
+    public DataChangesDto getChangesSince(long sinceVersion) {
+        return delegate.getChangesSince(sinceVersion);
+    }
+
+    @Override
+    public void refreshExchangeRates() {
+        delegate.refreshExchangeRates();
+    }
+
+    @Override
+    public int importExchangeRates(List<CurrencyDto> currencies, List<ExchangeRateRow> rows) {
+        return delegate.importExchangeRates(currencies, rows);
+    }
+
+    @Override
+    public int backfillExchangeRates(String currencyCode, LocalDate startPeriod, LocalDate endPeriod) {
+        return delegate.backfillExchangeRates(currencyCode, startPeriod, endPeriod);
+    }
+
+    private static List<Object> key(Object... parts) {
+        // Arrays.asList tolerates null arguments, which the delegate rejects with its usual error
+        return Arrays.asList(parts);
+    }
+
+    private static String normalize(String currencyCode) {
+        return currencyCode == null ? null : currencyCode.toUpperCase();
+    }
+}
@@ -2,14 +2,23 @@ package com.crewmeister.cmcodingchallenge.service.impl;
 
 import com.crewmeister.cmcodingchallenge.client.BundesbankApiClient;
 import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
+import com.crewmeister.cmcodingchallenge.dto.AvailabilityDto;
 import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+import com.crewmeister.cmcodingchallenge.exception.CurrencyNotFoundException;
 import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
 import com.crewmeister.cmcodingchallenge.service.CurrencyService;
+import com.crewmeister.cmcodingchallenge.store.RateSeries;
+import com.crewmeister.cmcodingchallenge.store.RateStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,11 +34,14 @@ public class CurrencyServiceImpl implements CurrencyService {
 
     private final CurrencyRepository currencyRepository;
     private final BundesbankApiClient bundesbankApiClient;
+    private final RateStore rateStore;
 
     public CurrencyServiceImpl(CurrencyRepository currencyRepository, 
-                                BundesbankApiClient bundesbankApiClient) {
+                                BundesbankApiClient bundesbankApiClient,
+                                RateStore rateStore) {
         this.currencyRepository = currencyRepository;
         this.bundesbankApiClient = bundesbankApiClient;
+        this.rateStore = rateStore;
     }
 
     @Override
@@ -51,6 +63,56 @@ public class CurrencyServiceImpl implements CurrencyService {
         return currencyRepository.existsByCurrencyCode(currencyCode.toUpperCase());
     }
 
+    @Override
+    // Answered from the presence bitsets of the rate store; only an unknown currency needs a query
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public AvailabilityDto getAvailability(String currencyCode, LocalDate from, LocalDate to, String encoding) {
+        logger.debug("Listing availability of {} from {} to {} as {}", currencyCode, from, to, encoding);
+        
+        if (currencyCode == null || currencyCode.trim().isEmpty()) {
+            throw new IllegalArgumentException("Currency code cannot be null or empty");
+        }
+        AvailabilityDto.Encoding format = AvailabilityDto.Encoding.parse(encoding);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        
+        String normalizedCode = currencyCode.toUpperCase();
+        RateSeries series = rateStore.current().getSeries(normalizedCode);
+        if (series == null && !currencyRepository.existsByCurrencyCode(normalizedCode)) {
+            throw new CurrencyNotFoundException(normalizedCode);
+        }
+        
+        LocalDate start = from != null ? from : series != null ? series.getFirstDate() : null;
+        LocalDate end = to != null ? to : series != null ? series.getLastDate() : null;
+        BitSet days = series == null || start == null || end == null || start.isAfter(end)
+                ? new BitSet() : series.presence(start, end);
+        
+        AvailabilityDto availability = new AvailabilityDto(normalizedCode, start, end, format, days.cardinality());
+        switch (format) {
+            case DATES:
+                List<LocalDate> dates = new ArrayList<>(days.cardinality());
+                for (int day = days.nextSetBit(0); day >= 0; day = days.nextSetBit(day + 1)) {
+                    dates.add(start.plusDays(day));
+                }
+                availability.setDates(dates);
+                break;
+            case RUNS:
+                List<AvailabilityDto.DateRun> runs = new ArrayList<>();
+                for (int day = days.nextSetBit(0); day >= 0; ) {
+                    int after = days.nextClearBit(day);
+                    runs.add(new AvailabilityDto.DateRun(start.plusDays(day), start.plusDays(after - 1)));
+                    day = days.nextSetBit(after);
+                }
+                availability.setRuns(runs);
+                break;
+            case BITMAP:
+                availability.setBitmap(Base64.getEncoder().encodeToString(days.toByteArray()));
+                break;
+        }
+        return availability;
+    }
+
     /**
      * Initializes the currency data from the Bundesbank API client.
      * This is called during application startup.
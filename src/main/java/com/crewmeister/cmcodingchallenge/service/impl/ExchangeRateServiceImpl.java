@@ -1,26 +1,54 @@
 package com.crewmeister.cmcodingchallenge.service.impl;
 
+import com.crewmeister.cmcodingchallenge.cache.DataChanges;
+import com.crewmeister.cmcodingchallenge.cache.DataVersionTracker;
+import com.crewmeister.cmcodingchallenge.cache.NegativeResultCache;
 import com.crewmeister.cmcodingchallenge.client.BundesbankApiClient;
+import com.crewmeister.cmcodingchallenge.client.SeriesFetchResult;
 import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
 import com.crewmeister.cmcodingchallenge.domain.entity.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
 import com.crewmeister.cmcodingchallenge.dto.ConversionResultDto;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+import com.crewmeister.cmcodingchallenge.dto.DataChangesDto;
 import com.crewmeister.cmcodingchallenge.dto.ExchangeRateDto;
+import com.crewmeister.cmcodingchallenge.dto.InverseRateDto;
+import com.crewmeister.cmcodingchallenge.dto.RateMatrixDto;
+import com.crewmeister.cmcodingchallenge.dto.RateStatisticsDto;
+import com.crewmeister.cmcodingchallenge.event.ExchangeRatesRefreshedEvent;
 import com.crewmeister.cmcodingchallenge.exception.CurrencyNotFoundException;
 import com.crewmeister.cmcodingchallenge.exception.ExchangeRateNotFoundException;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateRowWriter;
+import com.crewmeister.cmcodingchallenge.profiling.ConversionEvent;
+import com.crewmeister.cmcodingchallenge.profiling.RefreshPhaseEvent;
 import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
 import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
 import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import com.crewmeister.cmcodingchallenge.service.RollupService;
+import com.crewmeister.cmcodingchallenge.store.RateSeries;
+import com.crewmeister.cmcodingchallenge.store.RateSnapshot;
+import com.crewmeister.cmcodingchallenge.store.RateStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of ExchangeRateService.
@@ -33,17 +61,39 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
 
     private static final Logger logger = LoggerFactory.getLogger(ExchangeRateServiceImpl.class);
     private static final int CONVERSION_SCALE = 4;
+    private static final int STATISTICS_SCALE = 6;
+    private static final String EUR = "EUR";
+    private static final int MAX_MATRIX_CURRENCIES = 50;
+    private static final int MAX_MATRIX_DATES = 366;
 
     private final ExchangeRateRepository exchangeRateRepository;
     private final CurrencyRepository currencyRepository;
     private final BundesbankApiClient bundesbankApiClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RateStore rateStore;
+    private final RollupService rollupService;
+    private final DataVersionTracker dataVersionTracker;
+    private final RefreshMetrics refreshMetrics;
+    private final NegativeResultCache negativeResultCache;
 
     public ExchangeRateServiceImpl(ExchangeRateRepository exchangeRateRepository,
                                     CurrencyRepository currencyRepository,
-                                    BundesbankApiClient bundesbankApiClient) {
+                                    BundesbankApiClient bundesbankApiClient,
+                                    ApplicationEventPublisher eventPublisher,
+                                    RateStore rateStore,
+                                    RollupService rollupService,
+                                    DataVersionTracker dataVersionTracker,
+                                    RefreshMetrics refreshMetrics,
+                                    NegativeResultCache negativeResultCache) {
         this.exchangeRateRepository = exchangeRateRepository;
         this.currencyRepository = currencyRepository;
         this.bundesbankApiClient = bundesbankApiClient;
+        this.eventPublisher = eventPublisher;
+        this.rateStore = rateStore;
+        this.rollupService = rollupService;
+        this.dataVersionTracker = dataVersionTracker;
+        this.refreshMetrics = refreshMetrics;
+        this.negativeResultCache = negativeResultCache;
     }
 
     @Override
@@ -76,6 +126,31 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public void exportExchangeRates(LocalDate date, ExchangeRateRowWriter writer) throws IOException {
+        logger.debug("Exporting exchange rates for {}", date != null ? date : "all dates");
+        
+        if (date != null) {
+            validateDate(date);
+        }
+        
+        List<CurrencyDto> currencies = currencyRepository.findAll().stream()
+                .map(currency -> new CurrencyDto(currency.getCurrencyCode(), currency.getCurrencyName()))
+                .collect(Collectors.toList());
+        writer.begin(currencies);
+        
+        try (Stream<ExchangeRateRow> rows = date != null
+                ? exchangeRateRepository.streamByRateDate(date)
+                : exchangeRateRepository.streamAllOrderByDateDesc()) {
+            Iterator<ExchangeRateRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+            }
+        }
+        
+        writer.finish();
+    }
+
     @Override
     public ExchangeRateDto getExchangeRate(String currencyCode, LocalDate date) {
         logger.debug("Fetching exchange rate for {} on {}", currencyCode, date);
@@ -83,67 +158,238 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
         validateCurrencyCode(currencyCode);
         validateDate(date);
         
+        return toDto(findRate(currencyCode.toUpperCase(), date));
+    }
+
+    @Override
+    public List<ExchangeRateDto> getLatestExchangeRates() {
+        logger.debug("Fetching latest exchange rates");
+        
+        RateSnapshot snapshot = rateStore.current();
+        if (!snapshot.getAllSeries().isEmpty()) {
+            return snapshot.getLatestRates();
+        }
+        
+        // The rate store is not loaded yet
+        return currencyRepository.findAll().stream()
+                .sorted(Comparator.comparing(Currency::getCurrencyCode))
+                .map(exchangeRateRepository::findFirstByCurrencyOrderByRateDateDesc)
+                .flatMap(Optional::stream)
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public ExchangeRateDto getLatestExchangeRate(String currencyCode) {
+        logger.debug("Fetching latest exchange rate for {}", currencyCode);
+        
+        if (currencyCode == null || currencyCode.trim().isEmpty()) {
+            throw new IllegalArgumentException("Currency code cannot be null or empty");
+        }
+        
         String normalizedCode = currencyCode.toUpperCase();
+        ExchangeRateDto latest = rateStore.current().getLatestRate(normalizedCode);
+        if (latest != null) {
+            return latest;
+        }
+        
+        Currency currency = currencyRepository.findByCurrencyCodeIgnoreCase(normalizedCode)
+                .orElseThrow(() -> new CurrencyNotFoundException(normalizedCode));
+        return exchangeRateRepository.findFirstByCurrencyOrderByRateDateDesc(currency)
+                .map(this::toDto)
+                .orElseThrow(() -> new ExchangeRateNotFoundException(normalizedCode));
+    }
+
+    @Override
+    public InverseRateDto getInverseExchangeRate(String currencyCode, LocalDate date) {
+        logger.debug("Fetching inverse exchange rate for {} on {}", currencyCode, date);
+        
+        validateCurrencyCode(currencyCode);
+        validateDate(date);
         
-        ExchangeRate rate = exchangeRateRepository.findByCurrencyCodeAndDate(normalizedCode, date)
-                .orElseThrow(() -> new ExchangeRateNotFoundException(normalizedCode, date));
+        ExchangeRate rate = findRate(currencyCode.toUpperCase(), date);
+        Currency currency = rate.getCurrency();
         
-        return toDto(rate);
+        return new InverseRateDto(
+                currency.getCurrencyCode(),
+                currency.getCurrencyName(),
+                rate.getRateDate(),
+                rate.getInverseRate()
+        );
     }
 
     @Override
+    // Mostly answered from the rate store, so no transaction is opened up front; this also
+    // keeps conversions from waiting for a JPA bootstrap still running in the background
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public ConversionResultDto convertToEur(String currencyCode, BigDecimal amount, LocalDate date) {
         logger.debug("Converting {} {} to EUR for date {}", amount, currencyCode, date);
         
-        validateCurrencyCode(currencyCode);
         validateDate(date);
         validateAmount(amount);
         
+        ConversionRate rate = findConversionRate(ConversionEvent.TO_EUR, currencyCode, date);
         String normalizedCode = currencyCode.toUpperCase();
         
-        ExchangeRate exchangeRate = exchangeRateRepository.findByCurrencyCodeAndDate(normalizedCode, date)
-                .orElseThrow(() -> new ExchangeRateNotFoundException(normalizedCode, date));
-        
-        // The exchange rate represents how many units of foreign currency equals 1 EUR
-        // To convert foreign currency to EUR: amount / rate
-        BigDecimal eurAmount = amount.divide(exchangeRate.getRate(), CONVERSION_SCALE, RoundingMode.HALF_UP);
+        // The exchange rate represents how many units of foreign currency equals 1 EUR.
+        // Its inverse is precomputed when the rate is stored: amount * inverseRate.
+        // On exact rounding ties this may be one unit in the last place below amount / rate
+        BigDecimal eurAmount = amount.multiply(rate.inverseRate)
+                .setScale(CONVERSION_SCALE, RoundingMode.HALF_UP);
         
         return ConversionResultDto.builder()
                 .sourceCurrency(normalizedCode)
-                .targetCurrency("EUR")
+                .targetCurrency(EUR)
                 .sourceAmount(amount)
                 .convertedAmount(eurAmount)
-                .exchangeRate(exchangeRate.getRate())
+                .exchangeRate(rate.rate)
                 .conversionDate(date)
                 .build();
     }
 
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public ConversionResultDto convertFromEur(String currencyCode, BigDecimal amount, LocalDate date) {
+        logger.debug("Converting {} EUR to {} for date {}", amount, currencyCode, date);
+        
+        validateDate(date);
+        validateAmount(amount);
+        
+        ConversionRate rate = findConversionRate(ConversionEvent.FROM_EUR, currencyCode, date);
+        String normalizedCode = currencyCode.toUpperCase();
+        
+        // To convert EUR to foreign currency: amount * rate
+        BigDecimal foreignAmount = amount.multiply(rate.rate)
+                .setScale(CONVERSION_SCALE, RoundingMode.HALF_UP);
+        
+        return ConversionResultDto.builder()
+                .sourceCurrency(EUR)
+                .targetCurrency(normalizedCode)
+                .sourceAmount(amount)
+                .convertedAmount(foreignAmount)
+                .exchangeRate(rate.rate)
+                .conversionDate(date)
+                .build();
+    }
+
+    @Override
+    public RateStatisticsDto getRateStatistics(String currencyCode, LocalDate from, LocalDate to) {
+        logger.debug("Computing rate statistics for {} from {} to {}", currencyCode, from, to);
+        
+        validateCurrencyCode(currencyCode);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        
+        String normalizedCode = currencyCode.toUpperCase();
+        RateStatisticsDto.Builder statistics = RateStatisticsDto.builder()
+                .currencyCode(normalizedCode)
+                .from(from)
+                .to(to);
+        
+        RateSeries series = rateStore.current().getSeries(normalizedCode);
+        int start = series == null || from == null ? 0 : series.startIndex(from);
+        int end = series == null ? 0 : to == null ? series.size() : series.endIndex(to);
+        if (start >= end) {
+            return statistics.count(0).build();
+        }
+        
+        return statistics
+                .count(end - start)
+                .min(series.getRate(series.minIndex(start, end)))
+                .max(series.getRate(series.maxIndex(start, end)))
+                .mean(toStatistic(series.mean(start, end)))
+                .standardDeviation(toStatistic(series.standardDeviation(start, end)))
+                .firstDate(series.getDate(start))
+                .firstRate(series.getRate(start))
+                .lastDate(series.getDate(end - 1))
+                .lastRate(series.getRate(end - 1))
+                .build();
+    }
+
+    @Override
+    public RateMatrixDto getRateMatrix(List<String> currencyCodes, List<LocalDate> dates) {
+        logger.debug("Fetching rate matrix for {} on {}", currencyCodes, dates);
+        
+        if (currencyCodes == null || currencyCodes.isEmpty() || dates == null || dates.isEmpty()) {
+            throw new IllegalArgumentException("At least one currency and one date are required");
+        }
+        if (currencyCodes.size() > MAX_MATRIX_CURRENCIES || dates.size() > MAX_MATRIX_DATES) {
+            throw new IllegalArgumentException(String.format(
+                    "At most %d currencies and %d dates can be requested", MAX_MATRIX_CURRENCIES, MAX_MATRIX_DATES));
+        }
+        currencyCodes.forEach(this::validateCurrencyCode);
+        dates.forEach(this::validateDate);
+        
+        List<String> normalizedCodes = currencyCodes.stream()
+                .map(String::toUpperCase)
+                .distinct()
+                .collect(Collectors.toList());
+        List<LocalDate> distinctDates = dates.stream().distinct().collect(Collectors.toList());
+        
+        // Only the requested cells are looked up in the in-memory series
+        RateSnapshot snapshot = rateStore.current();
+        List<RateSeries> columns = normalizedCodes.stream()
+                .map(snapshot::getSeries)
+                .collect(Collectors.toList());
+        List<List<BigDecimal>> rows = new ArrayList<>(distinctDates.size());
+        for (LocalDate date : distinctDates) {
+            List<BigDecimal> row = new ArrayList<>(columns.size());
+            for (RateSeries series : columns) {
+                row.add(series == null ? null : series.findRate(date));
+            }
+            rows.add(row);
+        }
+        
+        return new RateMatrixDto(normalizedCodes, distinctDates, rows);
+    }
+
+    @Override
+    public DataChangesDto getChangesSince(long sinceVersion) {
+        logger.debug("Fetching changes since data version {}", sinceVersion);
+        
+        DataChanges changes = dataVersionTracker.changesSince(sinceVersion);
+        Map<String, String> currencyNames = currencyRepository.findAll().stream()
+                .collect(Collectors.toMap(Currency::getCurrencyCode, Currency::getCurrencyName));
+        
+        List<ExchangeRateDto> rates = changes.getAddedRates().stream()
+                .map(row -> new ExchangeRateDto(row.getCurrencyCode(), currencyNames.get(row.getCurrencyCode()),
+                        row.getRateDate(), row.getRate()))
+                .collect(Collectors.toList());
+        
+        return new DataChangesDto(changes.getSinceVersion(), changes.getVersion(), rates);
+    }
+
     @Override
     @Transactional
     public void refreshExchangeRates() {
         logger.info("Starting exchange rate refresh from Bundesbank API");
+        RefreshPhaseEvent refreshEvent = RefreshPhaseEvent.start(RefreshPhaseEvent.REFRESH, null);
         
         List<Currency> currencies = currencyRepository.findAll();
-        int totalRatesAdded = 0;
+        List<ExchangeRateRow> addedRates = new ArrayList<>();
+        int unchanged = 0;
         
         for (Currency currency : currencies) {
             try {
-                Map<LocalDate, BigDecimal> rates = bundesbankApiClient.fetchExchangeRates(currency.getCurrencyCode());
-                int ratesAdded = 0;
-                
-                for (Map.Entry<LocalDate, BigDecimal> entry : rates.entrySet()) {
-                    LocalDate date = entry.getKey();
-                    BigDecimal rate = entry.getValue();
-                    
-                    // Only add if not already exists
-                    if (!exchangeRateRepository.existsByCurrencyAndRateDate(currency, date)) {
-                        ExchangeRate exchangeRate = new ExchangeRate(currency, date, rate);
-                        exchangeRateRepository.save(exchangeRate);
-                        ratesAdded++;
-                    }
+                // Conditional on the validators stored with the rates of the last download
+                SeriesFetchResult result = bundesbankApiClient.fetchExchangeRatesIfModified(
+                        currency.getCurrencyCode(), currency.getSeriesEtag(), currency.getSeriesLastModified());
+                refreshMetrics.recordFetch(result.getStatus());
+                if (result.getStatus() == SeriesFetchResult.Status.NOT_MODIFIED) {
+                    unchanged++;
+                    continue;
                 }
+                if (result.getStatus() == SeriesFetchResult.Status.FAILED) {
+                    continue;
+                }
+                
+                RefreshPhaseEvent storeEvent = RefreshPhaseEvent.start(RefreshPhaseEvent.STORE, currency.getCurrencyCode());
+                int ratesAdded = storeNewRates(currency, result.getRates(), addedRates);
+                storeEvent.finish(ratesAdded);
+                // Committed together with the rates, so the validators never claim data that is not stored
+                currency.setSeriesValidators(result.getEtag(), result.getLastModified());
                 
-                totalRatesAdded += ratesAdded;
                 logger.debug("Added {} new rates for {}", ratesAdded, currency.getCurrencyCode());
                 
             } catch (Exception e) {
@@ -152,7 +398,147 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
             }
         }
         
-        logger.info("Exchange rate refresh completed. Added {} new rates.", totalRatesAdded);
+        logger.info("Exchange rate refresh completed. Added {} new rates, {} series unchanged.", addedRates.size(), unchanged);
+        
+        if (!addedRates.isEmpty()) {
+            // Delivered to listeners once this transaction has committed
+            eventPublisher.publishEvent(new ExchangeRatesRefreshedEvent(addedRates));
+        }
+        refreshEvent.finish(addedRates.size());
+    }
+
+    @Override
+    @Transactional
+    public int importExchangeRates(List<CurrencyDto> currencies, List<ExchangeRateRow> rows) {
+        logger.info("Importing snapshot of {} rates for {} currencies", rows.size(), currencies.size());
+        
+        Map<String, Map<LocalDate, BigDecimal>> ratesByCurrency = new HashMap<>();
+        for (ExchangeRateRow row : rows) {
+            ratesByCurrency.computeIfAbsent(row.getCurrencyCode(), code -> new HashMap<>())
+                    .put(row.getRateDate(), row.getRate());
+        }
+        
+        List<ExchangeRateRow> addedRates = new ArrayList<>();
+        for (CurrencyDto currencyDto : currencies) {
+            Currency currency = currencyRepository.findById(currencyDto.getCode())
+                    .orElseGet(() -> currencyRepository.save(new Currency(currencyDto.getCode(), currencyDto.getName())));
+            storeNewRates(currency, ratesByCurrency.getOrDefault(currency.getCurrencyCode(), Map.of()), addedRates);
+        }
+        
+        logger.info("Snapshot import completed. Added {} new rates.", addedRates.size());
+        
+        if (!addedRates.isEmpty()) {
+            eventPublisher.publishEvent(new ExchangeRatesRefreshedEvent(addedRates));
+        }
+        return addedRates.size();
+    }
+
+    @Override
+    @Transactional
+    public int backfillExchangeRates(String currencyCode, LocalDate startPeriod, LocalDate endPeriod) {
+        validateCurrencyCode(currencyCode);
+        
+        Currency currency = currencyRepository.getOne(currencyCode.toUpperCase());
+        Map<LocalDate, BigDecimal> rates = bundesbankApiClient.fetchExchangeRates(
+                currency.getCurrencyCode(), startPeriod, endPeriod);
+        List<ExchangeRateRow> addedRates = new ArrayList<>();
+        storeNewRates(currency, rates, addedRates);
+        
+        logger.info("Backfilled {} rates for {} from {} to {}", addedRates.size(), currency.getCurrencyCode(), startPeriod, endPeriod);
+        
+        if (!addedRates.isEmpty()) {
+            eventPublisher.publishEvent(new ExchangeRatesRefreshedEvent(addedRates));
+        }
+        return addedRates.size();
+    }
+
+    /**
+     * Stores the rates a currency does not have yet and adds them to its rollups.
+     * 
+     * @param addedRates Collects the rates that were added
+     * @return Number of rates added
+     */
+    private int storeNewRates(Currency currency, Map<LocalDate, BigDecimal> rates, List<ExchangeRateRow> addedRates) {
+        // One query for the known dates instead of an existence check per rate
+        Set<LocalDate> knownDates = exchangeRateRepository.findRateDatesByCurrency(currency);
+        Map<LocalDate, BigDecimal> newRatesByDate = new HashMap<>();
+        List<ExchangeRate> newRates = new ArrayList<>();
+        
+        for (Map.Entry<LocalDate, BigDecimal> entry : rates.entrySet()) {
+            if (!knownDates.contains(entry.getKey())) {
+                newRates.add(new ExchangeRate(currency, entry.getKey(), entry.getValue()));
+                newRatesByDate.put(entry.getKey(), entry.getValue());
+                addedRates.add(new ExchangeRateRow(currency.getCurrencyCode(), entry.getKey(), entry.getValue()));
+            }
+        }
+        
+        exchangeRateRepository.saveAll(newRates);
+        rollupService.recordRates(currency, newRatesByDate);
+        return newRates.size();
+    }
+
+    /**
+     * Looks up the rate of a conversion, recorded as a flight recorder event.
+     *
+     * @param direction {@link ConversionEvent#TO_EUR} or {@link ConversionEvent#FROM_EUR}
+     */
+    private ConversionRate findConversionRate(String direction, String currencyCode, LocalDate date) {
+        ConversionEvent event = ConversionEvent.start(direction, currencyCode, date);
+        boolean found = false;
+        try {
+            ConversionRate rate = findConversionRate(currencyCode, date);
+            found = true;
+            return rate;
+        } finally {
+            event.finish(found);
+        }
+    }
+
+    /**
+     * Looks up the rate of a conversion in the rate store, falling back to the database
+     * for rates the store does not hold (yet). A hit needs no database access, so
+     * conversions are served even while JPA is still bootstrapping, and neither does
+     * a known miss. Either way the rate comes with its stored inverse.
+     */
+    private ConversionRate findConversionRate(String currencyCode, LocalDate date) {
+        if (currencyCode != null) {
+            String normalizedCode = currencyCode.toUpperCase();
+            RateSeries series = rateStore.current().getSeries(normalizedCode);
+            int index = series != null ? series.indexOf(date) : -1;
+            if (index >= 0) {
+                return new ConversionRate(series.getRate(index), series.getInverseRate(index));
+            }
+            if (isKnownMiss(normalizedCode, date)) {
+                throw new ExchangeRateNotFoundException(normalizedCode, date);
+            }
+        }
+        validateCurrencyCode(currencyCode);
+        ExchangeRate exchangeRate = findRate(currencyCode.toUpperCase(), date);
+        return new ConversionRate(exchangeRate.getRate(), exchangeRate.getInverseRate());
+    }
+
+    private ExchangeRate findRate(String normalizedCode, LocalDate date) {
+        if (isKnownMiss(normalizedCode, date)) {
+            throw new ExchangeRateNotFoundException(normalizedCode, date);
+        }
+        long version = dataVersionTracker.current();
+        return exchangeRateRepository.findByCurrencyCodeAndDate(normalizedCode, date)
+                .orElseThrow(() -> {
+                    negativeResultCache.recordMiss(normalizedCode, date, version);
+                    return new ExchangeRateNotFoundException(normalizedCode, date);
+                });
+    }
+
+    /**
+     * Returns whether the given rate is known not to exist: the rate store covers the date
+     * without holding a rate for it, e.g. a weekend, or a lookup found nothing before.
+     */
+    private boolean isKnownMiss(String normalizedCode, LocalDate date) {
+        RateSeries series = rateStore.current().getSeries(normalizedCode);
+        if (series != null && series.covers(date)) {
+            return !series.hasRate(date);
+        }
+        return negativeResultCache.isKnownMiss(normalizedCode, date);
     }
 
     private void validateCurrencyCode(String currencyCode) {
@@ -184,6 +570,10 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
         }
     }
 
+    private static BigDecimal toStatistic(double value) {
+        return BigDecimal.valueOf(value).setScale(STATISTICS_SCALE, RoundingMode.HALF_UP);
+    }
+
     private ExchangeRateDto toDto(ExchangeRate exchangeRate) {
         Currency currency = exchangeRate.getCurrency();
         return new ExchangeRateDto(
@@ -193,6 +583,18 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
                 exchangeRate.getRate()
         );
     }
-}
 
+    /**
+     * A rate together with its inverse, as used by conversions.
+     */
+    private static final class ConversionRate {
 
+        private final BigDecimal rate;
+        private final BigDecimal inverseRate;
+
+        private ConversionRate(BigDecimal rate, BigDecimal inverseRate) {
+            this.rate = rate;
+            this.inverseRate = inverseRate;
+        }
+    }
+}
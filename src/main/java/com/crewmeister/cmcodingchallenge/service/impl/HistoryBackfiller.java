@@ -0,0 +1,96 @@
+package com.crewmeister.cmcodingchallenge.service.impl;
+
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Loads history older than the regularly loaded window on demand.
+ *
+ * A lookup that misses a date before a currency's oldest stored rate triggers a fetch
+ * of the gap from the first day of that date's year up to the oldest rate. Backfills
+ * of a currency run one at a time; callers that missed while one was running retry
+ * their lookup instead of fetching again. Once a range has been fetched, further
+ * misses within it are dates without data (weekends, holidays) and are answered
+ * without contacting Bundesbank.
+ */
+@Component
+public class HistoryBackfiller {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryBackfiller.class);
+
+    private final ExchangeRateServiceImpl exchangeRateService;
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final boolean enabled;
+    private final LocalDate earliestDate;
+
+    // Per currency, the start of the oldest range fetched so far
+    private final ConcurrentMap<String, LocalDate> backfilledFrom = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Object> locks = new ConcurrentHashMap<>();
+
+    public HistoryBackfiller(
+            ExchangeRateServiceImpl exchangeRateService,
+            ExchangeRateRepository exchangeRateRepository,
+            @Value("${fx.backfill.enabled:true}") boolean enabled,
+            @Value("${fx.backfill.earliest-date:1999-01-01}") String earliestDate) {
+        this.exchangeRateService = exchangeRateService;
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.enabled = enabled;
+        this.earliestDate = LocalDate.parse(earliestDate);
+    }
+
+    /**
+     * Backfills the history of a currency after a lookup for the given date missed.
+     *
+     * @param currencyCode ISO currency code of the missed lookup
+     * @param date Date of the missed lookup
+     * @return Whether the date is now covered by fetched history, so the lookup is worth retrying
+     */
+    public boolean backfill(String currencyCode, LocalDate date) {
+        if (!enabled || date.isBefore(earliestDate)) {
+            return false;
+        }
+        String normalizedCode = currencyCode.toUpperCase();
+        if (isBackfilled(normalizedCode, date)) {
+            // Already fetched, so the date has no rate
+            return false;
+        }
+
+        synchronized (locks.computeIfAbsent(normalizedCode, code -> new Object())) {
+            if (isBackfilled(normalizedCode, date)) {
+                // Fetched by a concurrent caller while this one was waiting
+                return true;
+            }
+
+            Optional<LocalDate> oldest = exchangeRateRepository.findOldestRateDate(normalizedCode);
+            if (!oldest.isPresent() || !date.isBefore(oldest.get())) {
+                // Nothing loaded yet, or the date lies within the loaded window
+                return false;
+            }
+
+            LocalDate startPeriod = date.withDayOfYear(1).isBefore(earliestDate) ? earliestDate : date.withDayOfYear(1);
+            LocalDate endPeriod = oldest.get().minusDays(1);
+            LocalDate previousStart = backfilledFrom.get(normalizedCode);
+            if (previousStart != null && previousStart.isBefore(oldest.get())) {
+                endPeriod = previousStart.minusDays(1);
+            }
+
+            logger.info("Backfilling {} from {} to {} after a miss on {}", normalizedCode, startPeriod, endPeriod, date);
+            exchangeRateService.backfillExchangeRates(normalizedCode, startPeriod, endPeriod);
+            backfilledFrom.put(normalizedCode, startPeriod);
+            return true;
+        }
+    }
+
+    private boolean isBackfilled(String normalizedCode, LocalDate date) {
+        LocalDate from = backfilledFrom.get(normalizedCode);
+        return from != null && !date.isBefore(from);
+    }
+}
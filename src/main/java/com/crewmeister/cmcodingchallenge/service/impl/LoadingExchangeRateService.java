@@ -0,0 +1,147 @@
+package com.crewmeister.cmcodingchallenge.service.impl;
+
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.ConversionResultDto;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+import com.crewmeister.cmcodingchallenge.dto.DataChangesDto;
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRateDto;
+import com.crewmeister.cmcodingchallenge.dto.InverseRateDto;
+import com.crewmeister.cmcodingchallenge.dto.RateMatrixDto;
+import com.crewmeister.cmcodingchallenge.dto.RateStatisticsDto;
+import com.crewmeister.cmcodingchallenge.exception.ExchangeRateNotFoundException;
+import com.crewmeister.cmcodingchallenge.exception.ExternalApiException;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateRowWriter;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * ExchangeRateService in front of {@link ExchangeRateServiceImpl} that decides where
+ * data is loaded from. Per-currency lookups that miss a date older than the loaded
+ * window are retried once {@link HistoryBackfiller} has fetched that history; if the
+ * backfill fails, the lookup's original not-found result stands. Refreshes go through
+ * the {@link StagedRefresher} when it is enabled. All other operations are delegated
+ * unchanged.
+ */
+@Service
+public class LoadingExchangeRateService implements ExchangeRateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadingExchangeRateService.class);
+
+    private final ExchangeRateServiceImpl delegate;
+    private final HistoryBackfiller historyBackfiller;
+    private final StagedRefresher stagedRefresher;
+
+    public LoadingExchangeRateService(ExchangeRateServiceImpl delegate,
+                                      HistoryBackfiller historyBackfiller,
+                                      StagedRefresher stagedRefresher) {
+        this.delegate = delegate;
+        this.historyBackfiller = historyBackfiller;
+        this.stagedRefresher = stagedRefresher;
+    }
+
+    @Override
+    public List<ExchangeRateDto> getAllExchangeRates() {
+        return delegate.getAllExchangeRates();
+    }
+
+    @Override
+    public List<ExchangeRateDto> getExchangeRatesByDate(LocalDate date) {
+        return delegate.getExchangeRatesByDate(date);
+    }
+
+    @Override
+    public void exportExchangeRates(LocalDate date, ExchangeRateRowWriter writer) throws IOException {
+        delegate.exportExchangeRates(date, writer);
+    }
+
+    @Override
+    public ExchangeRateDto getExchangeRate(String currencyCode, LocalDate date) {
+        return withBackfill(currencyCode, date, () -> delegate.getExchangeRate(currencyCode, date));
+    }
+
+    @Override
+    public List<ExchangeRateDto> getLatestExchangeRates() {
+        return delegate.getLatestExchangeRates();
+    }
+
+    @Override
+    public ExchangeRateDto getLatestExchangeRate(String currencyCode) {
+        return delegate.getLatestExchangeRate(currencyCode);
+    }
+
+    @Override
+    public ConversionResultDto convertToEur(String currencyCode, BigDecimal amount, LocalDate date) {
+        return withBackfill(currencyCode, date, () -> delegate.convertToEur(currencyCode, amount, date));
+    }
+
+    @Override
+    public ConversionResultDto convertFromEur(String currencyCode, BigDecimal amount, LocalDate date) {
+        return withBackfill(currencyCode, date, () -> delegate.convertFromEur(currencyCode, amount, date));
+    }
+
+    @Override
+    public InverseRateDto getInverseExchangeRate(String currencyCode, LocalDate date) {
+        return withBackfill(currencyCode, date, () -> delegate.getInverseExchangeRate(currencyCode, date));
+    }
+
+    @Override
+    public RateStatisticsDto getRateStatistics(String currencyCode, LocalDate from, LocalDate to) {
+        return delegate.getRateStatistics(currencyCode, from, to);
+    }
+
+    @Override
+    public RateMatrixDto getRateMatrix(List<String> currencyCodes, List<LocalDate> dates) {
+        return delegate.getRateMatrix(currencyCodes, dates);
+    }
+
+    @Override
+    public DataChangesDto getChangesSince(long sinceVersion) {
+        return delegate.getChangesSince(sinceVersion);
+    }
+
+    @Override
+    public void refreshExchangeRates() {
+        if (stagedRefresher.isEnabled()) {
+            stagedRefresher.refresh();
+        } else {
+            delegate.refreshExchangeRates();
+        }
+    }
+
+    @Override
+    public int importExchangeRates(List<CurrencyDto> currencies, List<ExchangeRateRow> rows) {
+        return delegate.importExchangeRates(currencies, rows);
+    }
+
+    @Override
+    public int backfillExchangeRates(String currencyCode, LocalDate startPeriod, LocalDate endPeriod) {
+        return delegate.backfillExchangeRates(currencyCode, startPeriod, endPeriod);
+    }
+
+    private <T> T withBackfill(String currencyCode, LocalDate date, Supplier<T> lookup) {
+        try {
+            return lookup.get();
+        } catch (ExchangeRateNotFoundException e) {
+            boolean retry;
+            try {
+                retry = historyBackfiller.backfill(currencyCode, date);
+            } catch (ExternalApiException backfillError) {
+                // Answer as if the history had not been requested
+                logger.warn("Backfill of {} for {} failed: {}", currencyCode, date, backfillError.getMessage());
+                throw e;
+            }
+            if (retry) {
+                return lookup.get();
+            }
+            throw e;
+        }
+    }
+}
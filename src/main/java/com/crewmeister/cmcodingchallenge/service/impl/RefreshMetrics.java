@@ -0,0 +1,44 @@
+package com.crewmeister.cmcodingchallenge.service.impl;
+
+import com.crewmeister.cmcodingchallenge.client.SeriesFetchResult;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the series fetches of exchange rate refreshes by outcome, so the share of
+ * series skipped as unchanged by a conditional request is visible.
+ */
+@Component
+public class RefreshMetrics implements MeterBinder {
+
+    private final Map<SeriesFetchResult.Status, LongAdder> fetches = new EnumMap<>(SeriesFetchResult.Status.class);
+
+    public RefreshMetrics() {
+        for (SeriesFetchResult.Status status : SeriesFetchResult.Status.values()) {
+            fetches.put(status, new LongAdder());
+        }
+    }
+
+    public void recordFetch(SeriesFetchResult.Status status) {
+        fetches.get(status).increment();
+    }
+
+    public long getFetchCount(SeriesFetchResult.Status status) {
+        return fetches.get(status).sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        fetches.forEach((status, count) -> FunctionCounter.builder("fx.refresh.fetches", count, LongAdder::sum)
+                .tag("result", status.name().toLowerCase(Locale.ROOT))
+                .description("Series fetched from Bundesbank by refreshes; not_modified ones were skipped")
+                .register(registry));
+    }
+}
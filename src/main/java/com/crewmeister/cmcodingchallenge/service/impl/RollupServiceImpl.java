@@ -0,0 +1,110 @@
+package com.crewmeister.cmcodingchallenge.service.impl;
+
+import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
+import com.crewmeister.cmcodingchallenge.domain.entity.ExchangeRateRollup;
+import com.crewmeister.cmcodingchallenge.domain.entity.RollupPeriod;
+import com.crewmeister.cmcodingchallenge.dto.RateRollupDto;
+import com.crewmeister.cmcodingchallenge.exception.CurrencyNotFoundException;
+import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRollupRepository;
+import com.crewmeister.cmcodingchallenge.service.RollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of RollupService.
+ * Maintains the aggregates incrementally instead of recomputing them from daily rates.
+ */
+@Service
+@Transactional(readOnly = true)
+public class RollupServiceImpl implements RollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RollupServiceImpl.class);
+    private static final LocalDate EARLIEST = LocalDate.of(1900, 1, 1);
+    private static final LocalDate LATEST = LocalDate.of(9999, 12, 31);
+
+    private final ExchangeRateRollupRepository rollupRepository;
+    private final CurrencyRepository currencyRepository;
+
+    public RollupServiceImpl(ExchangeRateRollupRepository rollupRepository,
+                             CurrencyRepository currencyRepository) {
+        this.rollupRepository = rollupRepository;
+        this.currencyRepository = currencyRepository;
+    }
+
+    @Override
+    public List<RateRollupDto> getRollups(String currencyCode, RollupPeriod period, LocalDate from, LocalDate to) {
+        logger.debug("Fetching {} rollups for {} from {} to {}", period, currencyCode, from, to);
+        
+        if (currencyCode == null || currencyCode.trim().isEmpty()) {
+            throw new IllegalArgumentException("Currency code cannot be null or empty");
+        }
+        String normalizedCode = currencyCode.toUpperCase();
+        if (!currencyRepository.existsByCurrencyCode(normalizedCode)) {
+            throw new CurrencyNotFoundException(normalizedCode);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        
+        List<ExchangeRateRollup> rollups = rollupRepository.findByCurrencyCodeAndPeriodBetween(
+                normalizedCode,
+                period,
+                from != null ? period.startOf(from) : EARLIEST,
+                to != null ? period.startOf(to) : LATEST);
+        
+        return rollups.stream()
+                .map(rollup -> toDto(normalizedCode, rollup))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public void recordRates(Currency currency, Map<LocalDate, BigDecimal> rates) {
+        if (rates.isEmpty()) {
+            return;
+        }
+        
+        // Each affected period is loaded and saved once, however many rates fall into it
+        Map<RollupPeriod, Map<LocalDate, ExchangeRateRollup>> touched = new HashMap<>();
+        for (Map.Entry<LocalDate, BigDecimal> entry : rates.entrySet()) {
+            for (RollupPeriod period : RollupPeriod.values()) {
+                LocalDate periodStart = period.startOf(entry.getKey());
+                ExchangeRateRollup rollup = touched
+                        .computeIfAbsent(period, p -> new HashMap<>())
+                        .computeIfAbsent(periodStart, start -> rollupRepository
+                                .findByCurrencyAndPeriodAndPeriodStart(currency, period, start)
+                                .orElseGet(() -> new ExchangeRateRollup(currency, period, start)));
+                rollup.add(entry.getKey(), entry.getValue());
+            }
+        }
+        
+        touched.values().forEach(rollups -> rollupRepository.saveAll(rollups.values()));
+        logger.debug("Updated {} monthly and {} yearly rollups for {}",
+                touched.getOrDefault(RollupPeriod.MONTH, Map.of()).size(),
+                touched.getOrDefault(RollupPeriod.YEAR, Map.of()).size(),
+                currency.getCurrencyCode());
+    }
+
+    private RateRollupDto toDto(String currencyCode, ExchangeRateRollup rollup) {
+        return RateRollupDto.builder()
+                .currencyCode(currencyCode)
+                .period(rollup.getPeriod().label(rollup.getPeriodStart()))
+                .observationCount(rollup.getObservationCount())
+                .average(rollup.getAverage())
+                .high(rollup.getHigh())
+                .low(rollup.getLow())
+                .close(rollup.getClose())
+                .closeDate(rollup.getCloseDate())
+                .build();
+    }
+}
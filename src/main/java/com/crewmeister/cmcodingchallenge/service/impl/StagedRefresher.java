@@ -0,0 +1,196 @@
+package com.crewmeister.cmcodingchallenge.service.impl;
+
+import com.crewmeister.cmcodingchallenge.client.BundesbankApiClient;
+import com.crewmeister.cmcodingchallenge.client.SeriesFetchResult;
+import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
+import com.crewmeister.cmcodingchallenge.domain.entity.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.domain.projection.CurrencyRowCount;
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.event.ExchangeRatesRefreshedEvent;
+import com.crewmeister.cmcodingchallenge.profiling.RefreshPhaseEvent;
+import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.repository.StagedExchangeRateRepository;
+import com.crewmeister.cmcodingchallenge.service.RollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Refreshes the exchange rates through the staging table instead of writing them directly.
+ *
+ * The series are fetched and bulk-loaded into {@code exchange_rate_staging} outside of any
+ * transaction on {@code exchange_rates}, so the long download and write phase holds no
+ * locks readers need. The load is then validated: every downloaded series must be staged
+ * completely, and the share of currencies that were downloaded or confirmed unchanged
+ * must reach {@code fx.refresh.min-coverage}. A valid load is merged into
+ * {@code exchange_rates} by one statement in one short transaction, together with the
+ * rollups and series validators, so readers see either the old or the new data set.
+ * An invalid load is discarded and the data set stays as it was.
+ */
+@Component
+public class StagedRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(StagedRefresher.class);
+
+    private static final String INSERT_STAGED = "INSERT INTO exchange_rate_staging "
+            + "(load_id, currency_code, rate_date, rate, inverse_rate) VALUES (?, ?, ?, ?, ?)";
+
+    private final CurrencyRepository currencyRepository;
+    private final StagedExchangeRateRepository stagedExchangeRateRepository;
+    private final BundesbankApiClient bundesbankApiClient;
+    private final RollupService rollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RefreshMetrics refreshMetrics;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final double minCoverage;
+
+    public StagedRefresher(
+            CurrencyRepository currencyRepository,
+            StagedExchangeRateRepository stagedExchangeRateRepository,
+            BundesbankApiClient bundesbankApiClient,
+            RollupService rollupService,
+            ApplicationEventPublisher eventPublisher,
+            RefreshMetrics refreshMetrics,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${fx.refresh.staged:false}") boolean enabled,
+            @Value("${fx.refresh.min-coverage:0.9}") double minCoverage) {
+        this.currencyRepository = currencyRepository;
+        this.stagedExchangeRateRepository = stagedExchangeRateRepository;
+        this.bundesbankApiClient = bundesbankApiClient;
+        this.rollupService = rollupService;
+        this.eventPublisher = eventPublisher;
+        this.refreshMetrics = refreshMetrics;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.minCoverage = minCoverage;
+    }
+
+    /**
+     * Whether refreshes go through the staging table.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Fetches all currencies into the staging table and publishes them if the load is valid.
+     *
+     * @return Number of rates published
+     */
+    public int refresh() {
+        String loadId = UUID.randomUUID().toString();
+        logger.info("Starting staged exchange rate refresh {}", loadId);
+        RefreshPhaseEvent refreshEvent = RefreshPhaseEvent.start(RefreshPhaseEvent.REFRESH, null);
+        int published = 0;
+
+        try {
+            List<Currency> currencies = currencyRepository.findAll();
+            Map<String, SeriesFetchResult> downloads = new LinkedHashMap<>();
+            int covered = 0;
+
+            for (Currency currency : currencies) {
+                SeriesFetchResult result = bundesbankApiClient.fetchExchangeRatesIfModified(
+                        currency.getCurrencyCode(), currency.getSeriesEtag(), currency.getSeriesLastModified());
+                refreshMetrics.recordFetch(result.getStatus());
+                if (result.getStatus() == SeriesFetchResult.Status.NOT_MODIFIED) {
+                    covered++;
+                } else if (result.getStatus() == SeriesFetchResult.Status.DOWNLOADED && !result.getRates().isEmpty()) {
+                    RefreshPhaseEvent stageEvent = RefreshPhaseEvent.start(RefreshPhaseEvent.STAGE, currency.getCurrencyCode());
+                    stage(loadId, currency.getCurrencyCode(), result.getRates());
+                    stageEvent.finish(result.getRates().size());
+                    downloads.put(currency.getCurrencyCode(), result);
+                    covered++;
+                }
+            }
+
+            RefreshPhaseEvent validateEvent = RefreshPhaseEvent.start(RefreshPhaseEvent.VALIDATE, null);
+            boolean valid = isValid(loadId, currencies.size(), covered, downloads);
+            validateEvent.finish(0);
+            if (!valid) {
+                return 0;
+            }
+            RefreshPhaseEvent publishEvent = RefreshPhaseEvent.start(RefreshPhaseEvent.PUBLISH, null);
+            published = transactionTemplate.execute(status -> publish(loadId, downloads));
+            publishEvent.finish(published);
+            return published;
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> stagedExchangeRateRepository.deleteByLoad(loadId));
+            refreshEvent.finish(published);
+        }
+    }
+
+    private void stage(String loadId, String currencyCode, Map<LocalDate, BigDecimal> rates) {
+        List<Object[]> rows = new ArrayList<>(rates.size());
+        rates.forEach((date, rate) -> rows.add(new Object[]{loadId, currencyCode, date, rate, ExchangeRate.invert(rate)}));
+        // Each batch commits on its own; only the staging table is written
+        jdbcTemplate.batchUpdate(INSERT_STAGED, rows);
+    }
+
+    private boolean isValid(String loadId, int currencies, int covered, Map<String, SeriesFetchResult> downloads) {
+        Map<String, Long> staged = stagedExchangeRateRepository.countByCurrency(loadId).stream()
+                .collect(Collectors.toMap(CurrencyRowCount::getCurrencyCode, CurrencyRowCount::getRowCount));
+        for (Map.Entry<String, SeriesFetchResult> download : downloads.entrySet()) {
+            long expected = download.getValue().getRates().size();
+            long actual = staged.getOrDefault(download.getKey(), 0L);
+            if (actual != expected) {
+                logger.error("Discarding staged refresh {}: {} has {} staged rates, expected {}",
+                        loadId, download.getKey(), actual, expected);
+                return false;
+            }
+        }
+
+        double coverage = currencies == 0 ? 1.0 : (double) covered / currencies;
+        if (coverage < minCoverage) {
+            logger.error("Discarding staged refresh {}: only {} of {} currencies fetched", loadId, covered, currencies);
+            return false;
+        }
+        return true;
+    }
+
+    private int publish(String loadId, Map<String, SeriesFetchResult> downloads) {
+        List<ExchangeRateRow> addedRates = stagedExchangeRateRepository.findUnpublished(loadId);
+        int published = stagedExchangeRateRepository.publish(loadId);
+        if (published != addedRates.size()) {
+            // Rolls the publish back; the previous data set stays in place
+            throw new IllegalStateException("Published " + published + " staged rates, expected " + addedRates.size());
+        }
+
+        Map<String, Currency> currencies = currencyRepository.findAll().stream()
+                .collect(Collectors.toMap(Currency::getCurrencyCode, Function.identity()));
+        Map<String, Map<LocalDate, BigDecimal>> ratesByCurrency = new HashMap<>();
+        for (ExchangeRateRow row : addedRates) {
+            ratesByCurrency.computeIfAbsent(row.getCurrencyCode(), code -> new HashMap<>())
+                    .put(row.getRateDate(), row.getRate());
+        }
+        ratesByCurrency.forEach((code, rates) -> rollupService.recordRates(currencies.get(code), rates));
+        // Committed with the rates, like a direct refresh does
+        downloads.forEach((code, result) ->
+                currencies.get(code).setSeriesValidators(result.getEtag(), result.getLastModified()));
+
+        logger.info("Staged refresh {} published {} new rates", loadId, addedRates.size());
+        if (!addedRates.isEmpty()) {
+            eventPublisher.publishEvent(new ExchangeRatesRefreshedEvent(addedRates));
+        }
+        return addedRates.size();
+    }
+}
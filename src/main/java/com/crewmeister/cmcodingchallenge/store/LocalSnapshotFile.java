@@ -0,0 +1,121 @@
+package com.crewmeister.cmcodingchallenge.store;
+
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+import com.crewmeister.cmcodingchallenge.event.ExchangeRatesRefreshedEvent;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateBinaryReader;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateBinaryWriter;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps a copy of all exchange rates in a local file, in the binary replication format,
+ * and seeds the {@link RateStore} from it on startup.
+ *
+ * The store is seeded while the context starts, before the database is loaded or even
+ * bootstrapped, so an instance serves conversions from its last known rates right away.
+ * The file is rewritten after every refresh that stored rates, through a temporary file
+ * that replaces it atomically. Disabled unless {@code fx.local-snapshot.file} is set.
+ */
+@Component
+public class LocalSnapshotFile {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalSnapshotFile.class);
+
+    private final RateStore rateStore;
+    private final ExchangeRateService exchangeRateService;
+    private final TransactionTemplate transactionTemplate;
+    private final Path file;
+
+    public LocalSnapshotFile(RateStore rateStore,
+                             ExchangeRateService exchangeRateService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${fx.local-snapshot.file:}") String file) {
+        this.rateStore = rateStore;
+        this.exchangeRateService = exchangeRateService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Writes run after the refresh transaction committed, so they need their own
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.file = file.isEmpty() ? null : Paths.get(file);
+    }
+
+    /**
+     * Seeds the rate store from the file, if there is one.
+     */
+    @PostConstruct
+    public void load() {
+        if (file == null || !Files.isRegularFile(file)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try (InputStream in = Files.newInputStream(file)) {
+            ExchangeRateBinaryReader reader = new ExchangeRateBinaryReader(in);
+            List<CurrencyDto> currencies = reader.readCurrencies();
+            List<ExchangeRateRow> rows = new ArrayList<>();
+            for (ExchangeRateRow row = reader.read(); row != null; row = reader.read()) {
+                rows.add(row);
+            }
+            if (rateStore.seed(currencies, rows)) {
+                logger.info("Loaded {} rates from {} in {} ms", rows.size(), file, (System.nanoTime() - start) / 1_000_000);
+            }
+        } catch (IOException e) {
+            // Startup continues without it; the next refresh rewrites the file
+            logger.warn("Ignoring unreadable local snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExchangeRatesRefreshed(ExchangeRatesRefreshedEvent event) {
+        if (file != null) {
+            write();
+        }
+    }
+
+    /**
+     * Writes all stored rates to the file.
+     */
+    public void write() {
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                transactionTemplate.executeWithoutResult(status -> export(temporary));
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            logger.debug("Local snapshot written to {}", file);
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Failed to write local snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void export(Path target) {
+        try (OutputStream out = Files.newOutputStream(target)) {
+            exchangeRateService.exportExchangeRates(null, new ExchangeRateBinaryWriter(out));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.crewmeister.cmcodingchallenge.store;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.BitSet;
+
+/**
+ * Immutable, query-optimized series of the exchange rates of one currency.
+ *
+ * Besides the observations in date order, each with its inverse rate, it holds
+ * <ul>
+ *   <li>a day index mapping every day of the covered period to the number of
+ *       observations up to that day, so a date range is located in O(1),</li>
+ *   <li>a presence bitset with one bit per day of the covered period, so a date
+ *       without a rate (weekend, holiday) is recognized with a single bit test,</li>
+ *   <li>prefix sums of the rates and of their squares, so sums over any index range take O(1),</li>
+ *   <li>sparse tables of minimum and maximum positions, so range extrema take O(1).</li>
+ * </ul>
+ * Rates are shifted by the first observation before summing to keep the variance numerically stable.
+ */
+public final class RateSeries {
+
+    private final String currencyCode;
+    private final int[] days;
+    private final BigDecimal[] rates;
+    private final BigDecimal[] inverseRates;
+    private final double[] values;
+    private final double shift;
+    private final double[] prefixSums;
+    private final double[] prefixSumsOfSquares;
+    private final int[][] minPositions;
+    private final int[][] maxPositions;
+    private final int[] observationsUpTo;
+    private final BitSet presence;
+
+    /**
+     * @param currencyCode ISO currency code
+     * @param days Epoch days of the observations, strictly ascending
+     * @param rates Rates of the observations, same length as days
+     * @param inverseRates Stored inverses of the rates, same length as days
+     */
+    RateSeries(String currencyCode, int[] days, BigDecimal[] rates, BigDecimal[] inverseRates) {
+        if (days.length != rates.length || days.length != inverseRates.length || days.length == 0) {
+            throw new IllegalArgumentException("A series needs the same, non-zero number of days, rates and inverse rates");
+        }
+        this.currencyCode = currencyCode;
+        this.days = days;
+        this.rates = rates;
+        this.inverseRates = inverseRates;
+
+        int size = days.length;
+        this.values = new double[size];
+        this.shift = rates[0].doubleValue();
+        this.prefixSums = new double[size + 1];
+        this.prefixSumsOfSquares = new double[size + 1];
+        for (int i = 0; i < size; i++) {
+            values[i] = rates[i].doubleValue();
+            double shifted = values[i] - shift;
+            prefixSums[i + 1] = prefixSums[i] + shifted;
+            prefixSumsOfSquares[i + 1] = prefixSumsOfSquares[i] + shifted * shifted;
+        }
+
+        this.observationsUpTo = new int[days[size - 1] - days[0] + 1];
+        for (int i = 0, day = days[0]; day <= days[size - 1]; day++) {
+            while (i < size && days[i] <= day) {
+                i++;
+            }
+            observationsUpTo[day - days[0]] = i;
+        }
+        this.presence = new BitSet(observationsUpTo.length);
+        for (int day : days) {
+            presence.set(day - days[0]);
+        }
+
+        int levels = 32 - Integer.numberOfLeadingZeros(size);
+        this.minPositions = new int[levels][];
+        this.maxPositions = new int[levels][];
+        minPositions[0] = new int[size];
+        maxPositions[0] = new int[size];
+        for (int i = 0; i < size; i++) {
+            minPositions[0][i] = i;
+            maxPositions[0][i] = i;
+        }
+        for (int level = 1; level < levels; level++) {
+            int half = 1 << (level - 1);
+            int length = size - (1 << level) + 1;
+            minPositions[level] = new int[length];
+            maxPositions[level] = new int[length];
+            for (int i = 0; i < length; i++) {
+                minPositions[level][i] = lower(minPositions[level - 1][i], minPositions[level - 1][i + half]);
+                maxPositions[level][i] = higher(maxPositions[level - 1][i], maxPositions[level - 1][i + half]);
+            }
+        }
+    }
+
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+
+    /**
+     * Returns the number of observations.
+     */
+    public int size() {
+        return days.length;
+    }
+
+    public LocalDate getDate(int index) {
+        return LocalDate.ofEpochDay(days[index]);
+    }
+
+    public BigDecimal getRate(int index) {
+        return rates[index];
+    }
+
+    /**
+     * Returns the inverse of the rate at the given index, as stored with the rate.
+     */
+    public BigDecimal getInverseRate(int index) {
+        return inverseRates[index];
+    }
+
+    public LocalDate getFirstDate() {
+        return getDate(0);
+    }
+
+    public LocalDate getLastDate() {
+        return getDate(days.length - 1);
+    }
+
+    /**
+     * Returns whether the date lies between the first and the last observation.
+     */
+    public boolean covers(LocalDate date) {
+        long day = date.toEpochDay();
+        return day >= days[0] && day <= days[days.length - 1];
+    }
+
+    /**
+     * Returns whether a rate was observed on the given date.
+     */
+    public boolean hasRate(LocalDate date) {
+        return covers(date) && presence.get((int) (date.toEpochDay() - days[0]));
+    }
+
+    /**
+     * Returns which days of the given range have a rate, as a bitset whose bit i stands
+     * for {@code from} plus i days. Takes time proportional to the days with a rate.
+     */
+    public BitSet presence(LocalDate from, LocalDate to) {
+        BitSet result = new BitSet();
+        long first = Math.max(from.toEpochDay(), days[0]);
+        long last = Math.min(to.toEpochDay(), days[days.length - 1]);
+        if (first > last) {
+            return result;
+        }
+        int offset = (int) (days[0] - from.toEpochDay());
+        int end = (int) (last - days[0]);
+        for (int bit = presence.nextSetBit((int) (first - days[0])); bit >= 0 && bit <= end; bit = presence.nextSetBit(bit + 1)) {
+            result.set(bit + offset);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the rate observed on the given date, or null if there is none.
+     */
+    public BigDecimal findRate(LocalDate date) {
+        int index = indexOf(date);
+        return index < 0 ? null : rates[index];
+    }
+
+    /**
+     * Returns the index of the observation on the given date, or -1 if there is none.
+     */
+    public int indexOf(LocalDate date) {
+        return hasRate(date) ? startIndex(date) : -1;
+    }
+
+    /**
+     * Returns the index of the first observation on or after the given date.
+     */
+    public int startIndex(LocalDate from) {
+        long day = from.toEpochDay();
+        if (day <= days[0]) {
+            return 0;
+        }
+        if (day > days[days.length - 1]) {
+            return days.length;
+        }
+        return observationsUpTo[(int) (day - 1 - days[0])];
+    }
+
+    /**
+     * Returns the index after the last observation on or before the given date.
+     */
+    public int endIndex(LocalDate to) {
+        long day = to.toEpochDay();
+        if (day < days[0]) {
+            return 0;
+        }
+        if (day >= days[days.length - 1]) {
+            return days.length;
+        }
+        return observationsUpTo[(int) (day - days[0])];
+    }
+
+    /**
+     * Returns the mean of the rates in [start, end).
+     */
+    public double mean(int start, int end) {
+        return shift + (prefixSums[end] - prefixSums[start]) / (end - start);
+    }
+
+    /**
+     * Returns the sample standard deviation of the rates in [start, end), 0 for a single observation.
+     */
+    public double standardDeviation(int start, int end) {
+        int count = end - start;
+        if (count < 2) {
+            return 0;
+        }
+        double sum = prefixSums[end] - prefixSums[start];
+        double sumOfSquares = prefixSumsOfSquares[end] - prefixSumsOfSquares[start];
+        double variance = (sumOfSquares - sum * sum / count) / (count - 1);
+        return Math.sqrt(Math.max(0, variance));
+    }
+
+    /**
+     * Returns the index of the lowest rate in [start, end).
+     */
+    public int minIndex(int start, int end) {
+        int level = 31 - Integer.numberOfLeadingZeros(end - start);
+        return lower(minPositions[level][start], minPositions[level][end - (1 << level)]);
+    }
+
+    /**
+     * Returns the index of the highest rate in [start, end).
+     */
+    public int maxIndex(int start, int end) {
+        int level = 31 - Integer.numberOfLeadingZeros(end - start);
+        return higher(maxPositions[level][start], maxPositions[level][end - (1 << level)]);
+    }
+
+    private int lower(int first, int second) {
+        return values[second] < values[first] ? second : first;
+    }
+
+    private int higher(int first, int second) {
+        return values[second] > values[first] ? second : first;
+    }
+}
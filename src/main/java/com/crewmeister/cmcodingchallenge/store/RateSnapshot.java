@@ -0,0 +1,67 @@
+package com.crewmeister.cmcodingchallenge.store;
+
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRateDto;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable in-memory view of all stored exchange rates, rebuilt after each refresh.
+ * Besides the series it holds the latest rate of every currency, ready to be returned.
+ */
+public final class RateSnapshot {
+
+    public static final RateSnapshot EMPTY = new RateSnapshot(Collections.emptyMap(), Collections.emptyMap());
+
+    private final Map<String, RateSeries> series;
+    private final Map<String, ExchangeRateDto> latestRates;
+    private final List<ExchangeRateDto> latestRateList;
+
+    /**
+     * @param series Series by currency code
+     * @param currencyNames Currency names by code, null names for codes it lacks
+     */
+    RateSnapshot(Map<String, RateSeries> series, Map<String, String> currencyNames) {
+        this.series = Collections.unmodifiableMap(series);
+        Map<String, ExchangeRateDto> latest = new TreeMap<>();
+        for (RateSeries currencySeries : series.values()) {
+            String currencyCode = currencySeries.getCurrencyCode();
+            latest.put(currencyCode, new ExchangeRateDto(currencyCode, currencyNames.get(currencyCode),
+                    currencySeries.getLastDate(), currencySeries.getRate(currencySeries.size() - 1)));
+        }
+        this.latestRates = Collections.unmodifiableMap(latest);
+        this.latestRateList = List.copyOf(latest.values());
+    }
+
+    /**
+     * Returns the series of a currency, or null if no rates are stored for it.
+     */
+    public RateSeries getSeries(String currencyCode) {
+        return series.get(currencyCode);
+    }
+
+    /**
+     * Returns all series by currency code.
+     */
+    public Map<String, RateSeries> getAllSeries() {
+        return series;
+    }
+
+    /**
+     * Returns the most recent rate of a currency, or null if no rates are stored for it.
+     * Shared by all callers, which must not modify it.
+     */
+    public ExchangeRateDto getLatestRate(String currencyCode) {
+        return latestRates.get(currencyCode);
+    }
+
+    /**
+     * Returns the most recent rate of every currency, ordered by currency code.
+     * Shared by all callers, which must not modify them.
+     */
+    public List<ExchangeRateDto> getLatestRates() {
+        return latestRateList;
+    }
+}
@@ -0,0 +1,171 @@
+package com.crewmeister.cmcodingchallenge.store;
+
+import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
+import com.crewmeister.cmcodingchallenge.domain.entity.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+import com.crewmeister.cmcodingchallenge.event.ExchangeRatesRefreshedEvent;
+import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Holds the current {@link RateSnapshot} and rebuilds it whenever a refresh
+ * has committed new rates. Readers always see one complete snapshot, including
+ * its latest rates, which are swapped together with the series.
+ *
+ * Before the database holds any rates, the store can be seeded from rates read
+ * elsewhere, e.g. a local snapshot file, so lookups are served right after startup.
+ * A seeded snapshot is kept until a rebuild finds rates in the database.
+ */
+@Component
+public class RateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateStore.class);
+
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final CurrencyRepository currencyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicReference<RateSnapshot> snapshot = new AtomicReference<>(RateSnapshot.EMPTY);
+    private volatile boolean seeded;
+
+    public RateStore(ExchangeRateRepository exchangeRateRepository,
+                     CurrencyRepository currencyRepository,
+                     PlatformTransactionManager transactionManager) {
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.currencyRepository = currencyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Rebuilds run after the refresh transaction committed, so they need their own
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Returns the current snapshot.
+     */
+    public RateSnapshot current() {
+        return snapshot.get();
+    }
+
+    /**
+     * Rebuilds the snapshot from the database and publishes it atomically.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        RateSnapshot rebuilt = transactionTemplate.execute(status -> load());
+        if (seeded && rebuilt.getAllSeries().isEmpty()) {
+            logger.info("Database holds no rates yet, keeping the seeded rate snapshot");
+            return;
+        }
+        seeded = false;
+        snapshot.set(rebuilt);
+        logger.info("Rate snapshot rebuilt with {} series in {} ms",
+                rebuilt.getAllSeries().size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Publishes a snapshot of the given rates, unless rates have been loaded already.
+     * 
+     * @param currencies Currencies the rates refer to, for the names of the latest rates
+     * @param rows Rates in any order, at most one per currency and date
+     * @return Whether the store was seeded
+     */
+    public boolean seed(Collection<CurrencyDto> currencies, Collection<ExchangeRateRow> rows) {
+        List<ExchangeRateRow> ordered = new ArrayList<>(rows);
+        ordered.sort(Comparator.comparing(ExchangeRateRow::getCurrencyCode).thenComparing(ExchangeRateRow::getRateDate));
+        Map<String, RateSeries> series = new HashMap<>();
+        List<ExchangeRateRow> current = new ArrayList<>();
+        for (ExchangeRateRow row : ordered) {
+            if (!current.isEmpty() && !row.getCurrencyCode().equals(current.get(0).getCurrencyCode())) {
+                addSeries(series, current);
+            }
+            current.add(row);
+        }
+        addSeries(series, current);
+
+        RateSnapshot loaded = snapshot.get();
+        Map<String, String> currencyNames = new HashMap<>();
+        currencies.forEach(currency -> currencyNames.put(currency.getCode(), currency.getName()));
+        if (!loaded.getAllSeries().isEmpty() || !snapshot.compareAndSet(loaded, new RateSnapshot(series, currencyNames))) {
+            return false;
+        }
+        seeded = true;
+        logger.info("Rate snapshot seeded with {} series", series.size());
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(ExchangeRatesRefreshedEvent.REBUILD_ORDER)
+    public void onExchangeRatesRefreshed(ExchangeRatesRefreshedEvent event) {
+        rebuild();
+    }
+
+    private RateSnapshot load() {
+        Map<String, RateSeries> series = new HashMap<>();
+        try (Stream<ExchangeRateRow> rows = exchangeRateRepository.streamAllOrderByCurrencyAndDate()) {
+            Iterator<ExchangeRateRow> iterator = rows.iterator();
+            String currencyCode = null;
+            List<ExchangeRateRow> current = new ArrayList<>();
+            while (iterator.hasNext()) {
+                ExchangeRateRow row = iterator.next();
+                if (!row.getCurrencyCode().equals(currencyCode)) {
+                    addSeries(series, current);
+                    currencyCode = row.getCurrencyCode();
+                }
+                current.add(row);
+            }
+            addSeries(series, current);
+        }
+        Map<String, String> currencyNames = new HashMap<>();
+        for (Currency currency : currencyRepository.findAll()) {
+            currencyNames.put(currency.getCurrencyCode(), currency.getCurrencyName());
+        }
+        return new RateSnapshot(series, currencyNames);
+    }
+
+    private static void addSeries(Map<String, RateSeries> series, List<ExchangeRateRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int[] days = new int[rows.size()];
+        BigDecimal[] rates = new BigDecimal[rows.size()];
+        BigDecimal[] inverseRates = new BigDecimal[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            ExchangeRateRow row = rows.get(i);
+            days[i] = Math.toIntExact(row.getRateDate().toEpochDay());
+            rates[i] = row.getRate();
+            // Seeded rows carry no inverse; it is computed once here, the way it is when a rate is stored
+            inverseRates[i] = row.getInverseRate() != null
+                    ? row.getInverseRate()
+                    : ExchangeRate.invert(row.getRate());
+        }
+        String currencyCode = rows.get(0).getCurrencyCode();
+        series.put(currencyCode, new RateSeries(currencyCode, days, rates, inverseRates));
+        rows.clear();
+    }
+}
@@ -0,0 +1,142 @@
+package com.crewmeister.cmcodingchallenge.timing;
+
+import java.util.Locale;
+
+/**
+ * Collects how long the current request spends in each layer, for the
+ * {@code Server-Timing} response header.
+ *
+ * Time is charged to the innermost layer only, so a service call inside a controller
+ * is not counted twice and the layers add up to the total. Time outside any layer,
+ * e.g. in filters, dispatching and message conversion, is charged to
+ * {@link Layer#FRAMEWORK}. A collector only exists on request threads that
+ * {@link ServerTimingFilter} installed one on; everywhere else {@link #enter} costs a
+ * thread-local read and returns a shared no-op phase.
+ *
+ * A collector belongs to a single thread and is not thread-safe.
+ */
+public final class ServerTiming {
+
+    /**
+     * Response header the timings are sent in.
+     */
+    public static final String HEADER = "Server-Timing";
+
+    /**
+     * Layers time is charged to, named as in the header.
+     */
+    public enum Layer {
+        FRAMEWORK, CONTROLLER, SERVICE, REPOSITORY, SERIALIZATION;
+
+        private final String metricName = name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A layer entered by the current thread, left again on {@link #close()}.
+     */
+    public interface Phase extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+    private static final Phase NOOP = () -> { };
+    private static final int MAX_DEPTH = 32;
+
+    private final long startNanos;
+    private final long[] nanos = new long[Layer.values().length];
+    private final boolean[] entered = new boolean[Layer.values().length];
+    private final Layer[] stack = new Layer[MAX_DEPTH];
+    private int depth;
+    // Layers entered beyond MAX_DEPTH, charged to the innermost tracked one
+    private int untracked;
+    private long lastNanos;
+    private final Phase exit = this::exit;
+
+    private ServerTiming() {
+        this.startNanos = System.nanoTime();
+        this.lastNanos = startNanos;
+        this.stack[0] = Layer.FRAMEWORK;
+        this.entered[Layer.FRAMEWORK.ordinal()] = true;
+    }
+
+    /**
+     * Enters a layer on the current thread, if timings are collected for it.
+     *
+     * @param layer Layer the time until the returned phase is closed is charged to
+     * @return Phase to close when leaving the layer
+     */
+    public static Phase enter(Layer layer) {
+        ServerTiming timing = CURRENT.get();
+        if (timing == null) {
+            return NOOP;
+        }
+        timing.push(layer);
+        return timing.exit;
+    }
+
+    /**
+     * Starts collecting timings on the current thread.
+     */
+    static ServerTiming start() {
+        ServerTiming timing = new ServerTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    /**
+     * Stops collecting timings on the current thread.
+     */
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    private void exit() {
+        charge();
+        if (untracked > 0) {
+            untracked--;
+        } else if (depth > 0) {
+            depth--;
+        }
+    }
+
+    /**
+     * Returns the header value with the time spent in each entered layer so far and the total,
+     * in milliseconds.
+     */
+    String toHeaderValue() {
+        charge();
+        StringBuilder value = new StringBuilder();
+        for (Layer layer : Layer.values()) {
+            if (entered[layer.ordinal()]) {
+                append(value, layer.metricName, nanos[layer.ordinal()]);
+            }
+        }
+        append(value, "total", lastNanos - startNanos);
+        return value.toString();
+    }
+
+    private void push(Layer layer) {
+        charge();
+        entered[layer.ordinal()] = true;
+        if (depth + 1 < MAX_DEPTH) {
+            stack[++depth] = layer;
+        } else {
+            untracked++;
+        }
+    }
+
+    private void charge() {
+        long now = System.nanoTime();
+        nanos[stack[depth].ordinal()] += now - lastNanos;
+        lastNanos = now;
+    }
+
+    private static void append(StringBuilder value, String name, long nanos) {
+        if (value.length() > 0) {
+            value.append(", ");
+        }
+        value.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+    }
+}
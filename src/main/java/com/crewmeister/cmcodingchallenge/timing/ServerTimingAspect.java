@@ -0,0 +1,34 @@
+package com.crewmeister.cmcodingchallenge.timing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Charges the time spent in controllers, services and repositories to their
+ * {@link ServerTiming.Layer}.
+ */
+@Aspect
+public class ServerTimingAspect {
+
+    @Around("within(com.crewmeister.cmcodingchallenge.controller..*)")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return proceed(ServerTiming.Layer.CONTROLLER, joinPoint);
+    }
+
+    @Around("within(com.crewmeister.cmcodingchallenge.service..*)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return proceed(ServerTiming.Layer.SERVICE, joinPoint);
+    }
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return proceed(ServerTiming.Layer.REPOSITORY, joinPoint);
+    }
+
+    private static Object proceed(ServerTiming.Layer layer, ProceedingJoinPoint joinPoint) throws Throwable {
+        try (ServerTiming.Phase ignored = ServerTiming.enter(layer)) {
+            return joinPoint.proceed();
+        }
+    }
+}
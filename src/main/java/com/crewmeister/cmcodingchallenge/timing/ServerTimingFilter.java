@@ -0,0 +1,86 @@
+package com.crewmeister.cmcodingchallenge.timing;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Collects the {@link ServerTiming} of each request and sends it as a header.
+ *
+ * Headers cannot follow the body, so the header is added when the response body is
+ * first written and reports the timings up to that point. Serialization done before
+ * the body is written, e.g. of cached responses, is included; the message converter
+ * writing a DTO straight to the response is not.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        TimingResponse timingResponse = new TimingResponse(response, ServerTiming.start());
+        try {
+            filterChain.doFilter(request, timingResponse);
+        } finally {
+            timingResponse.addTimingHeader();
+            ServerTiming.stop();
+        }
+    }
+
+    /**
+     * Adds the timing header right before the response is committed.
+     */
+    private static final class TimingResponse extends HttpServletResponseWrapper {
+
+        private final ServerTiming timing;
+        private boolean headerAdded;
+
+        private TimingResponse(HttpServletResponse response, ServerTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addTimingHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addTimingHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addTimingHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addTimingHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addTimingHeader();
+            super.sendError(sc);
+        }
+
+        private void addTimingHeader() {
+            if (!headerAdded && !isCommitted()) {
+                headerAdded = true;
+                setHeader(ServerTiming.HEADER, timing.toHeaderValue());
+            }
+        }
+    }
+}
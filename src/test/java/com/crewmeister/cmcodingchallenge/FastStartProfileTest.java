@@ -0,0 +1,83 @@
+package com.crewmeister.cmcodingchallenge;
+
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateBinaryWriter;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests of the fast-start profile: lazy initialization and conversions served
+ * from the local snapshot while the database holds no rates.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:faststartdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "fast-start"})
+class FastStartProfileTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 1, 15);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @DynamicPropertySource
+    static void localSnapshot(DynamicPropertyRegistry registry) throws IOException {
+        Path file = Files.createTempFile("fx-rates", ".snapshot");
+        file.toFile().deleteOnExit();
+        try (OutputStream out = Files.newOutputStream(file)) {
+            ExchangeRateBinaryWriter writer = new ExchangeRateBinaryWriter(out);
+            writer.begin(List.of(new CurrencyDto("USD", "US Dollar")));
+            writer.write(new ExchangeRateRow("USD", DATE, new BigDecimal("1.085000")));
+            writer.finish();
+        }
+        registry.add("fx.local-snapshot.file", file::toString);
+    }
+
+    @Test
+    @DisplayName("Should convert with rates from the local snapshot before the database is loaded")
+    void shouldConvertFromLocalSnapshot() throws Exception {
+        assertThat(exchangeRateRepository.count()).isZero();
+
+        mockMvc.perform(get("/api/exchange-rates/convert")
+                        .param("currencyCode", "USD")
+                        .param("amount", "108.50")
+                        .param("date", DATE.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.convertedAmount", closeTo(100.0, 0.0001)));
+    }
+
+    @Test
+    @DisplayName("Should create only the beans on the conversion path eagerly")
+    void shouldInitializeLazily() {
+        assertThat(context.getBeanFactory().getBeanDefinition("rollupServiceImpl").isLazyInit()).isTrue();
+        assertThat(context.getBeanFactory().getBeanDefinition("exchangeRateController").isLazyInit()).isFalse();
+    }
+}
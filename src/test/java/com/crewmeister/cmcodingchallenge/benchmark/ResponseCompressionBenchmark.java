@@ -0,0 +1,104 @@
+package com.crewmeister.cmcodingchallenge.benchmark;
+
+import com.crewmeister.cmcodingchallenge.cache.DataVersionTracker;
+import com.crewmeister.cmcodingchallenge.cache.ResponseCache;
+import com.crewmeister.cmcodingchallenge.cache.ResponseCompressor;
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRateDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares bandwidth and CPU per request of the full rate dump with response
+ * compression off, compressed on the fly, and precompressed once per data version.
+ *
+ * Run with: {@code mvn test -Dtest=ResponseCompressionBenchmark -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ResponseCompressionBenchmark {
+
+    private static final int CURRENCIES = 26;
+    private static final int DAYS = 365;
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Test
+    @DisplayName("Full dump: bandwidth and CPU with compression on and off")
+    void fullDump() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        List<ExchangeRateDto> rates = rates();
+
+        ResponseCache off = new ResponseCache(objectMapper, new DataVersionTracker(100_000),
+                new ResponseCompressor(false, 1024, false, 11), Long.MAX_VALUE);
+        ResponseCache on = new ResponseCache(objectMapper, new DataVersionTracker(100_000),
+                new ResponseCompressor(true, 1024, true, 9), Long.MAX_VALUE);
+
+        System.out.printf("%nFull dump of %d rates, %d requests per scenario%n", rates.size(), ITERATIONS);
+        System.out.printf("%-40s %12s %16s%n", "scenario", "bytes/resp", "cpu us/request");
+        report("compression off (serialize per request)",
+                () -> off.respond("all", false, () -> rates, "gzip, br").getBody());
+        report("naive gzip (serialize + gzip per request)",
+                () -> gzip(off.respond("all", false, () -> rates, null).getBody()));
+        report("precompressed, identity", () -> on.respond("all", true, () -> rates, null).getBody());
+        report("precompressed, gzip", () -> on.respond("all", true, () -> rates, "gzip").getBody());
+        report("precompressed, br", () -> on.respond("all", true, () -> rates, "gzip, br").getBody());
+
+        long start = threads.getCurrentThreadCpuTime();
+        new ResponseCompressor(true, 1024, true, 9).compress(objectMapper.writeValueAsBytes(rates));
+        System.out.printf("one-off compression per data version: %d us%n",
+                (threads.getCurrentThreadCpuTime() - start) / 1000);
+    }
+
+    private void report(String scenario, Supplier<byte[]> request) {
+        for (int i = 0; i < WARMUP; i++) {
+            request.get();
+        }
+        long bytes = 0;
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            bytes += request.get().length;
+        }
+        long cpuNanos = threads.getCurrentThreadCpuTime() - start;
+        System.out.printf("%-40s %12d %16.1f%n", scenario, bytes / ITERATIONS, cpuNanos / 1000.0 / ITERATIONS);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<ExchangeRateDto> rates() {
+        List<ExchangeRateDto> rates = new ArrayList<>(CURRENCIES * DAYS);
+        LocalDate today = LocalDate.of(2024, 12, 31);
+        for (int day = 0; day < DAYS; day++) {
+            for (int currency = 0; currency < CURRENCIES; currency++) {
+                String code = "C" + (char) ('A' + currency) + "X";
+                BigDecimal rate = BigDecimal.valueOf(1000 + currency * 37L + (day * 7919L) % 500, 3);
+                rates.add(new ExchangeRateDto(code, "Currency " + code, today.minusDays(day), rate));
+            }
+        }
+        return rates;
+    }
+}
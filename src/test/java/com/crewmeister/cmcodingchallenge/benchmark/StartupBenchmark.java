@@ -0,0 +1,151 @@
+package com.crewmeister.cmcodingchallenge.benchmark;
+
+import com.crewmeister.cmcodingchallenge.CmCodingChallengeApplication;
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateBinaryWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the time from launching the JVM to the first successful
+ * {@code /api/exchange-rates/convert}, with the default and the {@code fast-start} profile.
+ *
+ * Both start from the same local snapshot with Bundesbank unreachable, so only startup
+ * is measured. Extra JVM options, e.g. {@code -XX:SharedArchiveFile=fx.jsa}, are passed
+ * with {@code -Dbenchmark.jvm-args}, and a classpath matching the archive with
+ * {@code -Dbenchmark.classpath}.
+ *
+ * Run with: {@code mvn test -Dtest=StartupBenchmark -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StartupBenchmark {
+
+    private static final int CURRENCIES = 26;
+    private static final int DAYS = 365;
+    private static final int RUNS = 3;
+    private static final long TIMEOUT_MS = 120_000;
+    private static final LocalDate LAST_DATE = LocalDate.of(2024, 12, 31);
+
+    @Test
+    @DisplayName("Startup: time to first successful conversion")
+    void timeToFirstConversion() throws Exception {
+        Path snapshot = Files.createTempFile("fx-rates", ".snapshot");
+        writeSnapshot(snapshot);
+
+        System.out.printf("%nTime to first successful conversion, median of %d runs%n", RUNS);
+        System.out.printf("%-20s %12s%n", "profile", "ms");
+        report("default", snapshot);
+        report("fast-start", snapshot);
+
+        Files.delete(snapshot);
+    }
+
+    private void report(String profile, Path snapshot) throws Exception {
+        long[] millis = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            millis[i] = timeToFirstConversion(profile, snapshot);
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-20s %12d%n", profile, millis[RUNS / 2]);
+    }
+
+    private long timeToFirstConversion(String profile, Path snapshot) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        String jvmArgs = System.getProperty("benchmark.jvm-args", "").trim();
+        if (!jvmArgs.isEmpty()) {
+            command.addAll(Arrays.asList(jvmArgs.split("\\s+")));
+        }
+        command.add("-cp");
+        command.add(System.getProperty("benchmark.classpath",
+                System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"))));
+        command.add(CmCodingChallengeApplication.class.getName());
+        command.add("--spring.profiles.active=" + profile);
+        command.add("--server.port=" + port);
+        command.add("--fx.local-snapshot.file=" + snapshot);
+        command.add("--bundesbank.api.base-url=http://127.0.0.1:9/unreachable");
+        command.add("--spring.devtools.restart.enabled=false");
+        command.add("--logging.level.root=WARN");
+        command.add("--logging.level.com.crewmeister.cmcodingchallenge=WARN");
+
+        URL convert = new URL("http://localhost:" + port + "/api/exchange-rates/convert?currencyCode=USD&amount=100&date="
+                + LAST_DATE);
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT_MS * 1_000_000) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue());
+                }
+                if (succeeds(convert)) {
+                    return (System.nanoTime() - start) / 1_000_000;
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException("No successful conversion within " + TIMEOUT_MS + " ms");
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static boolean succeeds(URL url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(100);
+            connection.setReadTimeout(5_000);
+            try {
+                return connection.getResponseCode() == 200;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void writeSnapshot(Path file) throws IOException {
+        List<CurrencyDto> currencies = new ArrayList<>();
+        for (int currency = 0; currency < CURRENCIES; currency++) {
+            String code = currency == 0 ? "USD" : "C" + (char) ('A' + currency) + "X";
+            currencies.add(new CurrencyDto(code, "Currency " + code));
+        }
+        try (OutputStream out = Files.newOutputStream(file)) {
+            ExchangeRateBinaryWriter writer = new ExchangeRateBinaryWriter(out);
+            writer.begin(currencies);
+            for (int day = 0; day < DAYS; day++) {
+                for (int currency = 0; currency < CURRENCIES; currency++) {
+                    BigDecimal rate = BigDecimal.valueOf(1000 + currency * 37L + (day * 7919L) % 500, 3);
+                    writer.write(new ExchangeRateRow(currencies.get(currency).getCode(), LAST_DATE.minusDays(day), rate));
+                }
+            }
+            writer.finish();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.crewmeister.cmcodingchallenge.cache;
+
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.event.ExchangeRatesRefreshedEvent;
+import com.crewmeister.cmcodingchallenge.exception.ChangeHistoryUnavailableException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for DataVersionTracker.
+ */
+class DataVersionTrackerTest {
+
+    private final LocalDate date = LocalDate.of(2024, 1, 15);
+
+    @Test
+    @DisplayName("Should return only the rates added after the given version")
+    void shouldReturnRatesAddedSinceVersion() {
+        // Given
+        DataVersionTracker tracker = new DataVersionTracker(100);
+        long initial = tracker.current();
+        tracker.onExchangeRatesRefreshed(refresh(rate("USD", date), rate("GBP", date)));
+        long afterFirst = tracker.current();
+        tracker.onExchangeRatesRefreshed(refresh(rate("USD", date.plusDays(1))));
+
+        // When
+        DataChanges all = tracker.changesSince(initial);
+        DataChanges latest = tracker.changesSince(afterFirst);
+        DataChanges none = tracker.changesSince(tracker.current());
+
+        // Then
+        assertThat(all.getAddedRates()).hasSize(3);
+        assertThat(all.getVersion()).isEqualTo(initial + 2);
+        assertThat(latest.getSinceVersion()).isEqualTo(afterFirst);
+        assertThat(latest.getAddedRates()).extracting(ExchangeRateRow::getRateDate).containsExactly(date.plusDays(1));
+        assertThat(none.getAddedRates()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should forget the oldest versions beyond the retained rate budget")
+    void shouldForgetOldestVersionsBeyondBudget() {
+        // Given
+        DataVersionTracker tracker = new DataVersionTracker(2);
+        long initial = tracker.current();
+        tracker.onExchangeRatesRefreshed(refresh(rate("USD", date), rate("GBP", date)));
+        long afterFirst = tracker.current();
+
+        // When
+        tracker.onExchangeRatesRefreshed(refresh(rate("USD", date.plusDays(1))));
+
+        // Then
+        assertThatThrownBy(() -> tracker.changesSince(initial))
+                .isInstanceOf(ChangeHistoryUnavailableException.class);
+        assertThat(tracker.changesSince(afterFirst).getAddedRates()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should reject versions that were never issued")
+    void shouldRejectUnknownVersions() {
+        DataVersionTracker tracker = new DataVersionTracker(100);
+
+        assertThatThrownBy(() -> tracker.changesSince(tracker.current() + 1))
+                .isInstanceOf(ChangeHistoryUnavailableException.class);
+    }
+
+    private static ExchangeRatesRefreshedEvent refresh(ExchangeRateRow... rates) {
+        return new ExchangeRatesRefreshedEvent(List.of(rates));
+    }
+
+    private static ExchangeRateRow rate(String currencyCode, LocalDate date) {
+        return new ExchangeRateRow(currencyCode, date, BigDecimal.ONE);
+    }
+}
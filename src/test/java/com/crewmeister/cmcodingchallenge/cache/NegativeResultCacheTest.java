@@ -0,0 +1,67 @@
+package com.crewmeister.cmcodingchallenge.cache;
+
+import com.crewmeister.cmcodingchallenge.event.ExchangeRatesRefreshedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for NegativeResultCache.
+ */
+class NegativeResultCacheTest {
+
+    private final LocalDate date = LocalDate.of(2024, 1, 13);
+    private final DataVersionTracker tracker = new DataVersionTracker(100);
+
+    @Test
+    @DisplayName("Should remember a miss while its data version is current")
+    void shouldRememberMissForCurrentVersion() {
+        // Given
+        NegativeResultCache cache = new NegativeResultCache(tracker, 100);
+        cache.recordMiss("USD", date, tracker.current());
+
+        // Then
+        assertThat(cache.isKnownMiss("USD", date)).isTrue();
+        assertThat(cache.isKnownMiss("GBP", date)).isFalse();
+        assertThat(cache.isKnownMiss("USD", date.plusDays(1))).isFalse();
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should forget misses recorded before a refresh")
+    void shouldForgetMissesAfterRefresh() {
+        // Given
+        NegativeResultCache cache = new NegativeResultCache(tracker, 100);
+        long version = tracker.current();
+        cache.recordMiss("USD", date, version);
+
+        // When - a lookup that started before the refresh records its miss afterwards
+        tracker.advance();
+        cache.onExchangeRatesRefreshed(new ExchangeRatesRefreshedEvent(List.of()));
+        cache.recordMiss("GBP", date, version);
+
+        // Then
+        assertThat(cache.isKnownMiss("USD", date)).isFalse();
+        assertThat(cache.isKnownMiss("GBP", date)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should start over once the entry limit is reached")
+    void shouldStartOverWhenFull() {
+        // Given
+        NegativeResultCache cache = new NegativeResultCache(tracker, 2);
+        cache.recordMiss("USD", date, tracker.current());
+        cache.recordMiss("GBP", date, tracker.current());
+
+        // When
+        cache.recordMiss("JPY", date, tracker.current());
+
+        // Then
+        assertThat(cache.isKnownMiss("USD", date)).isFalse();
+        assertThat(cache.isKnownMiss("JPY", date)).isTrue();
+    }
+}
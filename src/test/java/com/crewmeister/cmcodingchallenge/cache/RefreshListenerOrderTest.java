@@ -0,0 +1,61 @@
+package com.crewmeister.cmcodingchallenge.cache;
+
+import com.crewmeister.cmcodingchallenge.client.BundesbankApiClient;
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+import com.crewmeister.cmcodingchallenge.event.ExchangeRatesRefreshedEvent;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import com.crewmeister.cmcodingchallenge.store.RateStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+
+/**
+ * Integration tests for the order in which refresh listeners update derived state.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:listenerorderdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@ActiveProfiles("test")
+class RefreshListenerOrderTest {
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @SpyBean
+    private RateStore rateStore;
+
+    @SpyBean
+    private DataVersionTracker dataVersionTracker;
+
+    @SpyBean
+    private ResponseCache responseCache;
+
+    @MockBean
+    private BundesbankApiClient bundesbankApiClient;
+
+    @Test
+    @DisplayName("Should rebuild the rate store before advancing the version and clearing caches")
+    void shouldRebuildStoreBeforeVersionAdvances() {
+        // When
+        exchangeRateService.importExchangeRates(List.of(new CurrencyDto("USD", "US Dollar")),
+                List.of(new ExchangeRateRow("USD", LocalDate.of(2024, 1, 15), new BigDecimal("1.0850"))));
+
+        // Then - a response cached for the new version can only see the rebuilt store
+        InOrder order = inOrder(rateStore, dataVersionTracker, responseCache);
+        order.verify(rateStore).onExchangeRatesRefreshed(any(ExchangeRatesRefreshedEvent.class));
+        order.verify(dataVersionTracker).onExchangeRatesRefreshed(any(ExchangeRatesRefreshedEvent.class));
+        order.verify(responseCache).onExchangeRatesRefreshed(any(ExchangeRatesRefreshedEvent.class));
+    }
+}
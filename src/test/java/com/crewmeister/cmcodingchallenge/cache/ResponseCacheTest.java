@@ -0,0 +1,87 @@
+package com.crewmeister.cmcodingchallenge.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ResponseCache.
+ */
+class ResponseCacheTest {
+
+    private DataVersionTracker dataVersionTracker;
+    private ResponseCache responseCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        dataVersionTracker = new DataVersionTracker(100_000);
+        responseCache = new ResponseCache(new ObjectMapper(), dataVersionTracker,
+                new ResponseCompressor(false, 1024, false, 11), 64);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Should serialize only once per key and data version")
+    void shouldSerializeOncePerVersion() {
+        // When
+        responseCache.respond("a", true, this::load, null);
+        responseCache.respond("a", true, this::load, null);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(responseCache.getHitCount()).isEqualTo(1);
+        assertThat(responseCache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reload entries after the data version advanced")
+    void shouldReloadAfterVersionAdvanced() {
+        // Given
+        responseCache.respond("a", true, this::load, null);
+
+        // When
+        dataVersionTracker.advance();
+        responseCache.respond("a", true, this::load, null);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used entries beyond the byte budget")
+    void shouldEvictLeastRecentlyUsed() {
+        // Given - each body is "\"value\"" (7 bytes), budget of 64 bytes holds 9 of them
+        for (int i = 0; i < 10; i++) {
+            responseCache.respond("key" + i, true, this::load, null);
+        }
+
+        // When - the oldest key was evicted
+        responseCache.respond("key0", true, this::load, null);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("Should never store non-cacheable responses")
+    void shouldNotStoreNonCacheableResponses() {
+        // When
+        responseCache.respond("a", false, this::load, null);
+        responseCache.respond("a", false, this::load, null);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(responseCache.getMissCount()).isZero();
+    }
+
+    private String load() {
+        loads.incrementAndGet();
+        return "value";
+    }
+}
@@ -0,0 +1,58 @@
+package com.crewmeister.cmcodingchallenge.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ResponseCompressor.
+ */
+class ResponseCompressorTest {
+
+    private static final byte[] LARGE_BODY = "{\"currencyCode\":\"USD\",\"rate\":1.085}".repeat(100)
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    @DisplayName("Should not compress bodies below the size threshold")
+    void shouldNotCompressSmallBodies() {
+        ResponseCompressor compressor = new ResponseCompressor(true, 1024, false, 11);
+
+        assertThat(compressor.compress(new byte[512])).isEmpty();
+        assertThat(compressor.compress(LARGE_BODY)).containsOnlyKeys(ContentCoding.GZIP);
+    }
+
+    @Test
+    @DisplayName("Should not compress anything when disabled")
+    void shouldNotCompressWhenDisabled() {
+        ResponseCompressor compressor = new ResponseCompressor(false, 0, true, 11);
+
+        assertThat(compressor.compress(LARGE_BODY)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should prefer brotli over gzip when both are accepted equally")
+    void shouldPreferBrotli() {
+        ResponseCompressor compressor = new ResponseCompressor(true, 0, true, 5);
+        Map<ContentCoding, byte[]> encodings = compressor.compress(LARGE_BODY);
+
+        if (encodings.containsKey(ContentCoding.BROTLI)) {
+            assertThat(compressor.negotiate("gzip, deflate, br", encodings)).isEqualTo(ContentCoding.BROTLI);
+            assertThat(compressor.negotiate("br;q=0.5, gzip", encodings)).isEqualTo(ContentCoding.GZIP);
+        }
+        assertThat(compressor.negotiate("gzip", encodings)).isEqualTo(ContentCoding.GZIP);
+    }
+
+    @Test
+    @DisplayName("Should honour q-values and wildcards in Accept-Encoding")
+    void shouldParseQualityValues() {
+        assertThat(ResponseCompressor.quality("gzip, deflate, br", "gzip")).isEqualTo(1.0);
+        assertThat(ResponseCompressor.quality("br;q=1.0, gzip;q=0.5", "gzip")).isEqualTo(0.5);
+        assertThat(ResponseCompressor.quality("gzip;q=0", "gzip")).isZero();
+        assertThat(ResponseCompressor.quality("identity", "gzip")).isZero();
+        assertThat(ResponseCompressor.quality("*;q=0.3", "br")).isEqualTo(0.3);
+    }
+}
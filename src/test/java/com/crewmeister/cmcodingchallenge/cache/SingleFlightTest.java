@@ -0,0 +1,144 @@
+package com.crewmeister.cmcodingchallenge.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for SingleFlight.
+ */
+class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    @Test
+    @DisplayName("Should run concurrent calls with the same key once")
+    void shouldCoalesceConcurrentCalls() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return "value";
+                })));
+            }
+            waitUntil(() -> singleFlight.getCoalescedCount() == 7);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            }
+            assertThat(executions.get()).isEqualTo(1);
+            assertThat(singleFlight.getExecutionCount()).isEqualTo(1);
+            assertThat(singleFlight.getInFlightCount()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should execute again once the previous call completed")
+    void shouldNotCacheCompletedCalls() {
+        AtomicInteger executions = new AtomicInteger();
+
+        singleFlight.execute("key", executions::incrementAndGet);
+        singleFlight.execute("key", executions::incrementAndGet);
+
+        assertThat(executions.get()).isEqualTo(2);
+        assertThat(singleFlight.getCoalescedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should propagate the exception to every waiting caller")
+    void shouldPropagateExceptionToWaiters() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalArgumentException failure = new IllegalArgumentException("boom");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> first = executor.submit(() -> singleFlight.execute("key", () -> {
+                await(release);
+                throw failure;
+            }));
+            waitUntil(() -> singleFlight.getInFlightCount() == 1);
+            Future<Object> second = executor.submit(() -> singleFlight.execute("key", () -> "unused"));
+            waitUntil(() -> singleFlight.getCoalescedCount() == 1);
+            release.countDown();
+
+            for (Future<Object> result : List.of(first, second)) {
+                assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCause(failure);
+            }
+            assertThat(singleFlight.execute("key", () -> "retried")).isEqualTo("retried");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should let an interrupted waiter leave without cancelling the call")
+    void shouldCancelOnlyTheInterruptedWaiter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            Future<String> first = executor.submit(() -> singleFlight.execute("key", () -> {
+                await(release);
+                return "value";
+            }));
+            waitUntil(() -> singleFlight.getInFlightCount() == 1);
+
+            AtomicReference<Throwable> waiterFailure = new AtomicReference<>();
+            Thread waiter = new Thread(() -> {
+                try {
+                    singleFlight.execute("key", () -> "unused");
+                } catch (Throwable e) {
+                    waiterFailure.set(e);
+                }
+            });
+            waiter.start();
+            waitUntil(() -> singleFlight.getCoalescedCount() == 1);
+            waiter.interrupt();
+            waiter.join(5000);
+            release.countDown();
+
+            assertThat(waiterFailure.get()).isInstanceOf(CancellationException.class);
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met in time");
+            }
+            Thread.sleep(1);
+        }
+    }
+}
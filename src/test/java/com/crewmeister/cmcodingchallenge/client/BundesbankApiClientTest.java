@@ -0,0 +1,134 @@
+package com.crewmeister.cmcodingchallenge.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Unit tests for the conditional and cached series fetches of BundesbankApiClient.
+ */
+class BundesbankApiClientTest {
+
+    private static final String SERIES_URL = "http://bundesbank.test/BBEX3/D.USD.EUR.BB.AC.000?lastNObservations=365";
+    private static final String LAST_MODIFIED = "Mon, 15 Jan 2024 16:00:00 GMT";
+
+    private static final String CSV = "TIME_PERIOD,OBS_VALUE\n2024-01-15,1.0850\n";
+
+    @TempDir
+    Path cacheDirectory;
+
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+    private BundesbankApiClient client;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        client = new BundesbankApiClient(restTemplate, new RawResponseCache("", 3600, false), "http://bundesbank.test");
+    }
+
+    @Test
+    @DisplayName("Should return the rates with the validators of the response")
+    void shouldReturnRatesWithValidators() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"v1\"");
+        headers.set(HttpHeaders.LAST_MODIFIED, LAST_MODIFIED);
+        server.expect(requestTo(SERIES_URL))
+                .andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+                .andExpect(headerDoesNotExist(HttpHeaders.IF_MODIFIED_SINCE))
+                .andRespond(withSuccess(CSV, MediaType.valueOf("text/csv"))
+                        .headers(headers));
+
+        SeriesFetchResult result = client.fetchExchangeRatesIfModified("USD", null, null);
+
+        assertThat(result.getStatus()).isEqualTo(SeriesFetchResult.Status.DOWNLOADED);
+        assertThat(result.getRates()).containsEntry(LocalDate.of(2024, 1, 15), new BigDecimal("1.0850"));
+        assertThat(result.getEtag()).isEqualTo("\"v1\"");
+        assertThat(result.getLastModified()).isEqualTo(LAST_MODIFIED);
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Should send the validators and report an unchanged series")
+    void shouldReportNotModified() {
+        server.expect(requestTo(SERIES_URL))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andExpect(header(HttpHeaders.IF_MODIFIED_SINCE, LAST_MODIFIED))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        SeriesFetchResult result = client.fetchExchangeRatesIfModified("USD", "\"v1\"", LAST_MODIFIED);
+
+        assertThat(result.getStatus()).isEqualTo(SeriesFetchResult.Status.NOT_MODIFIED);
+        assertThat(result.getRates()).isEmpty();
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Should serve a fresh cached response without contacting Bundesbank")
+    void shouldServeFreshCachedResponse() {
+        RawResponseCache cache = new RawResponseCache(cacheDirectory.toString(), 3600, false);
+        client = new BundesbankApiClient(restTemplate, cache, "http://bundesbank.test");
+        server.expect(requestTo(SERIES_URL))
+                .andRespond(withSuccess(CSV, MediaType.valueOf("text/csv")));
+
+        client.fetchExchangeRatesIfModified("USD", null, null);
+        SeriesFetchResult cached = client.fetchExchangeRatesIfModified("USD", null, null);
+
+        assertThat(cached.getStatus()).isEqualTo(SeriesFetchResult.Status.DOWNLOADED);
+        assertThat(cached.getRates()).containsEntry(LocalDate.of(2024, 1, 15), new BigDecimal("1.0850"));
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Should serve a stale cached response when Bundesbank fails")
+    void shouldServeStaleCachedResponseOnFailure() {
+        RawResponseCache cache = new RawResponseCache(cacheDirectory.toString(), 0, false);
+        client = new BundesbankApiClient(restTemplate, cache, "http://bundesbank.test");
+        server.expect(ExpectedCount.twice(), requestTo(SERIES_URL))
+                .andRespond(withSuccess(CSV, MediaType.valueOf("text/csv")));
+        server.expect(requestTo(SERIES_URL))
+                .andRespond(withServerError());
+
+        client.fetchExchangeRatesIfModified("USD", null, null);
+        assertThat(client.fetchExchangeRatesIfModified("USD", null, null).getStatus())
+                .isEqualTo(SeriesFetchResult.Status.DOWNLOADED);
+        SeriesFetchResult stale = client.fetchExchangeRatesIfModified("USD", null, null);
+
+        assertThat(stale.getStatus()).isEqualTo(SeriesFetchResult.Status.DOWNLOADED);
+        assertThat(stale.getRates()).hasSize(1);
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Should only serve cached responses in offline mode")
+    void shouldOnlyServeCachedResponsesOffline() {
+        RawResponseCache cache = new RawResponseCache(cacheDirectory.toString(), 3600, true);
+        cache.put(SERIES_URL, CSV, null, null);
+        client = new BundesbankApiClient(restTemplate, cache, "http://bundesbank.test");
+
+        assertThat(client.fetchExchangeRatesIfModified("USD", null, null).getRates()).hasSize(1);
+        assertThat(client.fetchExchangeRatesIfModified("GBP", null, null).getStatus())
+                .isEqualTo(SeriesFetchResult.Status.FAILED);
+        server.verify();
+    }
+}
@@ -0,0 +1,64 @@
+package com.crewmeister.cmcodingchallenge.client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RawResponseCache.
+ */
+class RawResponseCacheTest {
+
+    private static final String URL = "http://bundesbank.test/BBEX3/D.USD.EUR.BB.AC.000?lastNObservations=365";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should return a stored response with its validators until it expires")
+    void shouldStoreResponses() {
+        RawResponseCache cache = new RawResponseCache(directory.toString(), 3600, false);
+        cache.put(URL, "body", "\"v1\"", null);
+
+        RawResponseCache.CachedResponse cached = cache.get(URL).orElseThrow();
+
+        assertThat(cached.getBody()).isEqualTo("body");
+        assertThat(cached.matches("\"v1\"", null)).isTrue();
+        assertThat(cached.matches("\"v2\"", null)).isFalse();
+        assertThat(cache.isFresh(cached)).isTrue();
+        assertThat(new RawResponseCache(directory.toString(), 0, false).isFresh(cached)).isFalse();
+        assertThat(new RawResponseCache(directory.toString(), 0, true).isFresh(cached)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should store identical responses once")
+    void shouldStoreIdenticalResponsesOnce() throws IOException {
+        RawResponseCache cache = new RawResponseCache(directory.toString(), 3600, false);
+        cache.put(URL, "body", null, null);
+        cache.put(URL + "&other", "body", null, null);
+
+        try (Stream<Path> objects = Files.list(directory.resolve("objects"))) {
+            assertThat(objects.count()).isEqualTo(1);
+        }
+        assertThat(cache.get(URL + "&other")).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should ignore a damaged response")
+    void shouldIgnoreDamagedResponse() throws IOException {
+        RawResponseCache cache = new RawResponseCache(directory.toString(), 3600, false);
+        cache.put(URL, "body", null, null);
+        try (Stream<Path> objects = Files.list(directory.resolve("objects"))) {
+            Files.writeString(objects.findFirst().orElseThrow(), "tampered");
+        }
+
+        assertThat(cache.get(URL)).isEmpty();
+    }
+}
@@ -0,0 +1,128 @@
+package com.crewmeister.cmcodingchallenge.config;
+
+import com.crewmeister.cmcodingchallenge.client.BundesbankApiClient;
+import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
+import com.crewmeister.cmcodingchallenge.domain.entity.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the routing of transactions to the read and write pools.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:routingdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DataSourceRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @MockBean
+    private BundesbankApiClient bundesbankApiClient;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ConnectionPools connectionPools;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Should use the read pool in read-only transactions")
+    void shouldRouteReadOnlyTransactionsToReadPool() {
+        assertThat(usedPool(true)).isEqualTo(DataSourceConfig.READ_POOL);
+    }
+
+    @Test
+    @DisplayName("Should use the write pool in read-write transactions")
+    void shouldRouteReadWriteTransactionsToWritePool() {
+        assertThat(usedPool(false)).isEqualTo(DataSourceConfig.WRITE_POOL);
+    }
+
+    @Test
+    @DisplayName("Should report metrics per pool")
+    void shouldReportMetricsPerPool() {
+        usedPool(true);
+        usedPool(false);
+
+        assertThat(meterRegistry.find("hikaricp.connections.acquire").tag("pool", DataSourceConfig.READ_POOL).timer())
+                .isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.usage").tag("pool", DataSourceConfig.WRITE_POOL).timer())
+                .isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should write with the write pool after a read-only transaction in the same request")
+    void shouldUseWritePoolForBackfillWithinRequest() throws Exception {
+        // Given - a lookup older than the loaded window, which validates read-only and then backfills
+        Currency usd = currencyRepository.save(new Currency("USD", "US Dollar"));
+        exchangeRateRepository.save(new ExchangeRate(usd, LocalDate.of(2024, 1, 15), new BigDecimal("1.0850")));
+        LocalDate historicDate = LocalDate.of(2023, 6, 1);
+        when(bundesbankApiClient.fetchExchangeRates("USD", LocalDate.of(2023, 1, 1), LocalDate.of(2024, 1, 14)))
+                .thenReturn(Map.of(historicDate, new BigDecimal("1.0790")));
+        long writes = connectionsUsed(DataSourceConfig.WRITE_POOL);
+
+        // When
+        mockMvc.perform(get("/api/exchange-rates/{currency}/{date}", "USD", historicDate))
+                .andExpect(status().isOk());
+
+        // Then - the backfill got a connection of its own from the write pool
+        assertThat(connectionsUsed(DataSourceConfig.WRITE_POOL)).isGreaterThan(writes);
+        assertThat(exchangeRateRepository.findByCurrencyCodeAndDate("USD", historicDate)).isPresent();
+    }
+
+    private long connectionsUsed(String pool) {
+        return meterRegistry.get("hikaricp.connections.usage").tag("pool", pool).timer().count();
+    }
+
+    private String usedPool(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            // The connection stays checked out until the transaction completes
+            if (isActive(connectionPools.getRead())) {
+                return connectionPools.getRead().getPoolName();
+            }
+            return isActive(connectionPools.getWrite()) ? connectionPools.getWrite().getPoolName() : null;
+        });
+    }
+
+    private static boolean isActive(HikariDataSource pool) {
+        return pool.getHikariPoolMXBean() != null && pool.getHikariPoolMXBean().getActiveConnections() > 0;
+    }
+}
@@ -1,17 +1,26 @@
 package com.crewmeister.cmcodingchallenge.controller;
 
 import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
+import com.crewmeister.cmcodingchallenge.domain.entity.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.event.ExchangeRatesRefreshedEvent;
 import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRollupRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -30,8 +39,19 @@ class CurrencyControllerIntegrationTest {
     @Autowired
     private CurrencyRepository currencyRepository;
 
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Autowired
+    private ExchangeRateRollupRepository rollupRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @BeforeEach
     void setUp() {
+        exchangeRateRepository.deleteAll();
+        rollupRepository.deleteAll();
         currencyRepository.deleteAll();
     }
 
@@ -63,6 +83,36 @@ class CurrencyControllerIntegrationTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$", hasSize(0)));
     }
-}
 
+    @Test
+    @DisplayName("GET /api/currencies/{code}/availability - Should return runs of days with rates")
+    void getAvailability_ShouldReturnRuns() throws Exception {
+        // Given
+        Currency usd = currencyRepository.save(new Currency("USD", "US Dollar"));
+        LocalDate friday = LocalDate.of(2024, 1, 12);
+        exchangeRateRepository.save(new ExchangeRate(usd, friday, new BigDecimal("1.09")));
+        exchangeRateRepository.save(new ExchangeRate(usd, friday.plusDays(3), new BigDecimal("1.10")));
+        exchangeRateRepository.save(new ExchangeRate(usd, friday.plusDays(4), new BigDecimal("1.11")));
+        eventPublisher.publishEvent(new ExchangeRatesRefreshedEvent(List.of()));
+
+        // When/Then
+        mockMvc.perform(get("/api/currencies/{code}/availability", "usd")
+                        .param("from", friday.toString())
+                        .param("encoding", "runs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.currencyCode", is("USD")))
+                .andExpect(jsonPath("$.encoding", is("runs")))
+                .andExpect(jsonPath("$.count", is(3)))
+                .andExpect(jsonPath("$.runs", hasSize(2)))
+                .andExpect(jsonPath("$.runs[1].from", is("2024-01-15")))
+                .andExpect(jsonPath("$.runs[1].to", is("2024-01-16")))
+                .andExpect(jsonPath("$.dates").doesNotExist());
+    }
 
+    @Test
+    @DisplayName("GET /api/currencies/{code}/availability - Should return 404 for unknown currency")
+    void getAvailability_WhenUnknownCurrency_ShouldReturn404() throws Exception {
+        mockMvc.perform(get("/api/currencies/{code}/availability", "XYZ"))
+                .andExpect(status().isNotFound());
+    }
+}
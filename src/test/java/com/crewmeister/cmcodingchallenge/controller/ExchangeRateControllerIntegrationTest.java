@@ -1,9 +1,19 @@
 package com.crewmeister.cmcodingchallenge.controller;
 
+import com.crewmeister.cmcodingchallenge.cache.DataVersionTracker;
+import com.crewmeister.cmcodingchallenge.client.BundesbankApiClient;
+import com.crewmeister.cmcodingchallenge.cache.ResponseCache;
 import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
 import com.crewmeister.cmcodingchallenge.domain.entity.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.event.ExchangeRatesRefreshedEvent;
+import com.crewmeister.cmcodingchallenge.exception.ExternalApiException;
+import com.crewmeister.cmcodingchallenge.feed.ExchangeRateFeed;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateMediaTypes;
 import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
 import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRollupRepository;
+import com.crewmeister.cmcodingchallenge.service.RollupService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -11,21 +21,39 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
  * Integration tests for ExchangeRateController.
  */
-@SpringBootTest
+@SpringBootTest(properties = {
+        "fx.stream.max-event-rates=50",
+        "fx.stream.retained-bytes=4096"
+})
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
 class ExchangeRateControllerIntegrationTest {
@@ -39,6 +67,27 @@ class ExchangeRateControllerIntegrationTest {
     @Autowired
     private ExchangeRateRepository exchangeRateRepository;
 
+    @Autowired
+    private ExchangeRateRollupRepository rollupRepository;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private DataVersionTracker dataVersionTracker;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ExchangeRateFeed exchangeRateFeed;
+
+    @MockBean
+    private BundesbankApiClient bundesbankApiClient;
+
     private Currency usdCurrency;
     private Currency gbpCurrency;
     private LocalDate testDate;
@@ -46,7 +95,10 @@ class ExchangeRateControllerIntegrationTest {
     @BeforeEach
     void setUp() {
         exchangeRateRepository.deleteAll();
+        rollupRepository.deleteAll();
         currencyRepository.deleteAll();
+        // Data is written directly through the repositories, so nothing derived may survive
+        simulateRefresh();
 
         usdCurrency = currencyRepository.save(new Currency("USD", "US Dollar"));
         gbpCurrency = currencyRepository.save(new Currency("GBP", "British Pound Sterling"));
@@ -80,6 +132,109 @@ class ExchangeRateControllerIntegrationTest {
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$", hasSize(0)));
         }
+
+        @Test
+        @DisplayName("Should return precompressed body when gzip is accepted")
+        void shouldReturnGzipWhenAccepted() throws Exception {
+            // Given - enough rates to exceed the compression threshold
+            for (int day = 0; day < 20; day++) {
+                exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate.minusDays(day), new BigDecimal("1.0850")));
+                exchangeRateRepository.save(new ExchangeRate(gbpCurrency, testDate.minusDays(day), new BigDecimal("0.8560")));
+            }
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates")
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+        }
+
+        @Test
+        @DisplayName("Should stream CSV when requested")
+        void shouldStreamCsvWhenRequested() throws Exception {
+            // Given
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.0850")));
+            exchangeRateRepository.save(new ExchangeRate(gbpCurrency, testDate.plusDays(1), new BigDecimal("0.8560")));
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates")
+                            .accept(ExchangeRateMediaTypes.TEXT_CSV))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(ExchangeRateMediaTypes.TEXT_CSV))
+                    .andExpect(content().string("currency_code,date,rate\r\n"
+                            + "GBP,2024-01-16,0.856000\r\n"
+                            + "USD,2024-01-15,1.085000\r\n"));
+        }
+
+        @Test
+        @DisplayName("Should stream binary columnar format when requested")
+        void shouldStreamBinaryWhenRequested() throws Exception {
+            // Given
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.0850")));
+
+            // When
+            byte[] body = mockMvc.perform(get("/api/exchange-rates")
+                            .accept(ExchangeRateMediaTypes.BINARY))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(ExchangeRateMediaTypes.BINARY))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            // Then - header, one block holding the single row, trailer
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+            assertThat(new String(in.readNBytes(4), "US-ASCII")).isEqualTo("FXR1");
+            assertThat(in.readUnsignedByte()).isEqualTo(6);
+            int currencies = in.readUnsignedShort();
+            int usdIndex = -1;
+            for (int i = 0; i < currencies; i++) {
+                String code = new String(in.readNBytes(3), "US-ASCII");
+                in.readNBytes(in.readUnsignedShort());
+                if (code.equals("USD")) {
+                    usdIndex = i;
+                }
+            }
+            assertThat(in.readUnsignedShort()).isEqualTo(1);
+            assertThat(in.readInt()).isEqualTo(13);
+            assertThat(in.readUnsignedByte()).isEqualTo(usdIndex);
+            assertThat(in.readInt()).isEqualTo((int) testDate.toEpochDay());
+            assertThat(in.readLong()).isEqualTo(1_085_000L);
+            assertThat(in.readUnsignedShort()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should group rates by date with currency names sent once when requested")
+        void shouldReturnGroupedShapeWhenRequested() throws Exception {
+            // Given
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.0850")));
+            exchangeRateRepository.save(new ExchangeRate(gbpCurrency, testDate, new BigDecimal("0.8560")));
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate.plusDays(1), new BigDecimal("1.0900")));
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates").param("shape", "grouped"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.currencies.USD", is("US Dollar")))
+                    .andExpect(jsonPath("$.currencies.GBP", is("British Pound Sterling")))
+                    .andExpect(jsonPath("$.rates.*", hasSize(2)))
+                    .andExpect(jsonPath("$.rates['2024-01-16'].*", hasSize(1)))
+                    .andExpect(jsonPath("$.rates['2024-01-16'].USD", closeTo(1.09, 0.0001)))
+                    .andExpect(jsonPath("$.rates['2024-01-15'].GBP", closeTo(0.856, 0.0001)))
+                    .andExpect(jsonPath("$.rates['2024-01-15'].USD", closeTo(1.085, 0.0001)));
+        }
+
+        @Test
+        @DisplayName("Should return 400 for an unsupported shape")
+        void shouldReturn400ForUnsupportedShape() throws Exception {
+            mockMvc.perform(get("/api/exchange-rates").param("shape", "nested"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    /**
+     * Notifies all listeners as if a refresh had stored the repository contents.
+     */
+    private void simulateRefresh() {
+        eventPublisher.publishEvent(new ExchangeRatesRefreshedEvent(List.of()));
     }
 
     @Nested
@@ -101,6 +256,102 @@ class ExchangeRateControllerIntegrationTest {
                     .andExpect(jsonPath("$[0].date", is(testDate.toString())));
         }
 
+        @Test
+        @DisplayName("Should serve repeated requests for a past date from the response cache")
+        void shouldServeRepeatedRequestsFromCache() throws Exception {
+            // Given
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.0850")));
+            mockMvc.perform(get("/api/exchange-rates/date/{date}", testDate.toString()))
+                    .andExpect(status().isOk());
+            long hits = responseCache.getHitCount();
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates/date/{date}", testDate.toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)));
+            assertThat(responseCache.getHitCount()).isEqualTo(hits + 1);
+        }
+
+        @Test
+        @DisplayName("Should not serve cached responses from an older data version")
+        void shouldNotServeOutdatedResponses() throws Exception {
+            // Given
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.0850")));
+            mockMvc.perform(get("/api/exchange-rates/date/{date}", testDate.toString()))
+                    .andExpect(jsonPath("$", hasSize(1)));
+
+            // When
+            exchangeRateRepository.save(new ExchangeRate(gbpCurrency, testDate, new BigDecimal("0.8560")));
+            dataVersionTracker.advance();
+
+            // Then
+            mockMvc.perform(get("/api/exchange-rates/date/{date}", testDate.toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(2)));
+        }
+
+        @Test
+        @DisplayName("Should not compress bodies below the size threshold")
+        void shouldNotCompressSmallBodies() throws Exception {
+            // Given
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.0850")));
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates/date/{date}", testDate.toString())
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(jsonPath("$", hasSize(1)));
+        }
+
+        @Test
+        @DisplayName("Should stream CSV for a specific date when requested")
+        void shouldStreamCsvForDate() throws Exception {
+            // Given
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.0850")));
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate.plusDays(1), new BigDecimal("1.0900")));
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates/date/{date}", testDate.toString())
+                            .accept(ExchangeRateMediaTypes.TEXT_CSV))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("currency_code,date,rate\r\nUSD,2024-01-15,1.085000\r\n"));
+        }
+
+        @Test
+        @DisplayName("Should return only the requested fields")
+        void shouldReturnSparseFieldset() throws Exception {
+            // Given
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.0850")));
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates/date/{date}", testDate.toString())
+                            .param("fields", "rate,currencyName"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].*", hasSize(2)))
+                    .andExpect(jsonPath("$[0].currencyName", is("US Dollar")))
+                    .andExpect(jsonPath("$[0].rate", closeTo(1.085, 0.0001)));
+        }
+
+        @Test
+        @DisplayName("Should return 400 for an unknown field")
+        void shouldReturn400ForUnknownField() throws Exception {
+            mockMvc.perform(get("/api/exchange-rates/date/{date}", testDate.toString())
+                            .param("fields", "rate,volume"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message", containsString("volume")));
+        }
+
+        @Test
+        @DisplayName("Should return 400 when shape and fields are combined")
+        void shouldReturn400WhenShapeAndFieldsCombined() throws Exception {
+            mockMvc.perform(get("/api/exchange-rates/date/{date}", testDate.toString())
+                            .param("shape", "grouped")
+                            .param("fields", "rate"))
+                    .andExpect(status().isBadRequest());
+        }
+
         @Test
         @DisplayName("Should return bad request for invalid date format")
         void shouldReturnBadRequestForInvalidDate() throws Exception {
@@ -108,6 +359,30 @@ class ExchangeRateControllerIntegrationTest {
                             .contentType(MediaType.APPLICATION_JSON))
                     .andExpect(status().isBadRequest());
         }
+
+        @Test
+        @DisplayName("Should return JSON error for invalid date requested as CSV or binary")
+        void shouldReturnJsonErrorForInvalidDateInStreamedFormats() throws Exception {
+            for (String mediaType : new String[]{ExchangeRateMediaTypes.TEXT_CSV, ExchangeRateMediaTypes.BINARY}) {
+                mockMvc.perform(get("/api/exchange-rates/date/{date}", "invalid-date")
+                                .accept(mediaType))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                        .andExpect(jsonPath("$.status", is(400)));
+            }
+        }
+
+        @Test
+        @DisplayName("Should return JSON error for future date requested as CSV or binary")
+        void shouldReturnJsonErrorForFutureDateInStreamedFormats() throws Exception {
+            for (String mediaType : new String[]{ExchangeRateMediaTypes.TEXT_CSV, ExchangeRateMediaTypes.BINARY}) {
+                mockMvc.perform(get("/api/exchange-rates/date/{date}", LocalDate.now().plusDays(1))
+                                .accept(mediaType))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                        .andExpect(jsonPath("$.message", containsString("future")));
+            }
+        }
     }
 
     @Nested
@@ -137,6 +412,39 @@ class ExchangeRateControllerIntegrationTest {
                     .andExpect(jsonPath("$.message", containsString("Currency not found")));
         }
 
+        @Test
+        @DisplayName("Should backfill history older than the loaded window")
+        void shouldBackfillOlderHistory() throws Exception {
+            // Given
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.0850")));
+            LocalDate oldDate = LocalDate.of(2021, 5, 17);
+            when(bundesbankApiClient.fetchExchangeRates("USD", LocalDate.of(2021, 1, 1), testDate.minusDays(1)))
+                    .thenReturn(Map.of(oldDate, new BigDecimal("1.2145")));
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates/{currency}/{date}", "USD", oldDate.toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.rate", closeTo(1.2145, 0.0001)));
+            // A date without data within the fetched range is not fetched again
+            mockMvc.perform(get("/api/exchange-rates/{currency}/{date}", "USD", oldDate.minusDays(1).toString()))
+                    .andExpect(status().isNotFound());
+            verify(bundesbankApiClient, times(1)).fetchExchangeRates(eq("USD"), any(LocalDate.class), any(LocalDate.class));
+        }
+
+        @Test
+        @DisplayName("Should keep the not-found result when the backfill fails")
+        void shouldReturn404WhenBackfillFails() throws Exception {
+            // Given
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.0850")));
+            when(bundesbankApiClient.fetchExchangeRates(eq("USD"), any(LocalDate.class), any(LocalDate.class)))
+                    .thenThrow(new ExternalApiException("Bundesbank unavailable"));
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates/{currency}/{date}", "USD", "2021-05-17"))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.status", is(404)));
+        }
+
         @Test
         @DisplayName("Should return 404 when rate not found for date")
         void shouldReturn404WhenRateNotFound() throws Exception {
@@ -190,6 +498,416 @@ class ExchangeRateControllerIntegrationTest {
                     .andExpect(status().isBadRequest());
         }
     }
-}
 
+    @Nested
+    @DisplayName("GET /api/exchange-rates/convert/from-eur")
+    class ConvertFromEurTests {
+
+        @Test
+        @DisplayName("Should convert EUR amount to foreign currency")
+        void shouldConvertEurToForeignCurrency() throws Exception {
+            // Given - 1 EUR = 1.0850 USD
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.0850")));
+
+            // When/Then - 100 EUR * 1.0850 = 108.50 USD
+            mockMvc.perform(get("/api/exchange-rates/convert/from-eur")
+                            .param("currencyCode", "USD")
+                            .param("amount", "100")
+                            .param("date", testDate.toString())
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.sourceCurrency", is("EUR")))
+                    .andExpect(jsonPath("$.targetCurrency", is("USD")))
+                    .andExpect(jsonPath("$.convertedAmount", closeTo(108.5, 0.0001)));
+        }
+    }
 
+    @Nested
+    @DisplayName("GET /api/exchange-rates/{currencyCode}/{date}/inverse")
+    class GetInverseExchangeRateTests {
+
+        @Test
+        @DisplayName("Should return EUR per unit of foreign currency")
+        void shouldReturnInverseRate() throws Exception {
+            // Given
+            exchangeRateRepository.save(new ExchangeRate(gbpCurrency, testDate, new BigDecimal("0.8")));
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates/{currency}/{date}/inverse", "GBP", testDate.toString())
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.currencyCode", is("GBP")))
+                    .andExpect(jsonPath("$.eurPerUnit", comparesEqualTo(new BigDecimal("1.25"))));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/exchange-rates/latest and /{currencyCode}/latest")
+    class GetLatestExchangeRatesTests {
+
+        @Test
+        @DisplayName("Should return the most recent rate of every currency")
+        void shouldReturnLatestRates() throws Exception {
+            // Given
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.0850")));
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate.plusDays(1), new BigDecimal("1.0900")));
+            exchangeRateRepository.save(new ExchangeRate(gbpCurrency, testDate, new BigDecimal("0.8560")));
+            simulateRefresh();
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates/latest"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(2)))
+                    .andExpect(jsonPath("$[0].currencyCode", is("GBP")))
+                    .andExpect(jsonPath("$[0].date", is(testDate.toString())))
+                    .andExpect(jsonPath("$[1].currencyCode", is("USD")))
+                    .andExpect(jsonPath("$[1].currencyName", is("US Dollar")))
+                    .andExpect(jsonPath("$[1].date", is(testDate.plusDays(1).toString())))
+                    .andExpect(jsonPath("$[1].rate", closeTo(1.09, 0.0001)));
+        }
+
+        @Test
+        @DisplayName("Should return the most recent rate of a currency")
+        void shouldReturnLatestRateOfCurrency() throws Exception {
+            // Given
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.0850")));
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate.plusDays(1), new BigDecimal("1.0900")));
+            simulateRefresh();
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates/{currency}/latest", "usd"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.currencyCode", is("USD")))
+                    .andExpect(jsonPath("$.date", is(testDate.plusDays(1).toString())));
+        }
+
+        @Test
+        @DisplayName("Should return 404 for a currency without rates")
+        void shouldReturn404ForCurrencyWithoutRates() throws Exception {
+            simulateRefresh();
+
+            mockMvc.perform(get("/api/exchange-rates/{currency}/latest", "GBP"))
+                    .andExpect(status().isNotFound());
+            mockMvc.perform(get("/api/exchange-rates/{currency}/latest", "XYZ"))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/exchange-rates/{currencyCode}/stats")
+    class GetRateStatisticsTests {
+
+        @Test
+        @DisplayName("Should return statistics for the requested range")
+        void shouldReturnStatisticsForRange() throws Exception {
+            // Given
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.10")));
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate.plusDays(1), new BigDecimal("1.30")));
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate.plusDays(2), new BigDecimal("1.20")));
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate.plusDays(3), new BigDecimal("1.00")));
+            simulateRefresh();
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates/{currency}/stats", "USD")
+                            .param("from", testDate.toString())
+                            .param("to", testDate.plusDays(2).toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.count", is(3)))
+                    .andExpect(jsonPath("$.min", closeTo(1.1, 0.0001)))
+                    .andExpect(jsonPath("$.max", closeTo(1.3, 0.0001)))
+                    .andExpect(jsonPath("$.mean", closeTo(1.2, 0.0001)))
+                    .andExpect(jsonPath("$.standardDeviation", closeTo(0.1, 0.0001)))
+                    .andExpect(jsonPath("$.firstDate", is(testDate.toString())))
+                    .andExpect(jsonPath("$.lastRate", closeTo(1.2, 0.0001)));
+        }
+
+        @Test
+        @DisplayName("Should return zero count for a range without rates")
+        void shouldReturnZeroCountForEmptyRange() throws Exception {
+            // Given
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.10")));
+            simulateRefresh();
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates/{currency}/stats", "USD")
+                            .param("from", testDate.plusDays(1).toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.count", is(0)))
+                    .andExpect(jsonPath("$.min").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Should return 400 when from is after to")
+        void shouldReturn400ForInvertedRange() throws Exception {
+            mockMvc.perform(get("/api/exchange-rates/{currency}/stats", "USD")
+                            .param("from", testDate.plusDays(1).toString())
+                            .param("to", testDate.toString()))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/exchange-rates/{currencyCode}/monthly and /yearly")
+    class GetRollupsTests {
+
+        @Test
+        @DisplayName("Should return monthly rollups within the range")
+        void shouldReturnMonthlyRollups() throws Exception {
+            // Given
+            rollupService.recordRates(usdCurrency, Map.of(
+                    LocalDate.of(2024, 1, 15), new BigDecimal("1.10"),
+                    LocalDate.of(2024, 1, 16), new BigDecimal("1.30"),
+                    LocalDate.of(2024, 2, 1), new BigDecimal("1.20"),
+                    LocalDate.of(2024, 3, 1), new BigDecimal("1.00")));
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates/{currency}/monthly", "usd")
+                            .param("from", "2024-01-20")
+                            .param("to", "2024-02-10"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(2)))
+                    .andExpect(jsonPath("$[0].period", is("2024-01")))
+                    .andExpect(jsonPath("$[0].observationCount", is(2)))
+                    .andExpect(jsonPath("$[0].average", closeTo(1.2, 0.0001)))
+                    .andExpect(jsonPath("$[0].high", closeTo(1.3, 0.0001)))
+                    .andExpect(jsonPath("$[0].low", closeTo(1.1, 0.0001)))
+                    .andExpect(jsonPath("$[0].close", closeTo(1.3, 0.0001)))
+                    .andExpect(jsonPath("$[0].closeDate", is("2024-01-16")))
+                    .andExpect(jsonPath("$[1].period", is("2024-02")));
+        }
+
+        @Test
+        @DisplayName("Should return yearly rollups")
+        void shouldReturnYearlyRollups() throws Exception {
+            // Given
+            rollupService.recordRates(usdCurrency, Map.of(
+                    LocalDate.of(2023, 12, 29), new BigDecimal("1.10"),
+                    LocalDate.of(2024, 1, 2), new BigDecimal("1.20")));
+            rollupService.recordRates(usdCurrency, Map.of(
+                    LocalDate.of(2024, 1, 3), new BigDecimal("1.40")));
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates/{currency}/yearly", "USD"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(2)))
+                    .andExpect(jsonPath("$[0].period", is("2023")))
+                    .andExpect(jsonPath("$[1].period", is("2024")))
+                    .andExpect(jsonPath("$[1].observationCount", is(2)))
+                    .andExpect(jsonPath("$[1].average", closeTo(1.3, 0.0001)))
+                    .andExpect(jsonPath("$[1].close", closeTo(1.4, 0.0001)));
+        }
+
+        @Test
+        @DisplayName("Should return 404 for unknown currency")
+        void shouldReturn404ForUnknownCurrency() throws Exception {
+            mockMvc.perform(get("/api/exchange-rates/{currency}/monthly", "XYZ"))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/exchange-rates/matrix")
+    class GetRateMatrixTests {
+
+        @Test
+        @DisplayName("Should return a date by currency grid of the requested cells")
+        void shouldReturnGrid() throws Exception {
+            // Given
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.0850")));
+            exchangeRateRepository.save(new ExchangeRate(gbpCurrency, testDate, new BigDecimal("0.8560")));
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate.plusDays(1), new BigDecimal("1.0900")));
+            simulateRefresh();
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates/matrix")
+                            .param("currencies", "usd,GBP")
+                            .param("dates", testDate.plusDays(1) + "," + testDate))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.currencies", contains("USD", "GBP")))
+                    .andExpect(jsonPath("$.dates", contains(testDate.plusDays(1).toString(), testDate.toString())))
+                    .andExpect(jsonPath("$.rates[0][0]", closeTo(1.09, 0.0001)))
+                    .andExpect(jsonPath("$.rates[0][1]").value(nullValue()))
+                    .andExpect(jsonPath("$.rates[1][0]", closeTo(1.085, 0.0001)))
+                    .andExpect(jsonPath("$.rates[1][1]", closeTo(0.856, 0.0001)));
+        }
+
+        @Test
+        @DisplayName("Should return 404 for unknown currency")
+        void shouldReturn404ForUnknownCurrency() throws Exception {
+            mockMvc.perform(get("/api/exchange-rates/matrix")
+                            .param("currencies", "USD,XYZ")
+                            .param("dates", testDate.toString()))
+                    .andExpect(status().isNotFound());
+        }
+
+        @Test
+        @DisplayName("Should return 400 when dates are missing")
+        void shouldReturn400WhenDatesMissing() throws Exception {
+            mockMvc.perform(get("/api/exchange-rates/matrix")
+                            .param("currencies", "USD"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/exchange-rates/changes")
+    class GetChangesTests {
+
+        @Test
+        @DisplayName("Should return the rates added since the version of a full download")
+        void shouldReturnRatesAddedSinceVersion() throws Exception {
+            // Given
+            String version = mockMvc.perform(get("/api/exchange-rates"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(DataVersionTracker.VERSION_HEADER);
+            exchangeRateRepository.save(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.0850")));
+            eventPublisher.publishEvent(new ExchangeRatesRefreshedEvent(
+                    List.of(new ExchangeRateRow("USD", testDate, new BigDecimal("1.0850")))));
+
+            // When/Then
+            mockMvc.perform(get("/api/exchange-rates/changes").param("since", version))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.sinceVersion", is(Integer.parseInt(version))))
+                    .andExpect(jsonPath("$.version", is(Integer.parseInt(version) + 1)))
+                    .andExpect(jsonPath("$.rates", hasSize(1)))
+                    .andExpect(jsonPath("$.rates[0].currencyCode", is("USD")))
+                    .andExpect(jsonPath("$.rates[0].currencyName", is("US Dollar")))
+                    .andExpect(jsonPath("$.rates[0].date", is(testDate.toString())));
+        }
+
+        @Test
+        @DisplayName("Should return 410 for a version that is not known")
+        void shouldReturn410ForUnknownVersion() throws Exception {
+            mockMvc.perform(get("/api/exchange-rates/changes")
+                            .param("since", Long.toString(dataVersionTracker.current() + 1)))
+                    .andExpect(status().isGone());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/exchange-rates/stream")
+    class StreamExchangeRatesTests {
+
+        @Test
+        @DisplayName("Should push rates added by a refresh to subscribers")
+        void shouldPushAddedRates() throws Exception {
+            // Given
+            MvcResult subscription = mockMvc.perform(get("/api/exchange-rates/stream")
+                            .accept(MediaType.TEXT_EVENT_STREAM))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            long sequence = exchangeRateFeed.currentSequence();
+
+            // When
+            eventPublisher.publishEvent(new ExchangeRatesRefreshedEvent(
+                    List.of(new ExchangeRateRow("USD", testDate, new BigDecimal("1.0850")))));
+
+            // Then
+            String events = awaitContent(subscription, "event:rates");
+            assertThat(events).contains("id:" + (sequence + 1));
+            assertThat(events).contains("data:[{\"currencyCode\":\"USD\",\"date\":\"2024-01-15\",\"rate\":1.0850}]");
+        }
+
+        @Test
+        @DisplayName("Should replay events missed since the Last-Event-ID")
+        void shouldReplayMissedEvents() throws Exception {
+            // Given
+            long lastSeen = exchangeRateFeed.currentSequence();
+            eventPublisher.publishEvent(new ExchangeRatesRefreshedEvent(
+                    List.of(new ExchangeRateRow("GBP", testDate, new BigDecimal("0.8560")))));
+            awaitSequence(lastSeen + 1);
+
+            // When
+            MvcResult subscription = mockMvc.perform(get("/api/exchange-rates/stream")
+                            .header("Last-Event-ID", lastSeen)
+                            .accept(MediaType.TEXT_EVENT_STREAM))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Then
+            String events = awaitContent(subscription, "event:rates");
+            assertThat(events).contains("id:" + (lastSeen + 1)).contains("\"currencyCode\":\"GBP\"");
+        }
+
+        @Test
+        @DisplayName("Should ask clients with an unknown Last-Event-ID to resync")
+        void shouldRequestResyncForUnknownEventId() throws Exception {
+            MvcResult subscription = mockMvc.perform(get("/api/exchange-rates/stream")
+                            .header("Last-Event-ID", exchangeRateFeed.currentSequence() + 100)
+                            .accept(MediaType.TEXT_EVENT_STREAM))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            assertThat(awaitContent(subscription, "event:resync"))
+                    .contains("id:" + exchangeRateFeed.currentSequence());
+        }
+
+        @Test
+        @DisplayName("Should ask subscribers to resync instead of pushing large refreshes")
+        void shouldRequestResyncForLargeRefreshes() throws Exception {
+            // Given
+            MvcResult subscription = mockMvc.perform(get("/api/exchange-rates/stream")
+                            .accept(MediaType.TEXT_EVENT_STREAM))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            long sequence = exchangeRateFeed.currentSequence();
+
+            // When
+            eventPublisher.publishEvent(new ExchangeRatesRefreshedEvent(rates(51)));
+
+            // Then
+            String events = awaitContent(subscription, "event:resync");
+            assertThat(events).contains("id:" + (sequence + 1)).doesNotContain("event:rates");
+        }
+
+        @Test
+        @DisplayName("Should bound the retained events by size")
+        void shouldBoundRetainedEventsBySize() throws Exception {
+            // Given
+            long lastSeen = exchangeRateFeed.currentSequence();
+            for (int i = 0; i < 3; i++) {
+                // About 2 KB each, so only the last one fits into the 4 KB retained
+                eventPublisher.publishEvent(new ExchangeRatesRefreshedEvent(rates(40)));
+            }
+            awaitSequence(lastSeen + 3);
+
+            // When
+            MvcResult subscription = mockMvc.perform(get("/api/exchange-rates/stream")
+                            .header("Last-Event-ID", lastSeen)
+                            .accept(MediaType.TEXT_EVENT_STREAM))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Then
+            String events = awaitContent(subscription, "event:resync");
+            assertThat(events).contains("id:" + (lastSeen + 3)).doesNotContain("event:rates");
+        }
+
+        private List<ExchangeRateRow> rates(int count) {
+            List<ExchangeRateRow> rates = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                rates.add(new ExchangeRateRow("USD", testDate.minusDays(i), new BigDecimal("1.0850")));
+            }
+            return rates;
+        }
+
+        private String awaitContent(MvcResult subscription, String expected) throws Exception {
+            long deadline = System.currentTimeMillis() + 5000;
+            String content = subscription.getResponse().getContentAsString();
+            while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+                content = subscription.getResponse().getContentAsString();
+            }
+            assertThat(content).contains(expected);
+            return content;
+        }
+
+        private void awaitSequence(long sequence) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (exchangeRateFeed.currentSequence() < sequence && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertThat(exchangeRateFeed.currentSequence()).isGreaterThanOrEqualTo(sequence);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.crewmeister.cmcodingchallenge.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for per-client rate limiting of the public API.
+ */
+@SpringBootTest(properties = {
+        "fx.rate-limit.enabled=true",
+        "fx.rate-limit.capacity=150",
+        "fx.rate-limit.refill-per-second=1",
+        "fx.rate-limit.api-keys=dump-client,first-client,second-client"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateLimitIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should reject calls over the allowance with 429 and Retry-After")
+    void shouldRejectCallsOverAllowance() throws Exception {
+        mockMvc.perform(get("/api/exchange-rates").header("X-API-Key", "dump-client"))
+                .andExpect(status().isOk());
+
+        // The full dump costs 100 tokens; only 50 are left
+        mockMvc.perform(get("/api/exchange-rates").header("X-API-Key", "dump-client"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, is("50")))
+                .andExpect(jsonPath("$.status", is(429)));
+
+        // Cheaper calls still fit into what is left
+        mockMvc.perform(get("/api/currencies").header("X-API-Key", "dump-client"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Should track each client separately")
+    void shouldTrackClientsSeparately() throws Exception {
+        mockMvc.perform(get("/api/exchange-rates").header("X-API-Key", "first-client"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/exchange-rates").header("X-API-Key", "second-client"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Should charge unknown API keys to the remote address")
+    void shouldIgnoreUnknownApiKeys() throws Exception {
+        mockMvc.perform(get("/api/exchange-rates").header("X-API-Key", "rotating-1")
+                        .with(remoteAddress("203.0.113.7")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/exchange-rates").header("X-API-Key", "rotating-2")
+                        .with(remoteAddress("203.0.113.7")))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    private static RequestPostProcessor remoteAddress(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package com.crewmeister.cmcodingchallenge.controller;
+
+import com.crewmeister.cmcodingchallenge.replication.SnapshotReplicator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.NestedTestConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.springframework.test.context.NestedTestConfiguration.EnclosingConfiguration.OVERRIDE;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for access to the replication snapshot endpoint.
+ */
+@SpringBootTest(properties = {
+        "fx.replication.peers=http://localhost:8081,http://localhost:8082",
+        "fx.rate-limit.enabled=true",
+        "fx.rate-limit.capacity=150",
+        "fx.rate-limit.refill-per-second=1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicationControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should reject snapshot requests from hosts that are not peers")
+    void shouldRejectUnknownHosts() throws Exception {
+        mockMvc.perform(get(SnapshotReplicator.SNAPSHOT_PATH).with(remoteAddress("203.0.113.9")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("Should serve peers and charge snapshots like the full dump")
+    void shouldServePeersAndChargeSnapshots() throws Exception {
+        // No data is loaded in the test profile, so the peer is asked to retry
+        mockMvc.perform(get(SnapshotReplicator.SNAPSHOT_PATH).with(remoteAddress("127.0.0.1")))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+        // A snapshot costs 100 tokens; only 50 are left
+        mockMvc.perform(get(SnapshotReplicator.SNAPSHOT_PATH).with(remoteAddress("127.0.0.1")))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Nested
+    @NestedTestConfiguration(OVERRIDE)
+    @SpringBootTest
+    @AutoConfigureMockMvc
+    @ActiveProfiles("test")
+    @DisplayName("Without configured peers")
+    class WithoutPeersTests {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Test
+        @DisplayName("Should not expose the snapshot endpoint")
+        void shouldNotExposeSnapshotEndpoint() throws Exception {
+            mockMvc.perform(get(SnapshotReplicator.SNAPSHOT_PATH).with(remoteAddress("127.0.0.1")))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    private static RequestPostProcessor remoteAddress(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
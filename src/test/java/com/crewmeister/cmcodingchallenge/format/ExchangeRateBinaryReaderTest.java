@@ -0,0 +1,90 @@
+package com.crewmeister.cmcodingchallenge.format;
+
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Unit tests for ExchangeRateBinaryReader.
+ */
+class ExchangeRateBinaryReaderTest {
+
+    private static final List<CurrencyDto> CURRENCIES = List.of(
+            new CurrencyDto("USD", "US Dollar"),
+            new CurrencyDto("JPY", "Japanese Yen"));
+
+    @Test
+    @DisplayName("Should read back what the writer wrote across several blocks")
+    void shouldRoundTripRowsAcrossBlocks() throws IOException {
+        List<ExchangeRateRow> written = new ArrayList<>();
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        for (int i = 0; i < ExchangeRateBinaryWriter.BLOCK_SIZE + 10; i++) {
+            written.add(new ExchangeRateRow(i % 2 == 0 ? "USD" : "JPY", start.plusDays(i),
+                    new BigDecimal("1.08").add(BigDecimal.valueOf(i, 6))));
+        }
+
+        ExchangeRateBinaryReader reader = new ExchangeRateBinaryReader(new ByteArrayInputStream(write(written)));
+
+        assertThat(reader.readCurrencies())
+                .extracting(CurrencyDto::getCode, CurrencyDto::getName)
+                .containsExactly(
+                        tuple("USD", "US Dollar"),
+                        tuple("JPY", "Japanese Yen"));
+        List<ExchangeRateRow> read = new ArrayList<>();
+        for (ExchangeRateRow row = reader.read(); row != null; row = reader.read()) {
+            read.add(row);
+        }
+        assertThat(read).hasSize(written.size());
+        for (int i = 0; i < written.size(); i++) {
+            assertThat(read.get(i).getCurrencyCode()).isEqualTo(written.get(i).getCurrencyCode());
+            assertThat(read.get(i).getRateDate()).isEqualTo(written.get(i).getRateDate());
+            assertThat(read.get(i).getRate()).isEqualByComparingTo(written.get(i).getRate());
+        }
+        assertThat(reader.read()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject input without the expected magic")
+    void shouldRejectUnexpectedMagic() {
+        ExchangeRateBinaryReader reader = new ExchangeRateBinaryReader(
+                new ByteArrayInputStream("currency_code,date,rate".getBytes()));
+
+        assertThatThrownBy(reader::readCurrencies).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @DisplayName("Should fail on a truncated stream")
+    void shouldFailOnTruncatedStream() throws IOException {
+        byte[] complete = write(List.of(new ExchangeRateRow("USD", LocalDate.of(2024, 1, 15), new BigDecimal("1.085"))));
+        ExchangeRateBinaryReader reader = new ExchangeRateBinaryReader(
+                new ByteArrayInputStream(Arrays.copyOf(complete, complete.length - 6)));
+        reader.readCurrencies();
+
+        assertThatThrownBy(reader::read).isInstanceOf(IOException.class);
+    }
+
+    private static byte[] write(List<ExchangeRateRow> rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExchangeRateBinaryWriter writer = new ExchangeRateBinaryWriter(out);
+        writer.begin(CURRENCIES);
+        for (ExchangeRateRow row : rows) {
+            writer.write(row);
+        }
+        writer.finish();
+        return out.toByteArray();
+    }
+}
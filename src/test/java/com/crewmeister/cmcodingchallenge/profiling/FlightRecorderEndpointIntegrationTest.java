@@ -0,0 +1,159 @@
+package com.crewmeister.cmcodingchallenge.profiling;
+
+import com.crewmeister.cmcodingchallenge.client.BundesbankApiClient;
+import com.crewmeister.cmcodingchallenge.client.SeriesFetchResult;
+import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
+import com.crewmeister.cmcodingchallenge.domain.entity.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import com.jayway.jsonpath.JsonPath;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the flight recorder endpoint.
+ */
+@SpringBootTest(properties = {
+        "management.endpoints.web.exposure.include=health,jfr",
+        "spring.datasource.url=jdbc:h2:mem:jfrdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FlightRecorderEndpointIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @MockBean
+    private BundesbankApiClient bundesbankApiClient;
+
+    @AfterEach
+    void tearDown() {
+        exchangeRateRepository.deleteAll();
+        currencyRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should record the application's events into a downloadable file")
+    void shouldRecordApplicationEvents(@TempDir Path tempDir) throws Exception {
+        // Given
+        Currency usd = currencyRepository.save(new Currency("USD", "US Dollar"));
+        LocalDate date = LocalDate.of(2024, 1, 15);
+        exchangeRateRepository.save(new ExchangeRate(usd, date, new BigDecimal("1.0850")));
+        when(bundesbankApiClient.fetchExchangeRatesIfModified(anyString(), any(), any()))
+                .thenReturn(SeriesFetchResult.notModified());
+
+        String started = mockMvc.perform(post("/actuator/jfr")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"durationSeconds\": 3, \"profile\": \"default\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.profile").value("default"))
+                .andExpect(jsonPath("$.running").value(true))
+                .andReturn().getResponse().getContentAsString();
+        long id = ((Number) JsonPath.read(started, "$.id")).longValue();
+        mockMvc.perform(post("/actuator/jfr")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"durationSeconds\": 1}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get("/actuator/jfr/{id}", id))
+                .andExpect(status().isConflict());
+
+        // When
+        exchangeRateService.convertToEur("USD", new BigDecimal("100"), date);
+        exchangeRateService.refreshExchangeRates();
+
+        // Then
+
+        awaitFinished(id);
+        byte[] recording = mockMvc.perform(get("/actuator/jfr/{id}", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        Path file = Files.write(tempDir.resolve("recording.jfr"), recording);
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        List<RecordedEvent> conversions = eventsNamed(events, "com.crewmeister.fx.Conversion");
+        assertThat(conversions).hasSize(1);
+        assertThat(conversions.get(0).getString("currencyCode")).isEqualTo("USD");
+        assertThat(conversions.get(0).getString("direction")).isEqualTo(ConversionEvent.TO_EUR);
+        assertThat(conversions.get(0).getBoolean("successful")).isTrue();
+        assertThat(eventsNamed(events, "com.crewmeister.fx.RefreshPhase"))
+                .extracting(event -> event.getString("phase"))
+                .contains(RefreshPhaseEvent.REFRESH);
+    }
+
+    @Test
+    @DisplayName("Should reject unknown profiles and durations out of range")
+    void shouldRejectInvalidRecordings() throws Exception {
+        mockMvc.perform(post("/actuator/jfr")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"durationSeconds\": 1, \"profile\": \"unknown\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/actuator/jfr")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"durationSeconds\": 100000}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should return 404 for unknown recordings")
+    void shouldReturnNotFoundForUnknownRecording() throws Exception {
+        mockMvc.perform(get("/actuator/jfr/{id}", 999999))
+                .andExpect(status().isNotFound());
+    }
+
+    private void awaitFinished(long id) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String recordings = mockMvc.perform(get("/actuator/jfr"))
+                    .andReturn().getResponse().getContentAsString();
+            List<Boolean> running = JsonPath.read(recordings, "$[?(@.id == " + id + ")].running");
+            if (!running.get(0)) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Recording " + id + " did not finish");
+    }
+
+    private static List<RecordedEvent> eventsNamed(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+}
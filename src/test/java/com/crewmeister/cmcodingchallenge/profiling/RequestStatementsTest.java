@@ -0,0 +1,47 @@
+package com.crewmeister.cmcodingchallenge.profiling;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link RequestStatements} and {@link StatementCounter}.
+ */
+class RequestStatementsTest {
+
+    @Test
+    @DisplayName("Should group statements differing in literals into one shape")
+    void shouldNormalizeLiterals() {
+        assertThat(RequestStatements.shape("select * from currency\n  where code = 'USD' and id = 42"))
+                .isEqualTo("select * from currency where code = ? and id = ?");
+        assertThat(RequestStatements.shape("select e.rate from exchange_rate e where e.id in (?, ?,?)"))
+                .isEqualTo("select e.rate from exchange_rate e where e.id in (?, ...)");
+        assertThat(RequestStatements.shape("select exchangera0_.id from exchange_rate exchangera0_"))
+                .isEqualTo("select exchangera0_.id from exchange_rate exchangera0_");
+    }
+
+    @Test
+    @DisplayName("Should count the statements of the current thread only")
+    void shouldCountStatementsOfStartedThread() throws Exception {
+        StatementCounter counter = new StatementCounter();
+        counter.inspect("select 1");
+
+        RequestStatements statements = counter.start();
+        counter.inspect("select * from currency where id = 1");
+        counter.inspect("select * from currency where id = 2");
+        counter.inspect("select * from exchange_rate");
+        Thread other = new Thread(() -> counter.inspect("select * from currency where id = 3"));
+        other.start();
+        other.join();
+        counter.stop();
+        counter.inspect("select 2");
+
+        assertThat(statements.getCount()).isEqualTo(3);
+        assertThat(statements.getShapes()).containsExactly(
+                Map.entry("select * from currency where id = ?", 2),
+                Map.entry("select * from exchange_rate", 1));
+    }
+}
@@ -0,0 +1,91 @@
+package com.crewmeister.cmcodingchallenge.profiling;
+
+import com.crewmeister.cmcodingchallenge.client.BundesbankApiClient;
+import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
+import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the per-request statement budget and the Hibernate metrics.
+ */
+@SpringBootTest(properties = {
+        "fx.statements.budget=0",
+        "fx.statements.slow-request-ms=0",
+        "spring.datasource.url=jdbc:h2:mem:statementsdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatementBudgetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @MockBean
+    private BundesbankApiClient bundesbankApiClient;
+
+    @AfterEach
+    void tearDown() {
+        currencyRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should record the statements of a request and count it over the budget")
+    void shouldRecordStatementsPerRequest() throws Exception {
+        // Given
+        currencyRepository.save(new Currency("USD", "US Dollar"));
+        double overBudget = meterRegistry.get("fx.request.statements.over.budget").counter().count();
+
+        // When
+        mockMvc.perform(get("/api/currencies"))
+                .andExpect(status().isOk());
+
+        // Then
+        assertThat(meterRegistry.get("fx.request.statements")
+                .tag("uri", "/api/currencies").summary().totalAmount())
+                .isPositive();
+        assertThat(meterRegistry.get("fx.request.statements.over.budget").counter().count())
+                .isEqualTo(overBudget + 1);
+    }
+
+    @Test
+    @DisplayName("Should count requests over the slow-request threshold")
+    void shouldCountSlowRequests() throws Exception {
+        // Given
+        double slow = meterRegistry.get("fx.request.slow").counter().count();
+
+        // When
+        mockMvc.perform(get("/api/currencies"))
+                .andExpect(status().isOk());
+
+        // Then
+        assertThat(meterRegistry.get("fx.request.slow").counter().count()).isEqualTo(slow + 1);
+    }
+
+    @Test
+    @DisplayName("Should expose Hibernate statistics as metrics")
+    void shouldExposeHibernateStatistics() {
+        currencyRepository.findAll();
+
+        assertThat(meterRegistry.get("hibernate.statements").tag("status", "prepared").functionCounter().count())
+                .isPositive();
+    }
+}
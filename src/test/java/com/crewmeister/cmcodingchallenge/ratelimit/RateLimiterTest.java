@@ -0,0 +1,108 @@
+package com.crewmeister.cmcodingchallenge.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RateLimiter and TokenBucket.
+ */
+class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    @DisplayName("Should allow calls up to the capacity and report the wait for the next one")
+    void shouldRejectOnceCapacityIsUsed() {
+        RateLimiter rateLimiter = new RateLimiter(10, 2, 100, 600, clock::get);
+
+        assertThat(rateLimiter.tryAcquire("client", 6)).isZero();
+        assertThat(rateLimiter.tryAcquire("client", 4)).isZero();
+
+        long waitNanos = rateLimiter.tryAcquire("client", 3);
+        assertThat(waitNanos).isEqualTo(TimeUnit.MILLISECONDS.toNanos(1500));
+    }
+
+    @Test
+    @DisplayName("Should refill tokens over time without exceeding the capacity")
+    void shouldRefillOverTime() {
+        RateLimiter rateLimiter = new RateLimiter(10, 2, 100, 600, clock::get);
+        rateLimiter.tryAcquire("client", 10);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(rateLimiter.tryAcquire("client", 4)).isZero();
+        assertThat(rateLimiter.tryAcquire("client", 1)).isPositive();
+
+        clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+        assertThat(rateLimiter.tryAcquire("client", 10)).isZero();
+        assertThat(rateLimiter.tryAcquire("client", 1)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should keep separate buckets per client")
+    void shouldSeparateClients() {
+        RateLimiter rateLimiter = new RateLimiter(10, 2, 100, 600, clock::get);
+
+        assertThat(rateLimiter.tryAcquire("a", 10)).isZero();
+        assertThat(rateLimiter.tryAcquire("a", 1)).isPositive();
+        assertThat(rateLimiter.tryAcquire("b", 10)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should cap costs above the capacity so they remain possible")
+    void shouldCapCostAtCapacity() {
+        RateLimiter rateLimiter = new RateLimiter(10, 2, 100, 600, clock::get);
+
+        assertThat(rateLimiter.tryAcquire("client", 50)).isZero();
+        assertThat(rateLimiter.tryAcquire("client", 1)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should stay within the client bound, dropping idle buckets only")
+    void shouldBoundTrackedClients() {
+        RateLimiter rateLimiter = new RateLimiter(10, 2, 3, 60, clock::get);
+        rateLimiter.tryAcquire("idle", 1);
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        rateLimiter.tryAcquire("a", 1);
+        rateLimiter.tryAcquire("b", 1);
+        rateLimiter.tryAcquire("c", 1);
+
+        assertThat(rateLimiter.getTrackedClientCount()).isEqualTo(3);
+
+        for (int i = 0; i < 100; i++) {
+            clock.incrementAndGet();
+            rateLimiter.tryAcquire("client-" + i, 1);
+        }
+        assertThat(rateLimiter.getTrackedClientCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should keep tracked clients and let newcomers beyond the bound share one bucket")
+    void shouldShareOverflowBucketInsteadOfEvicting() {
+        RateLimiter rateLimiter = new RateLimiter(10, 2, 2, 60, clock::get);
+        assertThat(rateLimiter.tryAcquire("a", 10)).isZero();
+        assertThat(rateLimiter.tryAcquire("b", 1)).isZero();
+
+        // A flood of new identities shares a single allowance
+        int allowed = 0;
+        for (int i = 0; i < 100; i++) {
+            if (rateLimiter.tryAcquire("flood-" + i, 1) == 0) {
+                allowed++;
+            }
+        }
+        assertThat(allowed).isEqualTo(10);
+
+        // The exhausted client was not evicted and handed a full bucket
+        assertThat(rateLimiter.tryAcquire("a", 1)).isPositive();
+        assertThat(rateLimiter.getTrackedClientCount()).isEqualTo(2);
+
+        // Once tracked clients have gone idle, newcomers get buckets of their own again
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        assertThat(rateLimiter.tryAcquire("late", 10)).isZero();
+        assertThat(rateLimiter.getTrackedClientCount()).isEqualTo(1);
+    }
+}
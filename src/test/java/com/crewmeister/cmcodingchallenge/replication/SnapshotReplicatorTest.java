@@ -0,0 +1,212 @@
+package com.crewmeister.cmcodingchallenge.replication;
+
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateBinaryWriter;
+import com.crewmeister.cmcodingchallenge.format.ExchangeRateMediaTypes;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withException;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Unit tests for SnapshotReplicator.
+ */
+@ExtendWith(MockitoExtension.class)
+class SnapshotReplicatorTest {
+
+    private static final String LEADER = "http://localhost:8081";
+    private static final String FOLLOWER = "http://localhost:8082";
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    @DisplayName("Leader should refresh from Bundesbank without contacting peers")
+    void leaderShouldRefreshDirectly() {
+        when(exchangeRateRepository.count()).thenReturn(2L);
+        SnapshotReplicator replicator = replicator(LEADER);
+
+        replicator.synchronize();
+
+        verify(exchangeRateService).refreshExchangeRates();
+        server.verify();
+        assertThat(replicator.isSnapshotAvailable()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Follower should apply the leader's snapshot instead of refreshing")
+    @SuppressWarnings("unchecked")
+    void followerShouldApplyLeaderSnapshot() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(SnapshotReplicator.DATA_VERSION_HEADER, "7");
+        server.expect(requestTo(LEADER + SnapshotReplicator.SNAPSHOT_PATH))
+                .andExpect(header(HttpHeaders.ACCEPT, ExchangeRateMediaTypes.BINARY))
+                .andRespond(withSuccess(snapshot(), MediaType.parseMediaType(ExchangeRateMediaTypes.BINARY))
+                        .headers(headers));
+        when(exchangeRateRepository.count()).thenReturn(2L);
+        SnapshotReplicator replicator = replicator(FOLLOWER);
+
+        replicator.synchronize();
+
+        ArgumentCaptor<List<CurrencyDto>> currencies = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<ExchangeRateRow>> rows = ArgumentCaptor.forClass(List.class);
+        verify(exchangeRateService).importExchangeRates(currencies.capture(), rows.capture());
+        verify(exchangeRateService, never()).refreshExchangeRates();
+        assertThat(currencies.getValue()).extracting(CurrencyDto::getCode).containsExactly("USD");
+        assertThat(rows.getValue()).hasSize(2);
+        assertThat(rows.getValue().get(0).getRate()).isEqualByComparingTo("1.085");
+        assertThat(replicator.isSnapshotAvailable()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Follower should retry while the leader is still loading")
+    void followerShouldRetryWhileLeaderIsLoading() throws IOException {
+        server.expect(requestTo(LEADER + SnapshotReplicator.SNAPSHOT_PATH))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        server.expect(requestTo(LEADER + SnapshotReplicator.SNAPSHOT_PATH))
+                .andRespond(withSuccess(snapshot(), MediaType.parseMediaType(ExchangeRateMediaTypes.BINARY)));
+
+        replicator(FOLLOWER).synchronize();
+
+        server.verify();
+        verify(exchangeRateService).importExchangeRates(anyList(), anyList());
+        verify(exchangeRateService, never()).refreshExchangeRates();
+    }
+
+    @Test
+    @DisplayName("Follower should fall back to Bundesbank when the leader is unreachable")
+    void followerShouldFallBackWhenLeaderIsUnreachable() {
+        server.expect(requestTo(LEADER + SnapshotReplicator.SNAPSHOT_PATH))
+                .andRespond(withException(new IOException("Connection refused")));
+
+        replicator(FOLLOWER).synchronize();
+
+        verify(exchangeRateService, never()).importExchangeRates(anyList(), anyList());
+        verify(exchangeRateService).refreshExchangeRates();
+    }
+
+    @Test
+    @DisplayName("Follower should fall back to Bundesbank when the snapshot is malformed")
+    void followerShouldFallBackOnMalformedSnapshot() {
+        server.expect(requestTo(LEADER + SnapshotReplicator.SNAPSHOT_PATH))
+                .andRespond(withSuccess("not a snapshot", MediaType.TEXT_PLAIN));
+
+        replicator(FOLLOWER).synchronize();
+
+        verify(exchangeRateService, never()).importExchangeRates(anyList(), anyList());
+        verify(exchangeRateService).refreshExchangeRates();
+    }
+
+    @Test
+    @DisplayName("Leader that could not fetch any rates should not serve a snapshot")
+    void leaderWithoutRatesShouldNotServeSnapshot() {
+        // Every Bundesbank fetch failed, so the refresh stored nothing
+        when(exchangeRateRepository.count()).thenReturn(0L);
+        SnapshotReplicator replicator = replicator(LEADER);
+
+        replicator.synchronize();
+
+        verify(exchangeRateService).refreshExchangeRates();
+        assertThat(replicator.isSnapshotAvailable()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Follower should fall back to Bundesbank when the leader serves an empty snapshot")
+    void followerShouldFallBackOnEmptySnapshot() throws IOException {
+        server.expect(requestTo(LEADER + SnapshotReplicator.SNAPSHOT_PATH))
+                .andRespond(withSuccess(emptySnapshot(), MediaType.parseMediaType(ExchangeRateMediaTypes.BINARY)));
+
+        replicator(FOLLOWER).synchronize();
+
+        server.verify();
+        verify(exchangeRateService, never()).importExchangeRates(anyList(), anyList());
+        verify(exchangeRateService).refreshExchangeRates();
+    }
+
+    @Test
+    @DisplayName("Instances not in the peer list should pull from every peer in order")
+    void unlistedInstanceShouldUseAllPeers() {
+        assertThat(replicator("http://localhost:9000").upstreamPeers()).containsExactly(LEADER, FOLLOWER);
+        assertThat(replicator(FOLLOWER + "/").upstreamPeers()).containsExactly(LEADER);
+    }
+
+    @Test
+    @DisplayName("Should only recognize the addresses of configured peer hosts")
+    void shouldRecognizePeerAddresses() {
+        SnapshotReplicator replicator = replicator(FOLLOWER);
+
+        assertThat(replicator.isEnabled()).isTrue();
+        assertThat(replicator.isPeerAddress("127.0.0.1")).isTrue();
+        assertThat(replicator.isPeerAddress("203.0.113.9")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should disable replication and reject every host without peers")
+    void shouldRejectEveryHostWithoutPeers() {
+        SnapshotReplicator replicator = new SnapshotReplicator(exchangeRateService, exchangeRateRepository, restTemplate,
+                new String[] {""}, LEADER, 3, 0);
+
+        assertThat(replicator.isEnabled()).isFalse();
+        assertThat(replicator.isPeerAddress("127.0.0.1")).isFalse();
+    }
+
+    private SnapshotReplicator replicator(String selfUrl) {
+        return new SnapshotReplicator(exchangeRateService, exchangeRateRepository, restTemplate,
+                new String[] {LEADER, " " + FOLLOWER + "/"}, selfUrl, 3, 0);
+    }
+
+    private static byte[] snapshot() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExchangeRateBinaryWriter writer = new ExchangeRateBinaryWriter(out);
+        writer.begin(List.of(new CurrencyDto("USD", "US Dollar")));
+        writer.write(new ExchangeRateRow("USD", LocalDate.of(2024, 1, 15), new BigDecimal("1.0850")));
+        writer.write(new ExchangeRateRow("USD", LocalDate.of(2024, 1, 16), new BigDecimal("1.0900")));
+        writer.finish();
+        return out.toByteArray();
+    }
+
+    private static byte[] emptySnapshot() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExchangeRateBinaryWriter writer = new ExchangeRateBinaryWriter(out);
+        writer.begin(List.of(new CurrencyDto("USD", "US Dollar")));
+        writer.finish();
+        return out.toByteArray();
+    }
+}
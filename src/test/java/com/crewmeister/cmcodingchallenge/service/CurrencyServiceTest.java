@@ -2,20 +2,31 @@ package com.crewmeister.cmcodingchallenge.service;
 
 import com.crewmeister.cmcodingchallenge.client.BundesbankApiClient;
 import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
+import com.crewmeister.cmcodingchallenge.dto.AvailabilityDto;
 import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
+import com.crewmeister.cmcodingchallenge.exception.CurrencyNotFoundException;
 import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
 import com.crewmeister.cmcodingchallenge.service.impl.CurrencyServiceImpl;
+import com.crewmeister.cmcodingchallenge.store.RateStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 /**
@@ -30,11 +41,17 @@ class CurrencyServiceTest {
     @Mock
     private BundesbankApiClient bundesbankApiClient;
 
+    private RateStore rateStore;
+
     private CurrencyServiceImpl currencyService;
 
+    // Thursday
+    private final LocalDate start = LocalDate.of(2024, 1, 4);
+
     @BeforeEach
     void setUp() {
-        currencyService = new CurrencyServiceImpl(currencyRepository, bundesbankApiClient);
+        rateStore = new RateStore(mock(ExchangeRateRepository.class), currencyRepository, mock(PlatformTransactionManager.class));
+        currencyService = new CurrencyServiceImpl(currencyRepository, bundesbankApiClient, rateStore);
     }
 
     @Test
@@ -129,6 +146,79 @@ class CurrencyServiceTest {
         assertThat(result).isFalse();
         verifyNoInteractions(currencyRepository);
     }
-}
 
+    @Test
+    @DisplayName("Should list the days with rates of a currency")
+    void getAvailability_ShouldListDaysWithRates() {
+        // Given - Thursday, Friday and Monday
+        seedRates(start, start.plusDays(1), start.plusDays(4));
+
+        // When
+        AvailabilityDto result = currencyService.getAvailability("usd", null, null, "dates");
+
+        // Then
+        assertThat(result.getCurrencyCode()).isEqualTo("USD");
+        assertThat(result.getFrom()).isEqualTo(start);
+        assertThat(result.getTo()).isEqualTo(start.plusDays(4));
+        assertThat(result.getCount()).isEqualTo(3);
+        assertThat(result.getDates()).containsExactly(start, start.plusDays(1), start.plusDays(4));
+        assertThat(result.getRuns()).isNull();
+        verifyNoInteractions(currencyRepository);
+    }
+
+    @Test
+    @DisplayName("Should encode the days with rates as runs and as a bitmap")
+    void getAvailability_ShouldEncodeRunsAndBitmap() {
+        // Given
+        seedRates(start, start.plusDays(1), start.plusDays(4));
+
+        // When
+        AvailabilityDto runs = currencyService.getAvailability("USD", start.minusDays(1), start.plusDays(10), "RUNS");
+        AvailabilityDto bitmap = currencyService.getAvailability("USD", start.minusDays(1), start.plusDays(10), "bitmap");
+
+        // Then
+        assertThat(runs.getRuns()).hasSize(2);
+        assertThat(runs.getRuns().get(0).getFrom()).isEqualTo(start);
+        assertThat(runs.getRuns().get(0).getTo()).isEqualTo(start.plusDays(1));
+        assertThat(runs.getRuns().get(1).getFrom()).isEqualTo(start.plusDays(4));
+        assertThat(runs.getRuns().get(1).getTo()).isEqualTo(start.plusDays(4));
+        // Bits 1, 2 and 5, counted from the day before start
+        assertThat(Base64.getDecoder().decode(bitmap.getBitmap())).containsExactly(0b100110);
+        assertThat(bitmap.getCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should return no days for a known currency without rates")
+    void getAvailability_WhenNoRates_ShouldReturnNoDays() {
+        // Given
+        when(currencyRepository.existsByCurrencyCode("GBP")).thenReturn(true);
+
+        // When
+        AvailabilityDto result = currencyService.getAvailability("GBP", start, start.plusDays(7), "dates");
+
+        // Then
+        assertThat(result.getCount()).isZero();
+        assertThat(result.getDates()).isEmpty();
+    }
 
+    @Test
+    @DisplayName("Should reject unknown currencies, encodings and inverted ranges")
+    void getAvailability_ShouldRejectInvalidRequests() {
+        // Given
+        when(currencyRepository.existsByCurrencyCode("XYZ")).thenReturn(false);
+
+        // When/Then
+        assertThatThrownBy(() -> currencyService.getAvailability("XYZ", null, null, "dates"))
+                .isInstanceOf(CurrencyNotFoundException.class);
+        assertThatThrownBy(() -> currencyService.getAvailability("USD", null, null, "xml"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> currencyService.getAvailability("USD", start.plusDays(1), start, "dates"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void seedRates(LocalDate... dates) {
+        rateStore.seed(List.of(), Arrays.stream(dates)
+                .map(date -> new ExchangeRateRow("USD", date, new BigDecimal("1.1")))
+                .collect(Collectors.toList()));
+    }
+}
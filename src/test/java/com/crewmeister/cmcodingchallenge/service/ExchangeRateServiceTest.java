@@ -1,15 +1,24 @@
 package com.crewmeister.cmcodingchallenge.service;
 
+import com.crewmeister.cmcodingchallenge.cache.DataVersionTracker;
+import com.crewmeister.cmcodingchallenge.cache.NegativeResultCache;
 import com.crewmeister.cmcodingchallenge.client.BundesbankApiClient;
+import com.crewmeister.cmcodingchallenge.client.SeriesFetchResult;
 import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
 import com.crewmeister.cmcodingchallenge.domain.entity.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.domain.projection.ExchangeRateRow;
 import com.crewmeister.cmcodingchallenge.dto.ConversionResultDto;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDto;
 import com.crewmeister.cmcodingchallenge.dto.ExchangeRateDto;
+import com.crewmeister.cmcodingchallenge.dto.InverseRateDto;
 import com.crewmeister.cmcodingchallenge.exception.CurrencyNotFoundException;
 import com.crewmeister.cmcodingchallenge.exception.ExchangeRateNotFoundException;
 import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
 import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
 import com.crewmeister.cmcodingchallenge.service.impl.ExchangeRateServiceImpl;
+import com.crewmeister.cmcodingchallenge.service.impl.RefreshMetrics;
+import com.crewmeister.cmcodingchallenge.store.RateSnapshot;
+import com.crewmeister.cmcodingchallenge.store.RateStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -17,12 +26,16 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -43,6 +56,20 @@ class ExchangeRateServiceTest {
     @Mock
     private BundesbankApiClient bundesbankApiClient;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RateStore rateStore;
+
+    @Mock
+    private RollupService rollupService;
+
+    @Mock
+    private DataVersionTracker dataVersionTracker;
+
+    private RefreshMetrics refreshMetrics;
+
     private ExchangeRateServiceImpl exchangeRateService;
 
     private Currency usdCurrency;
@@ -51,8 +78,12 @@ class ExchangeRateServiceTest {
 
     @BeforeEach
     void setUp() {
+        refreshMetrics = new RefreshMetrics();
         exchangeRateService = new ExchangeRateServiceImpl(
-                exchangeRateRepository, currencyRepository, bundesbankApiClient);
+                exchangeRateRepository, currencyRepository, bundesbankApiClient, eventPublisher, rateStore, rollupService,
+                dataVersionTracker, refreshMetrics, new NegativeResultCache(dataVersionTracker, 100));
+        // No rates in memory, so lookups go to the repositories
+        lenient().when(rateStore.current()).thenReturn(RateSnapshot.EMPTY);
 
         usdCurrency = new Currency("USD", "US Dollar");
         gbpCurrency = new Currency("GBP", "British Pound Sterling");
@@ -195,12 +226,119 @@ class ExchangeRateServiceTest {
             assertThatThrownBy(() -> exchangeRateService.getExchangeRate("USD", testDate))
                     .isInstanceOf(ExchangeRateNotFoundException.class);
         }
+
+        @Test
+        @DisplayName("Should answer a repeated miss without querying the rate again")
+        void shouldAnswerRepeatedMissFromNegativeCache() {
+            // Given
+            when(currencyRepository.existsByCurrencyCode("USD")).thenReturn(true);
+            when(exchangeRateRepository.findByCurrencyCodeAndDate("USD", testDate))
+                    .thenReturn(Optional.empty());
+            assertThatThrownBy(() -> exchangeRateService.getExchangeRate("USD", testDate))
+                    .isInstanceOf(ExchangeRateNotFoundException.class);
+
+            // When/Then
+            assertThatThrownBy(() -> exchangeRateService.getExchangeRate("USD", testDate))
+                    .isInstanceOf(ExchangeRateNotFoundException.class)
+                    .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+            verify(exchangeRateRepository, times(1)).findByCurrencyCodeAndDate("USD", testDate);
+        }
+    }
+
+    @Nested
+    @DisplayName("getLatestExchangeRate(s)")
+    class GetLatestExchangeRatesTests {
+
+        @Test
+        @DisplayName("Should answer latest rates from the rate store without queries")
+        void shouldReturnLatestRatesFromRateStore() {
+            // Given
+            RateStore seededStore = new RateStore(exchangeRateRepository, currencyRepository, mock(PlatformTransactionManager.class));
+            seededStore.seed(List.of(new CurrencyDto("USD", "US Dollar"), new CurrencyDto("GBP", "British Pound Sterling")), List.of(
+                    new ExchangeRateRow("USD", testDate.minusDays(1), new BigDecimal("1.0850")),
+                    new ExchangeRateRow("USD", testDate, new BigDecimal("1.0900")),
+                    new ExchangeRateRow("GBP", testDate.minusDays(1), new BigDecimal("0.8560"))));
+            when(rateStore.current()).thenReturn(seededStore.current());
+
+            // When
+            List<ExchangeRateDto> latest = exchangeRateService.getLatestExchangeRates();
+            ExchangeRateDto usd = exchangeRateService.getLatestExchangeRate("usd");
+
+            // Then
+            assertThat(latest).extracting(ExchangeRateDto::getCurrencyCode).containsExactly("GBP", "USD");
+            assertThat(usd.getDate()).isEqualTo(testDate);
+            assertThat(usd.getCurrencyName()).isEqualTo("US Dollar");
+            assertThat(usd.getRate()).isEqualByComparingTo("1.0900");
+            verifyNoInteractions(exchangeRateRepository, currencyRepository);
+        }
+
+        @Test
+        @DisplayName("Should fall back to the repository while the rate store is empty")
+        void shouldFallBackToRepository() {
+            // Given
+            when(currencyRepository.findByCurrencyCodeIgnoreCase("USD")).thenReturn(Optional.of(usdCurrency));
+            when(exchangeRateRepository.findFirstByCurrencyOrderByRateDateDesc(usdCurrency))
+                    .thenReturn(Optional.of(new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.0850"))));
+
+            // When
+            ExchangeRateDto result = exchangeRateService.getLatestExchangeRate("USD");
+
+            // Then
+            assertThat(result.getDate()).isEqualTo(testDate);
+            assertThat(result.getRate()).isEqualByComparingTo("1.0850");
+        }
+
+        @Test
+        @DisplayName("Should throw ExchangeRateNotFoundException for a currency without rates")
+        void shouldThrowForCurrencyWithoutRates() {
+            // Given
+            when(currencyRepository.findByCurrencyCodeIgnoreCase("GBP")).thenReturn(Optional.of(gbpCurrency));
+            when(exchangeRateRepository.findFirstByCurrencyOrderByRateDateDesc(gbpCurrency)).thenReturn(Optional.empty());
+
+            // When/Then
+            assertThatThrownBy(() -> exchangeRateService.getLatestExchangeRate("GBP"))
+                    .isInstanceOf(ExchangeRateNotFoundException.class);
+        }
     }
 
     @Nested
     @DisplayName("convertToEur")
     class ConvertToEurTests {
 
+        @Test
+        @DisplayName("Should reject a date between stored rates from memory, e.g. a weekend")
+        void shouldRejectDateWithoutRateFromRateStore() {
+            // Given - rates on Friday and Monday
+            RateStore seededStore = new RateStore(exchangeRateRepository, currencyRepository, mock(PlatformTransactionManager.class));
+            seededStore.seed(List.of(), List.of(
+                    new ExchangeRateRow("USD", testDate.minusDays(3), new BigDecimal("1.0850")),
+                    new ExchangeRateRow("USD", testDate, new BigDecimal("1.0900"))));
+            when(rateStore.current()).thenReturn(seededStore.current());
+
+            // When/Then
+            assertThatThrownBy(() -> exchangeRateService.convertToEur("USD", new BigDecimal("100"), testDate.minusDays(2)))
+                    .isInstanceOf(ExchangeRateNotFoundException.class);
+            verifyNoInteractions(exchangeRateRepository, currencyRepository);
+        }
+
+        @Test
+        @DisplayName("Should convert with the inverse rate held by the rate store")
+        void shouldConvertWithStoredInverseRate() {
+            // Given - a stored inverse rounded differently than a division would, to tell them apart
+            RateStore seededStore = new RateStore(exchangeRateRepository, currencyRepository, mock(PlatformTransactionManager.class));
+            seededStore.seed(List.of(), List.of(
+                    new ExchangeRateRow("USD", testDate, new BigDecimal("1.0850"), new BigDecimal("0.9216"))));
+            when(rateStore.current()).thenReturn(seededStore.current());
+
+            // When
+            ConversionResultDto result = exchangeRateService.convertToEur("USD", new BigDecimal("100"), testDate);
+
+            // Then
+            assertThat(result.getConvertedAmount()).isEqualByComparingTo("92.16");
+            assertThat(result.getExchangeRate()).isEqualByComparingTo("1.0850");
+            verifyNoInteractions(exchangeRateRepository, currencyRepository);
+        }
+
         @Test
         @DisplayName("Should convert foreign currency to EUR correctly")
         void shouldConvertToEurCorrectly() {
@@ -226,11 +364,24 @@ class ExchangeRateServiceTest {
         }
 
         @Test
-        @DisplayName("Should throw exception for null amount")
-        void shouldThrowExceptionForNullAmount() {
-            // Given
+        @DisplayName("Should round the product with the stored inverse on exact ties")
+        void shouldRoundStoredInverseProductOnTies() {
+            // Given - 0.01254 / 1.2 is exactly 0.01045, but the stored inverse 0.8333... is rounded down
+            ExchangeRate exchangeRate = new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.2"));
             when(currencyRepository.existsByCurrencyCode("USD")).thenReturn(true);
+            when(exchangeRateRepository.findByCurrencyCodeAndDate("USD", testDate))
+                    .thenReturn(Optional.of(exchangeRate));
+
+            // When
+            ConversionResultDto result = exchangeRateService.convertToEur("USD", new BigDecimal("0.01254"), testDate);
 
+            // Then - one unit in the last place below the 0.0105 a division would give
+            assertThat(result.getConvertedAmount()).isEqualByComparingTo("0.0104");
+        }
+
+        @Test
+        @DisplayName("Should throw exception for null amount")
+        void shouldThrowExceptionForNullAmount() {
             // When/Then
             assertThatThrownBy(() -> exchangeRateService.convertToEur("USD", null, testDate))
                     .isInstanceOf(IllegalArgumentException.class)
@@ -240,9 +391,6 @@ class ExchangeRateServiceTest {
         @Test
         @DisplayName("Should throw exception for zero amount")
         void shouldThrowExceptionForZeroAmount() {
-            // Given
-            when(currencyRepository.existsByCurrencyCode("USD")).thenReturn(true);
-
             // When/Then
             assertThatThrownBy(() -> exchangeRateService.convertToEur("USD", BigDecimal.ZERO, testDate))
                     .isInstanceOf(IllegalArgumentException.class)
@@ -252,15 +400,181 @@ class ExchangeRateServiceTest {
         @Test
         @DisplayName("Should throw exception for negative amount")
         void shouldThrowExceptionForNegativeAmount() {
-            // Given
+            // When/Then
+            assertThatThrownBy(() -> exchangeRateService.convertToEur("USD", new BigDecimal("-100"), testDate))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Amount must be greater than zero");
+        }
+    }
+
+    @Nested
+    @DisplayName("convertFromEur")
+    class ConvertFromEurTests {
+
+        @Test
+        @DisplayName("Should convert EUR to foreign currency correctly")
+        void shouldConvertFromEurCorrectly() {
+            // Given - 1 EUR = 1.0850 USD
+            BigDecimal rate = new BigDecimal("1.0850");
+            BigDecimal amount = new BigDecimal("92.1659");
+            ExchangeRate exchangeRate = new ExchangeRate(usdCurrency, testDate, rate);
+
             when(currencyRepository.existsByCurrencyCode("USD")).thenReturn(true);
+            when(exchangeRateRepository.findByCurrencyCodeAndDate("USD", testDate))
+                    .thenReturn(Optional.of(exchangeRate));
+
+            // When
+            ConversionResultDto result = exchangeRateService.convertFromEur("usd", amount, testDate);
+
+            // Then
+            assertThat(result.getSourceCurrency()).isEqualTo("EUR");
+            assertThat(result.getTargetCurrency()).isEqualTo("USD");
+            assertThat(result.getSourceAmount()).isEqualByComparingTo(amount);
+            assertThat(result.getExchangeRate()).isEqualByComparingTo(rate);
+            // 92.1659 * 1.0850 = 99.99999... (rounded to 4 decimal places)
+            assertThat(result.getConvertedAmount()).isEqualByComparingTo(new BigDecimal("100.0000"));
+        }
 
+        @Test
+        @DisplayName("Should throw exception for zero amount")
+        void shouldThrowExceptionForZeroAmount() {
             // When/Then
-            assertThatThrownBy(() -> exchangeRateService.convertToEur("USD", new BigDecimal("-100"), testDate))
+            assertThatThrownBy(() -> exchangeRateService.convertFromEur("USD", BigDecimal.ZERO, testDate))
                     .isInstanceOf(IllegalArgumentException.class)
                     .hasMessage("Amount must be greater than zero");
         }
     }
-}
 
+    @Nested
+    @DisplayName("getInverseExchangeRate")
+    class GetInverseExchangeRateTests {
+
+        @Test
+        @DisplayName("Should return precomputed inverse rate")
+        void shouldReturnInverseRate() {
+            // Given
+            ExchangeRate rate = new ExchangeRate(usdCurrency, testDate, new BigDecimal("1.25"));
+            when(currencyRepository.existsByCurrencyCode("USD")).thenReturn(true);
+            when(exchangeRateRepository.findByCurrencyCodeAndDate("USD", testDate))
+                    .thenReturn(Optional.of(rate));
+
+            // When
+            InverseRateDto result = exchangeRateService.getInverseExchangeRate("USD", testDate);
+
+            // Then
+            assertThat(result.getCurrencyCode()).isEqualTo("USD");
+            assertThat(result.getEurPerUnit()).isEqualByComparingTo(new BigDecimal("0.8"));
+        }
+
+        @Test
+        @DisplayName("Should throw ExchangeRateNotFoundException when rate not found")
+        void shouldThrowExceptionWhenRateNotFound() {
+            // Given
+            when(currencyRepository.existsByCurrencyCode("USD")).thenReturn(true);
+            when(exchangeRateRepository.findByCurrencyCodeAndDate("USD", testDate))
+                    .thenReturn(Optional.empty());
+
+            // When/Then
+            assertThatThrownBy(() -> exchangeRateService.getInverseExchangeRate("USD", testDate))
+                    .isInstanceOf(ExchangeRateNotFoundException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("refreshExchangeRates")
+    class RefreshExchangeRatesTests {
+
+        @Test
+        @DisplayName("Should store only new rates and add them to the rollups")
+        @SuppressWarnings("unchecked")
+        void refreshExchangeRates_ShouldRecordOnlyNewRatesInRollups() {
+            LocalDate knownDate = testDate.minusDays(1);
+            when(currencyRepository.findAll()).thenReturn(List.of(usdCurrency));
+            when(bundesbankApiClient.fetchExchangeRatesIfModified("USD", null, null)).thenReturn(SeriesFetchResult.downloaded(Map.of(
+                    knownDate, new BigDecimal("1.0800"),
+                    testDate, new BigDecimal("1.0850")), null, null));
+            when(exchangeRateRepository.findRateDatesByCurrency(usdCurrency)).thenReturn(Set.of(knownDate));
+
+            exchangeRateService.refreshExchangeRates();
+
+            verify(exchangeRateRepository).saveAll(argThat(rates -> rates instanceof List
+                    && ((List<?>) rates).size() == 1
+                    && ((List<ExchangeRate>) rates).get(0).getRateDate().equals(testDate)));
+            verify(rollupService).recordRates(usdCurrency, Map.of(testDate, new BigDecimal("1.0850")));
+            verify(eventPublisher).publishEvent(any(Object.class));
+        }
+
+        @Test
+        @DisplayName("Should store the validators of a downloaded series for the next fetch")
+        void refreshExchangeRates_ShouldStoreSeriesValidators() {
+            when(currencyRepository.findAll()).thenReturn(List.of(usdCurrency));
+            when(bundesbankApiClient.fetchExchangeRatesIfModified("USD", null, null)).thenReturn(SeriesFetchResult.downloaded(
+                    Map.of(testDate, new BigDecimal("1.0850")), "\"v1\"", "Mon, 15 Jan 2024 16:00:00 GMT"));
+            when(exchangeRateRepository.findRateDatesByCurrency(usdCurrency)).thenReturn(Set.of());
+
+            exchangeRateService.refreshExchangeRates();
+
+            assertThat(usdCurrency.getSeriesEtag()).isEqualTo("\"v1\"");
+            assertThat(usdCurrency.getSeriesLastModified()).isEqualTo("Mon, 15 Jan 2024 16:00:00 GMT");
+            assertThat(refreshMetrics.getFetchCount(SeriesFetchResult.Status.DOWNLOADED)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should skip storing a series that was not modified")
+        void refreshExchangeRates_ShouldSkipUnmodifiedSeries() {
+            usdCurrency.setSeriesValidators("\"v1\"", "Mon, 15 Jan 2024 16:00:00 GMT");
+            when(currencyRepository.findAll()).thenReturn(List.of(usdCurrency));
+            when(bundesbankApiClient.fetchExchangeRatesIfModified("USD", "\"v1\"", "Mon, 15 Jan 2024 16:00:00 GMT"))
+                    .thenReturn(SeriesFetchResult.notModified());
+
+            exchangeRateService.refreshExchangeRates();
+
+            verify(exchangeRateRepository, never()).findRateDatesByCurrency(any());
+            verify(exchangeRateRepository, never()).saveAll(any());
+            verifyNoInteractions(rollupService, eventPublisher);
+            assertThat(usdCurrency.getSeriesEtag()).isEqualTo("\"v1\"");
+            assertThat(refreshMetrics.getFetchCount(SeriesFetchResult.Status.NOT_MODIFIED)).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("importExchangeRates")
+    class ImportExchangeRatesTests {
 
+        @Test
+        @DisplayName("Should create missing currencies and store only new rates")
+        void importExchangeRates_ShouldCreateCurrenciesAndStoreNewRates() {
+            LocalDate knownDate = testDate.minusDays(1);
+            when(currencyRepository.findById("USD")).thenReturn(Optional.of(usdCurrency));
+            when(currencyRepository.findById("GBP")).thenReturn(Optional.empty());
+            when(currencyRepository.save(any(Currency.class))).thenReturn(gbpCurrency);
+            when(exchangeRateRepository.findRateDatesByCurrency(usdCurrency)).thenReturn(Set.of(knownDate));
+            when(exchangeRateRepository.findRateDatesByCurrency(gbpCurrency)).thenReturn(Set.of());
+
+            int added = exchangeRateService.importExchangeRates(
+                    List.of(new CurrencyDto("USD", "US Dollar"), new CurrencyDto("GBP", "British Pound Sterling")),
+                    List.of(new ExchangeRateRow("USD", knownDate, new BigDecimal("1.0800")),
+                            new ExchangeRateRow("USD", testDate, new BigDecimal("1.0850")),
+                            new ExchangeRateRow("GBP", testDate, new BigDecimal("0.8560"))));
+
+            assertThat(added).isEqualTo(2);
+            verify(rollupService).recordRates(usdCurrency, Map.of(testDate, new BigDecimal("1.0850")));
+            verify(rollupService).recordRates(gbpCurrency, Map.of(testDate, new BigDecimal("0.8560")));
+            verify(eventPublisher).publishEvent(any(Object.class));
+        }
+
+        @Test
+        @DisplayName("Should not publish a refresh when nothing was added")
+        void importExchangeRates_ShouldNotPublishWhenNothingAdded() {
+            when(currencyRepository.findById("USD")).thenReturn(Optional.of(usdCurrency));
+            when(exchangeRateRepository.findRateDatesByCurrency(usdCurrency)).thenReturn(Set.of(testDate));
+
+            int added = exchangeRateService.importExchangeRates(
+                    List.of(new CurrencyDto("USD", "US Dollar")),
+                    List.of(new ExchangeRateRow("USD", testDate, new BigDecimal("1.0850"))));
+
+            assertThat(added).isZero();
+            verifyNoInteractions(eventPublisher);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import com.crewmeister.cmcodingchallenge.service.impl.ExchangeRateServiceImpl;
+import com.crewmeister.cmcodingchallenge.service.impl.HistoryBackfiller;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for HistoryBackfiller.
+ */
+@ExtendWith(MockitoExtension.class)
+class HistoryBackfillerTest {
+
+    private static final LocalDate OLDEST = LocalDate.of(2024, 3, 1);
+
+    @Mock
+    private ExchangeRateServiceImpl exchangeRateService;
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    private HistoryBackfiller historyBackfiller;
+
+    @BeforeEach
+    void setUp() {
+        historyBackfiller = new HistoryBackfiller(exchangeRateService, exchangeRateRepository, true, "1999-01-01");
+    }
+
+    @Test
+    @DisplayName("Should fetch from the start of the year up to the oldest stored rate")
+    void shouldFetchGapBeforeOldestRate() {
+        when(exchangeRateRepository.findOldestRateDate("USD")).thenReturn(Optional.of(OLDEST));
+
+        boolean retry = historyBackfiller.backfill("usd", LocalDate.of(2023, 6, 15));
+
+        assertThat(retry).isTrue();
+        verify(exchangeRateService).backfillExchangeRates("USD", LocalDate.of(2023, 1, 1), OLDEST.minusDays(1));
+    }
+
+    @Test
+    @DisplayName("Should remember fetched ranges and not fetch again for dates without data")
+    void shouldRememberFetchedRanges() {
+        when(exchangeRateRepository.findOldestRateDate("USD")).thenReturn(Optional.of(OLDEST));
+        historyBackfiller.backfill("USD", LocalDate.of(2023, 6, 15));
+
+        // A Sunday within the fetched range
+        boolean retry = historyBackfiller.backfill("USD", LocalDate.of(2023, 6, 18));
+
+        assertThat(retry).isFalse();
+        verify(exchangeRateService, times(1)).backfillExchangeRates(anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should continue below the previously fetched range")
+    void shouldExtendBelowPreviousRange() {
+        when(exchangeRateRepository.findOldestRateDate("USD")).thenReturn(Optional.of(OLDEST));
+        historyBackfiller.backfill("USD", LocalDate.of(2023, 6, 15));
+        when(exchangeRateRepository.findOldestRateDate("USD")).thenReturn(Optional.of(LocalDate.of(2023, 1, 2)));
+
+        historyBackfiller.backfill("USD", LocalDate.of(2020, 2, 3));
+
+        verify(exchangeRateService).backfillExchangeRates("USD", LocalDate.of(2020, 1, 1), LocalDate.of(2022, 12, 31));
+    }
+
+    @Test
+    @DisplayName("Should not fetch for dates within the loaded window")
+    void shouldNotFetchWithinLoadedWindow() {
+        when(exchangeRateRepository.findOldestRateDate("USD")).thenReturn(Optional.of(OLDEST));
+
+        assertThat(historyBackfiller.backfill("USD", OLDEST.plusDays(5))).isFalse();
+        verifyNoInteractions(exchangeRateService);
+    }
+
+    @Test
+    @DisplayName("Should not fetch before the earliest available date or when disabled")
+    void shouldNotFetchBeforeEarliestDateOrWhenDisabled() {
+        HistoryBackfiller disabled = new HistoryBackfiller(exchangeRateService, exchangeRateRepository, false, "1999-01-01");
+
+        assertThat(historyBackfiller.backfill("USD", LocalDate.of(1998, 12, 31))).isFalse();
+        assertThat(disabled.backfill("USD", LocalDate.of(2023, 6, 15))).isFalse();
+        verifyNoInteractions(exchangeRateService, exchangeRateRepository);
+    }
+}
@@ -0,0 +1,82 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRateDto;
+import com.crewmeister.cmcodingchallenge.exception.ExchangeRateNotFoundException;
+import com.crewmeister.cmcodingchallenge.exception.ExternalApiException;
+import com.crewmeister.cmcodingchallenge.service.impl.ExchangeRateServiceImpl;
+import com.crewmeister.cmcodingchallenge.service.impl.HistoryBackfiller;
+import com.crewmeister.cmcodingchallenge.service.impl.LoadingExchangeRateService;
+import com.crewmeister.cmcodingchallenge.service.impl.StagedRefresher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for LoadingExchangeRateService.
+ */
+@ExtendWith(MockitoExtension.class)
+class LoadingExchangeRateServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2021, 5, 17);
+
+    @Mock
+    private ExchangeRateServiceImpl delegate;
+
+    @Mock
+    private HistoryBackfiller historyBackfiller;
+
+    @Mock
+    private StagedRefresher stagedRefresher;
+
+    private LoadingExchangeRateService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new LoadingExchangeRateService(delegate, historyBackfiller, stagedRefresher);
+    }
+
+    @Test
+    @DisplayName("Should retry a missed lookup once the history is backfilled")
+    void shouldRetryAfterBackfill() {
+        ExchangeRateDto rate = new ExchangeRateDto("USD", "US Dollar", DATE, new BigDecimal("1.2145"));
+        when(delegate.getExchangeRate("USD", DATE))
+                .thenThrow(new ExchangeRateNotFoundException("USD", DATE))
+                .thenReturn(rate);
+        when(historyBackfiller.backfill("USD", DATE)).thenReturn(true);
+
+        assertThat(service.getExchangeRate("USD", DATE)).isSameAs(rate);
+    }
+
+    @Test
+    @DisplayName("Should keep the original not-found result when the backfill fails")
+    void shouldKeepNotFoundWhenBackfillFails() {
+        ExchangeRateNotFoundException notFound = new ExchangeRateNotFoundException("USD", DATE);
+        when(delegate.getExchangeRate("USD", DATE)).thenThrow(notFound);
+        when(historyBackfiller.backfill("USD", DATE)).thenThrow(new ExternalApiException("Bundesbank unavailable"));
+
+        assertThatThrownBy(() -> service.getExchangeRate("USD", DATE)).isSameAs(notFound);
+        verify(delegate, times(1)).getExchangeRate("USD", DATE);
+    }
+
+    @Test
+    @DisplayName("Should route refreshes through the staging table when enabled")
+    void shouldRouteRefreshes() {
+        when(stagedRefresher.isEnabled()).thenReturn(true, false);
+
+        service.refreshExchangeRates();
+        service.refreshExchangeRates();
+
+        verify(stagedRefresher).refresh();
+        verify(delegate).refreshExchangeRates();
+    }
+}
@@ -0,0 +1,124 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
+import com.crewmeister.cmcodingchallenge.domain.entity.ExchangeRateRollup;
+import com.crewmeister.cmcodingchallenge.domain.entity.RollupPeriod;
+import com.crewmeister.cmcodingchallenge.dto.RateRollupDto;
+import com.crewmeister.cmcodingchallenge.exception.CurrencyNotFoundException;
+import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRollupRepository;
+import com.crewmeister.cmcodingchallenge.service.impl.RollupServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RollupServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+class RollupServiceTest {
+
+    @Mock
+    private ExchangeRateRollupRepository rollupRepository;
+
+    @Mock
+    private CurrencyRepository currencyRepository;
+
+    private RollupServiceImpl rollupService;
+
+    private Currency usdCurrency;
+
+    @BeforeEach
+    void setUp() {
+        rollupService = new RollupServiceImpl(rollupRepository, currencyRepository);
+        usdCurrency = new Currency("USD", "US Dollar");
+    }
+
+    @Test
+    @DisplayName("Should extend existing rollups with new rates")
+    @SuppressWarnings("unchecked")
+    void recordRates_ShouldExtendExistingRollups() {
+        ExchangeRateRollup january = new ExchangeRateRollup(usdCurrency, RollupPeriod.MONTH, LocalDate.of(2024, 1, 1));
+        january.add(LocalDate.of(2024, 1, 2), new BigDecimal("1.1000"));
+        when(rollupRepository.findByCurrencyAndPeriodAndPeriodStart(any(), any(), any())).thenReturn(Optional.empty());
+        when(rollupRepository.findByCurrencyAndPeriodAndPeriodStart(usdCurrency, RollupPeriod.MONTH, LocalDate.of(2024, 1, 1)))
+                .thenReturn(Optional.of(january));
+
+        rollupService.recordRates(usdCurrency, Map.of(
+                LocalDate.of(2024, 1, 3), new BigDecimal("1.0800"),
+                LocalDate.of(2024, 1, 4), new BigDecimal("1.1200"),
+                LocalDate.of(2024, 2, 1), new BigDecimal("1.0900")));
+
+        ArgumentCaptor<Collection<ExchangeRateRollup>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(rollupRepository, times(2)).saveAll(saved.capture());
+        List<ExchangeRateRollup> rollups = new ArrayList<>();
+        saved.getAllValues().forEach(rollups::addAll);
+        assertThat(rollups).hasSize(3);
+
+        assertThat(january.getObservationCount()).isEqualTo(3);
+        assertThat(january.getAverage()).isEqualByComparingTo("1.1000");
+        assertThat(january.getHigh()).isEqualByComparingTo("1.1200");
+        assertThat(january.getLow()).isEqualByComparingTo("1.0800");
+        assertThat(january.getClose()).isEqualByComparingTo("1.1200");
+        assertThat(january.getCloseDate()).isEqualTo(LocalDate.of(2024, 1, 4));
+
+        ExchangeRateRollup year = rollups.stream()
+                .filter(rollup -> rollup.getPeriod() == RollupPeriod.YEAR)
+                .findFirst()
+                .orElseThrow();
+        assertThat(year.getObservationCount()).isEqualTo(3);
+        assertThat(year.getClose()).isEqualByComparingTo("1.0900");
+    }
+
+    @Test
+    @DisplayName("Should not touch the repository when no rates were added")
+    void recordRates_ShouldIgnoreEmptyRates() {
+        rollupService.recordRates(usdCurrency, Map.of());
+
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    @DisplayName("Should map rollups of the requested periods")
+    void getRollups_ShouldMapRollups() {
+        ExchangeRateRollup rollup = new ExchangeRateRollup(usdCurrency, RollupPeriod.MONTH, LocalDate.of(2024, 1, 1));
+        rollup.add(LocalDate.of(2024, 1, 2), new BigDecimal("1.1000"));
+        when(currencyRepository.existsByCurrencyCode("USD")).thenReturn(true);
+        when(rollupRepository.findByCurrencyCodeAndPeriodBetween(
+                "USD", RollupPeriod.MONTH, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1)))
+                .thenReturn(List.of(rollup));
+
+        List<RateRollupDto> result = rollupService.getRollups(
+                "usd", RollupPeriod.MONTH, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 3, 10));
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getCurrencyCode()).isEqualTo("USD");
+        assertThat(result.get(0).getPeriod()).isEqualTo("2024-01");
+        assertThat(result.get(0).getObservationCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should throw for unknown currency")
+    void getRollups_ShouldThrowForUnknownCurrency() {
+        when(currencyRepository.existsByCurrencyCode("XYZ")).thenReturn(false);
+
+        assertThatThrownBy(() -> rollupService.getRollups("XYZ", RollupPeriod.YEAR, null, null))
+                .isInstanceOf(CurrencyNotFoundException.class);
+    }
+}
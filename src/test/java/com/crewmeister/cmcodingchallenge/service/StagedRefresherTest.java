@@ -0,0 +1,115 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.client.BundesbankApiClient;
+import com.crewmeister.cmcodingchallenge.client.SeriesFetchResult;
+import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
+import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRollupRepository;
+import com.crewmeister.cmcodingchallenge.repository.StagedExchangeRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration tests for refreshes through the staging table.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stagingdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "fx.refresh.staged=true",
+        "fx.refresh.min-coverage=1.0"})
+@ActiveProfiles("test")
+class StagedRefresherTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 1, 15);
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Autowired
+    private ExchangeRateRollupRepository rollupRepository;
+
+    @Autowired
+    private StagedExchangeRateRepository stagedExchangeRateRepository;
+
+    @MockBean
+    private BundesbankApiClient bundesbankApiClient;
+
+    @BeforeEach
+    void setUp() {
+        exchangeRateRepository.deleteAll();
+        rollupRepository.deleteAll();
+        currencyRepository.deleteAll();
+        currencyRepository.save(new Currency("USD", "US Dollar"));
+        currencyRepository.save(new Currency("GBP", "British Pound Sterling"));
+    }
+
+    @Test
+    @DisplayName("Should publish a complete load with its rollups and series validators")
+    void shouldPublishCompleteLoad() {
+        when(bundesbankApiClient.fetchExchangeRatesIfModified("USD", null, null)).thenReturn(SeriesFetchResult.downloaded(
+                Map.of(DATE.minusDays(1), new BigDecimal("1.0800"), DATE, new BigDecimal("1.0850")), "\"usd-1\"", null));
+        when(bundesbankApiClient.fetchExchangeRatesIfModified("GBP", null, null)).thenReturn(SeriesFetchResult.downloaded(
+                Map.of(DATE, new BigDecimal("0.8560")), "\"gbp-1\"", null));
+
+        exchangeRateService.refreshExchangeRates();
+
+        assertThat(exchangeRateRepository.count()).isEqualTo(3);
+        assertThat(exchangeRateRepository.findByCurrencyCodeAndDate("USD", DATE).orElseThrow().getInverseRate())
+                .isNotNull();
+        assertThat(rollupRepository.count()).isPositive();
+        assertThat(currencyRepository.findById("USD").orElseThrow().getSeriesEtag()).isEqualTo("\"usd-1\"");
+        assertThat(stagedExchangeRateRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should discard a load that does not cover all currencies")
+    void shouldDiscardIncompleteLoad() {
+        when(bundesbankApiClient.fetchExchangeRatesIfModified("USD", null, null)).thenReturn(SeriesFetchResult.downloaded(
+                Map.of(DATE, new BigDecimal("1.0850")), "\"usd-1\"", null));
+        when(bundesbankApiClient.fetchExchangeRatesIfModified("GBP", null, null)).thenReturn(SeriesFetchResult.failed());
+
+        exchangeRateService.refreshExchangeRates();
+
+        assertThat(exchangeRateRepository.count()).isZero();
+        assertThat(currencyRepository.findById("USD").orElseThrow().getSeriesEtag()).isNull();
+        assertThat(stagedExchangeRateRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should count unchanged series as covered and publish only new rates")
+    void shouldPublishOnlyNewRates() {
+        when(bundesbankApiClient.fetchExchangeRatesIfModified("USD", null, null)).thenReturn(SeriesFetchResult.downloaded(
+                Map.of(DATE, new BigDecimal("1.0850")), "\"usd-1\"", null));
+        when(bundesbankApiClient.fetchExchangeRatesIfModified("GBP", null, null)).thenReturn(SeriesFetchResult.downloaded(
+                Map.of(DATE, new BigDecimal("0.8560")), "\"gbp-1\"", null));
+        exchangeRateService.refreshExchangeRates();
+
+        when(bundesbankApiClient.fetchExchangeRatesIfModified("USD", "\"usd-1\"", null)).thenReturn(SeriesFetchResult.downloaded(
+                Map.of(DATE, new BigDecimal("1.0850"), DATE.plusDays(1), new BigDecimal("1.0900")), "\"usd-2\"", null));
+        when(bundesbankApiClient.fetchExchangeRatesIfModified("GBP", "\"gbp-1\"", null))
+                .thenReturn(SeriesFetchResult.notModified());
+        exchangeRateService.refreshExchangeRates();
+
+        assertThat(exchangeRateRepository.count()).isEqualTo(3);
+        assertThat(currencyRepository.findById("USD").orElseThrow().getSeriesEtag()).isEqualTo("\"usd-2\"");
+        assertThat(currencyRepository.findById("GBP").orElseThrow().getSeriesEtag()).isEqualTo("\"gbp-1\"");
+    }
+}
@@ -0,0 +1,89 @@
+package com.crewmeister.cmcodingchallenge.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for RateSeries.
+ */
+class RateSeriesTest {
+
+    @Test
+    @DisplayName("Should locate date ranges around gaps such as weekends")
+    void shouldLocateDateRanges() {
+        // Given - observations on days 0, 1, 4 (gap of two days)
+        LocalDate start = LocalDate.of(2024, 1, 5);
+        RateSeries series = new RateSeries("USD",
+                new int[]{(int) start.toEpochDay(), (int) start.toEpochDay() + 1, (int) start.toEpochDay() + 4},
+                new BigDecimal[]{new BigDecimal("1.1"), new BigDecimal("1.2"), new BigDecimal("1.3")},
+                new BigDecimal[]{new BigDecimal("0.9"), new BigDecimal("0.8"), new BigDecimal("0.7")});
+
+        // Then
+        assertThat(series.startIndex(start.minusDays(10))).isZero();
+        assertThat(series.startIndex(start.plusDays(2))).isEqualTo(2);
+        assertThat(series.endIndex(start.plusDays(3))).isEqualTo(2);
+        assertThat(series.endIndex(start.plusDays(4))).isEqualTo(3);
+        assertThat(series.startIndex(start.plusDays(5))).isEqualTo(3);
+        assertThat(series.endIndex(start.minusDays(1))).isZero();
+        assertThat(series.findRate(start.plusDays(1))).isEqualByComparingTo("1.2");
+        assertThat(series.findRate(start.plusDays(2))).isNull();
+        assertThat(series.indexOf(start.plusDays(1))).isEqualTo(1);
+        assertThat(series.indexOf(start.plusDays(2))).isEqualTo(-1);
+        assertThat(series.getInverseRate(series.indexOf(start.plusDays(4)))).isEqualByComparingTo("0.7");
+        assertThat(series.findRate(start.minusDays(1))).isNull();
+        assertThat(series.findRate(start.plusDays(5))).isNull();
+        assertThat(series.covers(start.plusDays(2))).isTrue();
+        assertThat(series.hasRate(start.plusDays(2))).isFalse();
+        assertThat(series.hasRate(start.plusDays(4))).isTrue();
+        assertThat(series.covers(start.plusDays(5))).isFalse();
+        assertThat(series.presence(start.minusDays(1), start.plusDays(10)).toString()).isEqualTo("{1, 2, 5}");
+        assertThat(series.presence(start.plusDays(2), start.plusDays(3)).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should match brute force statistics on every range")
+    void shouldMatchBruteForce() {
+        // Given
+        Random random = new Random(42);
+        int size = 100;
+        int[] days = new int[size];
+        BigDecimal[] rates = new BigDecimal[size];
+        for (int i = 0, day = 19000; i < size; i++, day += 1 + random.nextInt(3)) {
+            days[i] = day;
+            rates[i] = BigDecimal.valueOf(100000 + random.nextInt(20000), 5);
+        }
+        RateSeries series = new RateSeries("USD", days, rates, new BigDecimal[size]);
+
+        // Then
+        for (int start = 0; start < size; start++) {
+            for (int end = start + 1; end <= size; end++) {
+                double sum = 0;
+                double min = Double.MAX_VALUE;
+                double max = -Double.MAX_VALUE;
+                for (int i = start; i < end; i++) {
+                    sum += rates[i].doubleValue();
+                    min = Math.min(min, rates[i].doubleValue());
+                    max = Math.max(max, rates[i].doubleValue());
+                }
+                double mean = sum / (end - start);
+                double squares = 0;
+                for (int i = start; i < end; i++) {
+                    squares += Math.pow(rates[i].doubleValue() - mean, 2);
+                }
+                double deviation = end - start > 1 ? Math.sqrt(squares / (end - start - 1)) : 0;
+
+                assertThat(series.mean(start, end)).isCloseTo(mean, within(1e-9));
+                assertThat(series.standardDeviation(start, end)).isCloseTo(deviation, within(1e-9));
+                assertThat(series.getRate(series.minIndex(start, end)).doubleValue()).isEqualTo(min);
+                assertThat(series.getRate(series.maxIndex(start, end)).doubleValue()).isEqualTo(max);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.crewmeister.cmcodingchallenge.timing;
+
+import com.crewmeister.cmcodingchallenge.client.BundesbankApiClient;
+import com.crewmeister.cmcodingchallenge.domain.entity.Currency;
+import com.crewmeister.cmcodingchallenge.domain.entity.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the Server-Timing header.
+ */
+@SpringBootTest(properties = {
+        "fx.server-timing.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:timingdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ServerTimingIntegrationTest {
+
+    private static final String DURATION = ";dur=\\d+\\.\\d{3}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @MockBean
+    private BundesbankApiClient bundesbankApiClient;
+
+    @AfterEach
+    void tearDown() {
+        exchangeRateRepository.deleteAll();
+        currencyRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should break the response time down by layer")
+    void shouldSendTimingPerLayer() throws Exception {
+        // Given
+        Currency usd = currencyRepository.save(new Currency("USD", "US Dollar"));
+        LocalDate date = LocalDate.of(2024, 1, 15);
+        exchangeRateRepository.save(new ExchangeRate(usd, date, new BigDecimal("1.0850")));
+
+        // When/Then
+        mockMvc.perform(get("/api/exchange-rates/{currency}/{date}", "USD", date))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ServerTiming.HEADER, matchesPattern(
+                        "framework" + DURATION + ", controller" + DURATION + ", service" + DURATION
+                                + ", repository" + DURATION + ", serialization" + DURATION + ", total" + DURATION)));
+    }
+
+    @Test
+    @DisplayName("Should send the timing with error responses")
+    void shouldSendTimingWithErrors() throws Exception {
+        mockMvc.perform(get("/api/exchange-rates/{currency}/latest", "XYZ"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string(ServerTiming.HEADER, matchesPattern(".*repository" + DURATION + ".*")));
+    }
+}
@@ -0,0 +1,64 @@
+package com.crewmeister.cmcodingchallenge.timing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for ServerTiming.
+ */
+class ServerTimingTest {
+
+    @AfterEach
+    void tearDown() {
+        ServerTiming.stop();
+    }
+
+    @Test
+    @DisplayName("Should charge time to the innermost layer only")
+    void shouldChargeInnermostLayer() throws InterruptedException {
+        // Given
+        ServerTiming timing = ServerTiming.start();
+
+        // When
+        try (ServerTiming.Phase controller = ServerTiming.enter(ServerTiming.Layer.CONTROLLER)) {
+            Thread.sleep(20);
+            try (ServerTiming.Phase repository = ServerTiming.enter(ServerTiming.Layer.REPOSITORY)) {
+                Thread.sleep(40);
+            }
+        }
+        Map<String, Double> durations = parse(timing.toHeaderValue());
+
+        // Then
+        assertThat(durations.keySet()).containsExactly("framework", "controller", "repository", "total");
+        assertThat(durations.get("controller")).isGreaterThanOrEqualTo(20.0);
+        assertThat(durations.get("repository")).isGreaterThanOrEqualTo(40.0);
+        assertThat(durations.get("framework") + durations.get("controller") + durations.get("repository"))
+                .isCloseTo(durations.get("total"), within(0.01));
+    }
+
+    @Test
+    @DisplayName("Should hand out a shared no-op phase on threads without a collector")
+    void shouldNotCollectWithoutCollector() {
+        ServerTiming.Phase first = ServerTiming.enter(ServerTiming.Layer.SERVICE);
+        ServerTiming.Phase second = ServerTiming.enter(ServerTiming.Layer.REPOSITORY);
+
+        assertThat(first).isSameAs(second);
+        first.close();
+    }
+
+    private static Map<String, Double> parse(String header) {
+        Map<String, Double> durations = new LinkedHashMap<>();
+        for (String metric : header.split(", ")) {
+            String[] parts = metric.split(";dur=");
+            durations.put(parts[0], Double.parseDouble(parts[1]));
+        }
+        return durations;
+    }
+}